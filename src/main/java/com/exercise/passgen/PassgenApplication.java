@@ -1,9 +1,14 @@
 package com.exercise.passgen;
 
+import com.exercise.passgen.startup.PassgenRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(PassgenRuntimeHints.class)
 public class PassgenApplication {
 
 	public static void main(String[] args) {
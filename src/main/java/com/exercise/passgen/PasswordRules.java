@@ -2,4 +2,8 @@ package com.exercise.passgen;
 
 public abstract class PasswordRules {
     public static final int MIN_CHARACTERS = 3, MAX_CHARACTERS = 32, MAX_PASSWORDS_AT_ONCE = 1000;
+    /**
+     * Passphrases - word count and the longest word accepted in a wordlist.
+     */
+    public static final int MIN_WORDS = 3, MAX_WORDS = 12, MAX_WORD_CHARACTERS = 16;
 }
@@ -0,0 +1,164 @@
+package com.exercise.passgen.actuator;
+
+import com.exercise.passgen.config.JfrProperties;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * {@code /actuator/jfr} - a bounded JDK Flight Recorder recording of the whole JVM, including the passgen events
+ * ({@link com.exercise.passgen.diagnostics}). {@code POST} starts it, {@code GET} reports its state and
+ * {@code DELETE} stops it (if it is still running) and returns the {@code .jfr} file. Only one recording at a time.
+ * <p>
+ * Not exposed by default - the recording contains thread names, stack traces and system properties, so it belongs
+ * on a management port that is not reachable publicly.
+ */
+@Slf4j
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+    private static final String RECORDING_NAME = "passgen";
+
+    private final JfrProperties properties;
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Status status() {
+        return status(recording);
+    }
+
+    /**
+     * @param duration length of the recording, capped by {@link JfrProperties#getMaxDuration()}
+     * @param settings JFR configuration, {@code default} or {@code profile}
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Status> start(@Nullable Duration duration, @Nullable String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING)
+            return new WebEndpointResponse<>(status(recording), HttpStatus.CONFLICT.value());
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : properties.getSettings());
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        if (recording != null) recording.close();
+        Duration requested = duration != null ? duration : properties.getDefaultDuration();
+        recording = new Recording(configuration);
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setDuration(requested.compareTo(properties.getMaxDuration()) < 0 ? requested : properties.getMaxDuration());
+        recording.setMaxSize(properties.getMaxSize().toBytes());
+        recording.start();
+
+        log.info("JFR recording started ({}, {} s)", configuration.getName(), recording.getDuration().toSeconds());
+        return new WebEndpointResponse<>(status(recording), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (recording == null) return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+
+        Path file = Files.createTempFile("passgen-", ".jfr");
+        try {
+            if (recording.getState() == RecordingState.RUNNING) recording.stop();
+            recording.dump(file);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            recording.close();
+            recording = null;
+        }
+
+        log.info("JFR recording stopped, {} bytes", Files.size(file));
+        return new WebEndpointResponse<>(new TemporaryFileResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) recording.close();
+    }
+
+    private static Status status(Recording recording) {
+        if (recording == null) return Status.builder().state("NONE").build();
+
+        return Status.builder()
+                .state(recording.getState().name())
+                .startTime(recording.getStartTime())
+                .duration(recording.getDuration())
+                .size(recording.getSize())
+                .build();
+    }
+
+    @Data
+    @Builder
+    public static class Status {
+        /**
+         * NONE, or the {@link RecordingState} of the current recording.
+         */
+        private String state;
+        private Instant startTime;
+        private Duration duration;
+        /**
+         * Bytes recorded so far.
+         */
+        private long size;
+    }
+
+    /**
+     * Deleted once it has been sent.
+     */
+    private static class TemporaryFileResource extends FileSystemResource {
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // Keeps the content from being written without the stream, which deletes the file
+            return false;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.exercise.passgen.actuator;
+
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.repositories.SearchHashBucketCount;
+import com.exercise.passgen.security.SearchHashGenerator;
+import com.exercise.passgen.services.LookupStatistics;
+import com.exercise.passgen.services.SearchHashMigration;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * {@code /actuator/searchhash} - distribution of candidate set sizes (entities sharing a search hash, i.e. Argon2
+ * verifications needed by a lookup) for every search hash scheme present in the storage. Scans the whole table,
+ * meant for tuning the scheme selectivity, not for frequent polling.
+ */
+@Component
+@Endpoint(id = "searchhash")
+@RequiredArgsConstructor
+public class SearchHashEndpoint {
+    private final PasswordRepository passwordRepository;
+    private final SearchHashMigration searchHashMigration;
+    private final LookupStatistics lookupStatistics;
+
+    @ReadOperation
+    public Report report() {
+        Map<String, SchemeReport> schemes = new TreeMap<>();
+        Map<String, Long> squaredSizes = new HashMap<>();
+
+        for (SearchHashBucketCount count: passwordRepository.countSearchHashBuckets()) {
+            String scheme = String.valueOf(count.getScheme());
+            SchemeReport report = schemes.computeIfAbsent(scheme, key -> SchemeReport.builder()
+                    .scheme(key)
+                    .candidateSetSizes(new TreeMap<>(SIZE_RANGE_ORDER))
+                    .build());
+
+            report.setEntities(report.getEntities() + count.getSize() * count.getBuckets());
+            report.setSearchHashes(report.getSearchHashes() + count.getBuckets());
+            report.setMaxCandidates(Math.max(report.getMaxCandidates(), count.getSize()));
+            report.getCandidateSetSizes().merge(sizeRange(count.getSize()), count.getBuckets(), Long::sum);
+            squaredSizes.merge(scheme, count.getSize() * count.getSize() * count.getBuckets(), Long::sum);
+        }
+
+        // A lookup of a random persisted password lands in a candidate set of size s with probability s / entities
+        schemes.forEach((scheme, report) ->
+                report.setExpectedCandidates((double) squaredSizes.get(scheme) / report.getEntities()));
+
+        return Report.builder()
+                .currentScheme(searchHashMigration.getLookupGenerators().get(0).getScheme())
+                .lookupSchemes(searchHashMigration.getLookupGenerators().stream().map(SearchHashGenerator::getScheme).toList())
+                .averageCandidatesPerLookup(lookupStatistics.getAverageCandidates())
+                .schemes(new ArrayList<>(schemes.values()))
+                .build();
+    }
+
+    private static final Comparator<String> SIZE_RANGE_ORDER = Comparator.comparingLong(range ->
+            Long.parseLong(range.contains("-") ? range.substring(0, range.indexOf('-')) : range));
+
+    /**
+     * @return power of two range containing a given size, e.g. "1", "2-3", "4-7"
+     */
+    private static String sizeRange(long size) {
+        long from = Long.highestOneBit(size);
+        return from == 1 ? "1" : from + "-" + (from * 2 - 1);
+    }
+
+    @Data
+    @Builder
+    public static class Report {
+        private String currentScheme;
+        private List<String> lookupSchemes;
+        private double averageCandidatesPerLookup;
+        private List<SchemeReport> schemes;
+    }
+
+    @Data
+    @Builder
+    public static class SchemeReport {
+        private String scheme;
+        private long entities;
+        private long searchHashes;
+        private long maxCandidates;
+        private double expectedCandidates;
+        /**
+         * Amount of search hashes by the amount of entities sharing them.
+         */
+        private Map<String, Long> candidateSetSizes;
+    }
+}
@@ -0,0 +1,25 @@
+package com.exercise.passgen.actuator;
+
+import com.exercise.passgen.services.WarmUp;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code warmUp} - out of service until the {@link WarmUp} completes. Part of the readiness group, so that
+ * {@code /actuator/health/readiness} keeps new instances out of the load balancer while they warm up.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmUpHealthIndicator implements HealthIndicator {
+    private final WarmUp warmUp;
+
+    @Override
+    public Health health() {
+        return (warmUp.isComplete() ? Health.up() : Health.outOfService())
+                .withDetail("state", warmUp.getState())
+                .withDetail("rounds", warmUp.getRounds())
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.datasource.Database;
+import com.exercise.passgen.datasource.InvalidationListener;
+import com.exercise.passgen.services.CandidateCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.util.List;
+
+/**
+ * Keeps the {@link CandidateCache} consistent with the database: every database holding passwords (the primary and,
+ * with the {@code sharded} profile, every shard) is listened to for changes.
+ */
+@Configuration
+@Profile("!memory")
+@ConditionalOnProperty(prefix = "passgen.candidate-cache", name = "enabled", havingValue = "true")
+public class CandidateCacheConfig {
+    @Bean
+    public InvalidationListener getInvalidationListener(DataSourceProperties dataSourceProperties, ShardProperties shardProperties,
+                                                        ReplicaProperties replicaProperties, CandidateCacheProperties properties,
+                                                        CandidateCache candidateCache, Environment environment,
+                                                        MeterRegistry meterRegistry) {
+        List<Database> databases = WriterLockConfig.passwordDatabases(dataSourceProperties, shardProperties, environment);
+
+        // Replicas are not used with sharding
+        boolean replicas = !replicaProperties.getUrls().isEmpty() && !environment.acceptsProfiles(Profiles.of("sharded"));
+        return new InvalidationListener(databases, candidateCache, properties.getReconnectDelay(),
+                replicas ? replicaProperties.getReadYourWritesWindow() : null, meterRegistry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.candidate-cache")
+public class CandidateCacheProperties {
+    /**
+     * Keeps the candidate sets of recent lookups in memory. With a database, changes made by any instance evict
+     * them through PostgreSQL notifications.
+     */
+    private boolean enabled = false;
+    /**
+     * Maximum amount of cached search hashes, the least recently used ones are evicted first.
+     */
+    private int maximumSize = 100_000;
+    /**
+     * Upper bound of the staleness of an entry, in case a notification gets lost without the connection failing.
+     */
+    private Duration timeToLive = Duration.ofMinutes(10);
+    /**
+     * Number of independently locked partitions of the cache, rounded up to a power of two.
+     */
+    private int stripes = 64;
+    /**
+     * Delay between attempts to re-establish a lost notification connection. The cache is bypassed meanwhile.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
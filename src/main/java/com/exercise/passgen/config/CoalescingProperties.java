@@ -0,0 +1,17 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.coalescing")
+public class CoalescingProperties {
+    /**
+     * If false, every lookup is executed on its own.
+     */
+    private boolean enabled = true;
+    /**
+     * Number of independently locked partitions of in-flight lookups, rounded up to a power of two.
+     */
+    private int stripes = 64;
+}
@@ -0,0 +1,48 @@
+package com.exercise.passgen.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    /**
+     * Limits of lookups (complexity checks and deletions), which verify a few Argon2 hashes.
+     */
+    private Limit lookup = new Limit(32, 4, 512);
+    /**
+     * Limits of generations, which hash and persist every generated password. Their latency is measured per password.
+     */
+    private Limit generation = new Limit(8, 1, 128);
+    /**
+     * Latency increase over the long-term average (ratio) that is still not considered queuing.
+     */
+    private double tolerance = 1.5;
+    /**
+     * Weight of every new limit estimate, lower values make the limit react slower but steadier.
+     */
+    private double smoothing = 0.2;
+    /**
+     * Amount of requests over which the long-term latency is averaged.
+     */
+    private int longWindow = 600;
+    /**
+     * Value of the Retry-After header of rejected requests.
+     */
+    private long retryAfterSeconds = 1;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        /**
+         * Concurrent requests allowed at startup, before any latency was measured.
+         */
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+    }
+}
@@ -0,0 +1,26 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.generation")
+public class GenerationProperties {
+    /**
+     * Batches of at least this many passwords are split across the generation pool, smaller ones are generated
+     * by the calling thread. See {@code ParallelGenerationBenchmark} for the numbers behind the default.
+     */
+    private int parallelThreshold = 256;
+    /**
+     * Threads of the generation pool, 0 means one per available processor.
+     */
+    private int parallelism = 0;
+    /**
+     * Smallest amount of passwords generated by a single worker, keeps the split overhead negligible.
+     */
+    private int minChunkSize = 64;
+    /**
+     * Rounds of replacing candidates rejected as duplicates before a batch is returned incomplete.
+     */
+    private int uniquenessRounds = 8;
+}
@@ -0,0 +1,24 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.grpc")
+public class GrpcProperties {
+    /**
+     * Port of the gRPC server, the server is not started when not set.
+     */
+    private Integer port;
+    /**
+     * Passwords generated, persisted and sent in a single message of a {@code Generate} stream. The next batch is
+     * generated only once the client has taken the previous ones.
+     */
+    private int generateBatchSize = 100;
+    /**
+     * Time given to running calls to complete on shutdown before they are cancelled.
+     */
+    private Duration shutdownGracePeriod = Duration.ofSeconds(10);
+}
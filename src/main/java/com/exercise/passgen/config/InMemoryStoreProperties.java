@@ -0,0 +1,21 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.memory")
+public class InMemoryStoreProperties {
+    /**
+     * Path of the append-only journal file, the store is not persisted at all when empty.
+     */
+    private String journal = "";
+    /**
+     * If true, every journal append is forced to the storage device before the repository call returns.
+     */
+    private boolean fsync = false;
+    /**
+     * Expected amount of distinct search hashes, used to presize the index.
+     */
+    private int initialCapacity = 1024;
+}
@@ -0,0 +1,29 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.jfr")
+public class JfrProperties {
+    /**
+     * JFR configuration of recordings started by {@code /actuator/jfr} when none is requested - {@code default}
+     * (about 1 % overhead) or {@code profile} (adds method sampling and allocation profiling, about 2 %).
+     */
+    private String settings = "profile";
+    /**
+     * Length of a recording when none is requested.
+     */
+    private Duration defaultDuration = Duration.ofSeconds(60);
+    /**
+     * Longest recording that can be requested, a recording stops by itself once it elapses.
+     */
+    private Duration maxDuration = Duration.ofMinutes(10);
+    /**
+     * Recorded data kept on disk, the oldest chunks are dropped beyond it.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+}
@@ -0,0 +1,32 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.util.Wordlist;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+@Slf4j
+@Configuration
+public class PassphraseConfig {
+    @Bean
+    public Wordlist getWordlist(PassphraseProperties properties, ResourceLoader resourceLoader) throws IOException {
+        byte[] source;
+        try (InputStream in = resourceLoader.getResource(properties.getWordlist()).getInputStream()) {
+            source = in.readAllBytes();
+        }
+
+        // Named by the source, so that different wordlists (e.g. of several instances) never share an index
+        Path index = properties.getIndex() != null ? properties.getIndex() : Path.of(System.getProperty("java.io.tmpdir"),
+                "passgen-wordlist-" + HexFormat.of().formatHex(Wordlist.sha256(source), 0, 8) + ".idx");
+        Wordlist wordlist = Wordlist.open(source, index, PasswordRules.MAX_WORD_CHARACTERS, properties.getSeparator());
+        log.info("Passphrase wordlist {} ({} words) mapped from {}", properties.getWordlist(), wordlist.size(), index);
+        return wordlist;
+    }
+}
@@ -0,0 +1,24 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.passphrase")
+public class PassphraseProperties {
+    /**
+     * Text wordlist (resource location) passphrase words are picked from, see {@link com.exercise.passgen.util.Wordlist}.
+     */
+    private String wordlist = "classpath:wordlists/default.txt";
+    /**
+     * Compiled index of the wordlist, memory-mapped. It is (re)compiled at startup when missing or compiled from
+     * another wordlist. Stored in the temporary directory when not set.
+     */
+    private Path index;
+    /**
+     * Character joining the words of a passphrase, words containing it are rejected.
+     */
+    private char separator = '-';
+}
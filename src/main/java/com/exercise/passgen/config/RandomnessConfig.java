@@ -0,0 +1,46 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.random.BufferedSecureRandomnessProvider;
+import com.exercise.passgen.random.RandomnessProvider;
+import com.exercise.passgen.random.SecureRandomnessProvider;
+import com.exercise.passgen.random.SeededRandomnessProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.security.NoSuchAlgorithmException;
+
+@Slf4j
+@Configuration
+public class RandomnessConfig {
+    @Bean
+    public RandomnessProvider getRandomnessProvider(RandomnessProperties properties, MeterRegistry meterRegistry)
+            throws NoSuchAlgorithmException {
+        switch (properties.getMode()) {
+            case SEEDED -> {
+                log.warn("Passwords are generated with a SEEDED generator (seed {}), they are predictable. " +
+                        "This mode must never be used in production.", properties.getSeed());
+                return new SeededRandomnessProvider(properties.getSeed());
+            }
+            case SECURE -> {
+                return new SecureRandomnessProvider();
+            }
+            default -> {
+                BufferedSecureRandomnessProvider provider = new BufferedSecureRandomnessProvider(properties.getAlgorithm(),
+                        properties.getStrength(), properties.getBufferSize(), properties.getReseedInterval());
+
+                FunctionCounter.builder("passgen.random.bytes", provider, BufferedSecureRandomnessProvider::getBytesDrawn)
+                        .description("Random bytes drawn from the SecureRandom sources")
+                        .baseUnit("bytes")
+                        .register(meterRegistry);
+                FunctionCounter.builder("passgen.random.reseeds", provider, BufferedSecureRandomnessProvider::getReseeds)
+                        .description("Reseeds of the SecureRandom sources")
+                        .register(meterRegistry);
+
+                return provider;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.random")
+public class RandomnessProperties {
+    /**
+     * {@code buffered} and {@code secure} for production, {@code seeded} makes generation reproducible
+     * (load tests and benchmarks only).
+     */
+    private Mode mode = Mode.BUFFERED;
+    /**
+     * Seed of the {@code seeded} mode.
+     */
+    private long seed = 0;
+    /**
+     * {@link java.security.SecureRandom} algorithm of the {@code buffered} mode, platform default when empty.
+     */
+    private String algorithm = "DRBG";
+    /**
+     * Security strength (bits) of the DRBG algorithm.
+     */
+    private int strength = 256;
+    /**
+     * Amount of random bytes drawn at once by the {@code buffered} mode.
+     */
+    private int bufferSize = 4096;
+    /**
+     * Amount of bytes a thread draws from its DRBG before reseeding it with fresh entropy, 0 to never reseed.
+     */
+    private long reseedInterval = 1 << 20;
+
+    public enum Mode {
+        /**
+         * Per-thread generators drawing random bytes in blocks.
+         */
+        BUFFERED,
+        /**
+         * Fresh platform default {@link java.security.SecureRandom} for every batch.
+         */
+        SECURE,
+        SEEDED
+    }
+}
@@ -0,0 +1,34 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    /**
+     * Bucket size of every client in work units, i.e. the largest burst a client can send at once.
+     * One work unit is roughly one Argon2 operation (hash or verification).
+     */
+    private long capacity = 4000;
+    /**
+     * Work units refilled to every client bucket per second.
+     */
+    private long refillPerSecond = 400;
+    /**
+     * Work units charged for hashing one generated password.
+     */
+    private double hashCost = 1;
+    /**
+     * Hard cap on the number of tracked client buckets. Once reached, clients without a bucket share a single
+     * overflow bucket until the sweep evicts idle ones.
+     */
+    private int maxClients = 100_000;
+    /**
+     * How often idle (full) client buckets are evicted.
+     */
+    private Duration sweepInterval = Duration.ofSeconds(10);
+}
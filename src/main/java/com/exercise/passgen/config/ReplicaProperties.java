@@ -0,0 +1,30 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.replicas")
+public class ReplicaProperties {
+    /**
+     * JDBC urls of read replicas, routing is disabled when empty.
+     */
+    private List<String> urls = new ArrayList<>();
+    /**
+     * Replica credentials, the primary ones (spring.datasource.*) are used when not set.
+     */
+    private String username, password;
+    /**
+     * Maximum size of each replica connection pool.
+     */
+    private int maximumPoolSize = 10;
+    /**
+     * For how long after a write all reads of the same client go to the primary.
+     * Should be larger than the expected replication lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
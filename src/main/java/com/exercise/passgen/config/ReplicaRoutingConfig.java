@@ -0,0 +1,87 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.datasource.ReadYourWritesTracker;
+import com.exercise.passgen.datasource.ReplicaRoutingDataSource;
+import com.exercise.passgen.datasource.ReplicaRoutingInterceptor;
+import com.exercise.passgen.util.ClientIdResolver;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enabled by setting {@code passgen.replicas.urls}. Read-only transactions (lookups) are sent to the replicas,
+ * everything else to the primary configured with {@code spring.datasource.*}.
+ */
+@Configuration
+@Profile("!memory & !sharded")
+@ConditionalOnProperty(prefix = "passgen.replicas", name = "urls")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+    private final ReadYourWritesTracker tracker;
+    private final ClientIdResolver clientIdResolver;
+
+    public ReplicaRoutingConfig(ReplicaProperties replicaProperties, ClientIdResolver clientIdResolver) {
+        this.tracker = new ReadYourWritesTracker(replicaProperties.getReadYourWritesWindow());
+        this.clientIdResolver = clientIdResolver;
+    }
+
+    /**
+     * Also used by the gRPC service, whose calls do not pass the interceptor.
+     */
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return tracker;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Exposed as a bean only so that the underlying pools are closed on shutdown, everything else uses the primary
+     * lazy proxy above.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                            ReplicaProperties replicaProperties, Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // Same spring.datasource.hikari.* tuning as without routing
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("passgen-primary");
+
+        List<DataSource> replicas = new ArrayList<>(replicaProperties.getUrls().size());
+        for (int i = 0; i < replicaProperties.getUrls().size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setPoolName("passgen-replica-" + i);
+            replica.setJdbcUrl(replicaProperties.getUrls().get(i));
+            replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            if (replicaProperties.getUsername() != null) replica.setUsername(replicaProperties.getUsername());
+            if (replicaProperties.getPassword() != null) replica.setPassword(replicaProperties.getPassword());
+            replicas.add(replica);
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReplicaRoutingInterceptor(tracker, clientIdResolver));
+    }
+}
@@ -0,0 +1,13 @@
+package com.exercise.passgen.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} methods: the eviction of idle rate limit buckets ({@code RateLimiter#evictIdle}) and the
+ * progress checks of search hash and fingerprint key migrations ({@code SearchHashMigration#checkProgress}).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,64 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.enums.SearchHashScheme;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.search-hash")
+public class SearchHashProperties {
+    /**
+     * Scheme of newly persisted passwords, the default is the original MD5 of the first third.
+     */
+    private Scheme scheme = new Scheme();
+    /**
+     * Schemes of already persisted passwords, consulted by lookups until no entity is keyed by them.
+     */
+    private List<Scheme> previous = new ArrayList<>();
+    /**
+     * If true, an entity found under a previous scheme is re-keyed to the current one.
+     */
+    private boolean rekeyOnAccess = true;
+    /**
+     * How often the amount of entities keyed by previous schemes is checked.
+     */
+    private Duration migrationCheckInterval = Duration.ofMinutes(5);
+    /**
+     * Secret HMAC key of new password fingerprints, at least {@value SecurityConfig#MIN_KEY_LENGTH}
+     * characters. There is no default, it has to come from the environment ({@code PASSGEN_FINGERPRINT_KEY}) or a
+     * secret store and the application does not start without it.
+     */
+    private String fingerprintKey = "";
+    /**
+     * Keys of fingerprints of already persisted passwords, consulted by duplicate checks until every entity is
+     * fingerprinted with the current key. Listing the old key here rotates the fingerprint key.
+     */
+    private List<String> previousFingerprintKeys = new ArrayList<>();
+
+    @Data
+    public static class Scheme {
+        private SearchHashScheme type = SearchHashScheme.PREFIX;
+        /**
+         * PREFIX - fraction of the password that is hashed.
+         */
+        private double prefixFraction = 1.0 / 3;
+        /**
+         * KEYED - secret HMAC key, changing it invalidates all search hashes of the scheme. The key of the current
+         * scheme has to be at least {@value SecurityConfig#MIN_KEY_LENGTH} characters and no example value, it comes
+         * from the environment ({@code PASSGEN_SEARCH_HASH_KEY}) or a secret store.
+         */
+        private String key = "";
+        /**
+         * KEYED - length of the search hash, every bit halves the average amount of candidates per lookup.
+         */
+        private int bits = 24;
+        /**
+         * If true, passwords of different lengths never share a search hash.
+         */
+        private boolean lengthBucketed = false;
+    }
+}
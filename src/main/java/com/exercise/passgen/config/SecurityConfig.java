@@ -1,20 +1,56 @@
 package com.exercise.passgen.config;
 
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.security.KeyedSearchHashGenerator;
+import com.exercise.passgen.security.LengthBucketedSearchHashGenerator;
+import com.exercise.passgen.security.PasswordFingerprinter;
+import com.exercise.passgen.security.PrefixSearchHashGenerator;
 import com.exercise.passgen.security.SearchHashGenerator;
-import com.exercise.passgen.security.SimpleMD5SearchHashGenerator;
+import com.exercise.passgen.services.SearchHashMigration;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
 @Configuration
 public class SecurityConfig {
+    static final int MIN_KEY_LENGTH = 32;
+    // Values of example configurations (and the key that used to be committed) that must never protect real data
+    private static final Pattern PLACEHOLDER_KEY = Pattern.compile("(?i)change-?me|placeholder|example|secret|f1ngerpr1nt");
+
     private final PasswordEncoder passwordEncoder;
     private final SearchHashGenerator searchHashGenerator;
+    private final PasswordFingerprinter passwordFingerprinter;
+    private final List<SearchHashGenerator> previousSearchHashGenerators = new ArrayList<>();
+    private final List<PasswordFingerprinter> previousPasswordFingerprinters = new ArrayList<>();
+    private final boolean rekeyOnAccess;
 
-    public SecurityConfig() {
+    public SecurityConfig(SearchHashProperties searchHashProperties) throws NoSuchAlgorithmException {
         this.passwordEncoder = Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
-        this.searchHashGenerator = new SimpleMD5SearchHashGenerator();
+        this.searchHashGenerator = createSearchHashGenerator(searchHashProperties.getScheme(), "passgen.search-hash.scheme", true);
+        this.rekeyOnAccess = searchHashProperties.isRekeyOnAccess();
+        this.passwordFingerprinter = new PasswordFingerprinter(requireKey("passgen.search-hash.fingerprint-key",
+                "PASSGEN_FINGERPRINT_KEY", searchHashProperties.getFingerprintKey()));
+
+        for (int i = 0; i < searchHashProperties.getPrevious().size(); i++) {
+            SearchHashGenerator generator = createSearchHashGenerator(searchHashProperties.getPrevious().get(i),
+                    "passgen.search-hash.previous[" + i + "]", false);
+            if (!generator.getScheme().equals(searchHashGenerator.getScheme()))
+                previousSearchHashGenerators.add(generator);
+        }
+
+        for (String key: searchHashProperties.getPreviousFingerprintKeys()) {
+            PasswordFingerprinter fingerprinter = new PasswordFingerprinter(key.getBytes(StandardCharsets.UTF_8));
+            if (!fingerprinter.getScheme().equals(passwordFingerprinter.getScheme()))
+                previousPasswordFingerprinters.add(fingerprinter);
+        }
     }
 
     @Bean
@@ -26,4 +62,51 @@ public class SecurityConfig {
     public SearchHashGenerator getSearchHashGenerator() {
         return searchHashGenerator;
     }
+
+    @Bean
+    public PasswordFingerprinter getPasswordFingerprinter() {
+        return passwordFingerprinter;
+    }
+
+    @Bean
+    public SearchHashMigration getSearchHashMigration(PasswordRepository passwordRepository, MeterRegistry meterRegistry) {
+        return new SearchHashMigration(searchHashGenerator, previousSearchHashGenerators, passwordFingerprinter,
+                previousPasswordFingerprinters, rekeyOnAccess, passwordRepository, meterRegistry);
+    }
+
+    /**
+     * Fingerprints and keyed search hashes are unsalted, anyone who knows the key can test guesses against them
+     * offline - and a weak key can itself be guessed, its scheme (stored with every entity) confirms a right guess.
+     * Startup fails rather than running with a missing, short or example key.
+     */
+    private static byte[] requireKey(String property, String environmentVariable, String key) {
+        if (key == null || key.isBlank())
+            throw new IllegalStateException(property + " is not set, provide it through the " + environmentVariable +
+                    " environment variable or a secret store.");
+        if (key.length() < MIN_KEY_LENGTH || PLACEHOLDER_KEY.matcher(key).find())
+            throw new IllegalStateException(property + " is a placeholder or shorter than " + MIN_KEY_LENGTH +
+                    " characters, generate a random one (e.g. openssl rand -base64 32).");
+
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param current false for a previous scheme, whose key only has to be set - entities may well be keyed by a weak
+     *                one, which is being migrated away from
+     */
+    private static SearchHashGenerator createSearchHashGenerator(SearchHashProperties.Scheme scheme, String property,
+                                                                 boolean current) throws NoSuchAlgorithmException {
+        SearchHashGenerator generator = switch (scheme.getType()) {
+            case PREFIX -> new PrefixSearchHashGenerator(scheme.getPrefixFraction());
+            case KEYED -> {
+                if (!current && (scheme.getKey() == null || scheme.getKey().isEmpty()))
+                    throw new IllegalStateException(property + ".key is not set, keyed search hashes can not be looked up without it.");
+                byte[] key = current ? requireKey(property + ".key", "PASSGEN_SEARCH_HASH_KEY", scheme.getKey())
+                        : scheme.getKey().getBytes(StandardCharsets.UTF_8);
+                yield new KeyedSearchHashGenerator(key, scheme.getBits());
+            }
+        };
+
+        return scheme.isLengthBucketed() ? new LengthBucketedSearchHashGenerator(generator) : generator;
+    }
 }
@@ -0,0 +1,38 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.shards")
+public class ShardProperties {
+    /**
+     * JDBC urls of the shards following the primary database (spring.datasource.*), which is always shard 0.
+     * Shards can only be appended or removed from the end, the position of a shard determines its entities.
+     */
+    private List<String> urls = new ArrayList<>();
+    /**
+     * JDBC urls of shards being removed, only read by the resharding tool, which moves all their entities away.
+     */
+    private List<String> retiredUrls = new ArrayList<>();
+    /**
+     * Shard credentials, the primary ones (spring.datasource.*) are used when not set.
+     */
+    private String username, password;
+    /**
+     * Maximum size of each shard connection pool (except the primary one).
+     */
+    private int maximumPoolSize = 10;
+    /**
+     * Runs the resharding tool instead of the application: entities are moved to the shards they belong to under
+     * the configured layout, then the application exits.
+     */
+    private boolean reshard = false;
+    /**
+     * Entities read, copied and deleted at once by the resharding tool.
+     */
+    private int reshardBatchSize = 1000;
+}
@@ -0,0 +1,107 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.datasource.WriterLock;
+import com.exercise.passgen.repositories.sharded.PasswordShard;
+import com.exercise.passgen.repositories.sharded.Resharder;
+import com.exercise.passgen.repositories.sharded.ShardedPasswordRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharded storage, enabled by the {@code sharded} profile. Shard 0 is the primary database ({@code spring.datasource.*}),
+ * the shards listed in {@code passgen.shards.urls} follow it. Every shard gets the same Flyway migrations on startup.
+ * <p>
+ * Refuses to start while previous search hash schemes are configured: a password keyed by a previous scheme is stored
+ * in the shard of its old search hash, where the unique index of the shard a new duplicate goes to does not see it.
+ */
+@Configuration
+@Profile("sharded")
+public class ShardingConfig implements DisposableBean {
+    private final DataSourceProperties dataSourceProperties;
+    private final ShardProperties shardProperties;
+    private final SearchHashProperties searchHashProperties;
+    private final Environment environment;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private List<PasswordShard> shards;
+
+    public ShardingConfig(DataSourceProperties dataSourceProperties, ShardProperties shardProperties,
+                          SearchHashProperties searchHashProperties, Environment environment) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.shardProperties = shardProperties;
+        this.searchHashProperties = searchHashProperties;
+        this.environment = environment;
+    }
+
+    @Bean
+    public ShardedPasswordRepository getShardedPasswordRepository(DataSource dataSource, WriterLock writerLock) {
+        return new ShardedPasswordRepository(getShards(dataSource, writerLock));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "passgen.shards", name = "reshard", havingValue = "true")
+    public Resharder getResharder(DataSource dataSource, WriterLock writerLock, ConfigurableApplicationContext context) {
+        List<PasswordShard> retired = new ArrayList<>(shardProperties.getRetiredUrls().size());
+        for (int i = 0; i < shardProperties.getRetiredUrls().size(); i++)
+            retired.add(createShard("retired-" + i, shardProperties.getRetiredUrls().get(i), null));
+
+        return new Resharder(getShards(dataSource, writerLock), retired, shardProperties.getReshardBatchSize(), context);
+    }
+
+    @Override
+    public void destroy() {
+        // The primary pool is closed by Spring
+        for (HikariDataSource pool: pools) pool.close();
+    }
+
+    private synchronized List<PasswordShard> getShards(DataSource dataSource, WriterLock writerLock) {
+        if (shards == null) {
+            if (!searchHashProperties.getPrevious().isEmpty()) {
+                throw new IllegalStateException("Sharding requires every password to be keyed by the current search hash scheme, " +
+                        "finish the migration from passgen.search-hash.previous before enabling the sharded profile.");
+            }
+
+            shards = new ArrayList<>(shardProperties.getUrls().size() + 1);
+            shards.add(new PasswordShard("shard-0", dataSource, writerLock));
+            for (int i = 0; i < shardProperties.getUrls().size(); i++)
+                shards.add(createShard("shard-" + (i + 1), shardProperties.getUrls().get(i), writerLock));
+        }
+        return shards;
+    }
+
+    private PasswordShard createShard(String name, String url, WriterLock writerLock) {
+        // Same spring.datasource.hikari.* tuning as the primary pool
+        HikariDataSource template = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(template));
+
+        HikariDataSource pool = new HikariDataSource();
+        template.copyStateTo(pool);
+        pool.setPoolName("passgen-" + name);
+        pool.setJdbcUrl(url);
+        pool.setMaximumPoolSize(shardProperties.getMaximumPoolSize());
+        if (shardProperties.getUsername() != null) pool.setUsername(shardProperties.getUsername());
+        if (shardProperties.getPassword() != null) pool.setPassword(shardProperties.getPassword());
+        pools.add(pool);
+
+        Flyway.configure()
+                .dataSource(pool)
+                .locations(environment.getProperty("spring.flyway.locations", "classpath:db/migration").split(","))
+                .load()
+                .migrate();
+
+        return new PasswordShard(name, pool, writerLock);
+    }
+}
@@ -0,0 +1,27 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Startup tooling (see the {@code startup/} scripts). Read at runtime, so unlike profiles and conditions they can be
+ * set on AOT-processed and native builds too.
+ */
+@Data
+@ConfigurationProperties(prefix = "passgen.startup")
+public class StartupProperties {
+    /**
+     * Exits once the application is ready and warmed up - the training run recording the class data sharing archive.
+     */
+    private boolean exitAfterWarmUp = false;
+    /**
+     * Measures the Argon2 hashing throughput for the given time after startup, logs it and exits. Not measured when not set.
+     */
+    private Duration argon2Benchmark;
+    /**
+     * Threads hashing concurrently during the Argon2 measurement, all available processors when not positive.
+     */
+    private int argon2BenchmarkThreads = 0;
+}
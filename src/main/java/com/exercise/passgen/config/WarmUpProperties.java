@@ -0,0 +1,36 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.warm-up")
+public class WarmUpProperties {
+    /**
+     * Exercises generation, complexity checks, search hashes, fingerprints and Argon2 with synthetic passwords after
+     * startup, the {@code warmUp} health indicator (part of the readiness group) is out of service until it completes.
+     */
+    private boolean enabled = false;
+    /**
+     * Upper bound of the warm-up, readiness is reported once it elapses even if compilation has not settled yet.
+     */
+    private Duration maxDuration = Duration.ofSeconds(60);
+    /**
+     * Consecutive rounds that have to stay below {@link #compilationThreshold} for the compilation to be considered settled.
+     */
+    private int stableRounds = 3;
+    /**
+     * Share of the round wall time spent by the JIT compilers below which a round counts as stable.
+     */
+    private double compilationThreshold = 0.05;
+    /**
+     * Passwords generated (and checked, hashed and fingerprinted) per round.
+     */
+    private int passwordsPerRound = 2000;
+    /**
+     * Argon2 hashes (and verifications) per round, they take tens of milliseconds each.
+     */
+    private int argon2PerRound = 2;
+}
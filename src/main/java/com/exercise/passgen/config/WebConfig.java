@@ -0,0 +1,32 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.converters.GenerationResponseJsonConverter;
+import com.exercise.passgen.converters.PassgenWireFormatConverter;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Has to precede the generic Jackson converter, which would take the generation response otherwise
+        converters.add(0, new GenerationResponseJsonConverter(objectMapper.getFactory()));
+
+        // The String converter reads any content type, binary password requests have to be taken before it
+        converters.add(0, new PassgenWireFormatConverter(String.class));
+        // The first writing converter decides the response type when the client accepts anything, which has to stay JSON
+        converters.add(new PassgenWireFormatConverter(PasswordGenerationRequestDTO.class,
+                PasswordGenerationResponseDTO.class, PasswordDTO.class));
+    }
+}
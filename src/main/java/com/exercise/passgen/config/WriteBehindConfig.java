@@ -0,0 +1,28 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.datasource.WriterLock;
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.repositories.WriteBehindPasswordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@ConditionalOnProperty(prefix = "passgen.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfig {
+    /**
+     * Decorates the storage backend of the active profile. The parameter cannot resolve to this bean itself, Spring
+     * excludes self references from the candidates. A PostgreSQL backend comes with the exclusive {@link WriterLock}.
+     */
+    @Bean
+    @Primary
+    public WriteBehindPasswordRepository getWriteBehindPasswordRepository(PasswordRepository passwordRepository,
+                                                                          WriteBehindProperties properties,
+                                                                          ObjectProvider<WriterLock> writerLock,
+                                                                          MeterRegistry meterRegistry) {
+        return new WriteBehindPasswordRepository(passwordRepository, properties, writerLock.getIfAvailable(), meterRegistry);
+    }
+}
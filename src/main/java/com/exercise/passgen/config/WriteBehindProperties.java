@@ -0,0 +1,45 @@
+package com.exercise.passgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "passgen.write-behind")
+public class WriteBehindProperties {
+    /**
+     * Generated passwords are acknowledged once journaled locally and committed to the store in the background.
+     */
+    private boolean enabled = false;
+    /**
+     * Directory of the journal segments of passwords not committed yet, replayed on startup.
+     */
+    private String journalDirectory = "data/write-behind";
+    /**
+     * Journal appends are forced to disk before a request is acknowledged. Without it a crash of the machine (not
+     * just of the process) can lose acknowledged passwords.
+     */
+    private boolean fsync = true;
+    /**
+     * Time the committer waits for more passwords to join a group commit once the first one is queued.
+     */
+    private Duration maxDelay = Duration.ofMillis(10);
+    /**
+     * Largest number of passwords inserted in one transaction, a larger group is committed in several.
+     */
+    private int maxBatchSize = 5000;
+    /**
+     * Passwords waiting to be committed above which generation requests block until the committer catches up.
+     */
+    private int maxPending = 100_000;
+    /**
+     * Delay before a failed commit (e.g. database unavailable) is retried.
+     */
+    private Duration retryDelay = Duration.ofSeconds(1);
+    /**
+     * Interval at which the connections holding the writer lock are checked, which makes write-behind the only writer
+     * of its databases. Applies to every instance storing passwords in PostgreSQL, not only to write-behind ones.
+     */
+    private Duration lockCheckInterval = Duration.ofSeconds(1);
+}
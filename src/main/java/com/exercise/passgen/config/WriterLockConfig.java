@@ -0,0 +1,46 @@
+package com.exercise.passgen.config;
+
+import com.exercise.passgen.datasource.Database;
+import com.exercise.passgen.datasource.WriterLock;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the {@link WriterLock} of every database storing passwords: exclusively with write-behind, shared otherwise.
+ */
+@Configuration
+@Profile("!memory")
+public class WriterLockConfig {
+    @Bean
+    public WriterLock getWriterLock(DataSourceProperties dataSourceProperties, ShardProperties shardProperties,
+                                    WriteBehindProperties writeBehindProperties, Environment environment) {
+        return new WriterLock(passwordDatabases(dataSourceProperties, shardProperties, environment),
+                writeBehindProperties.isEnabled() ? WriterLock.Mode.EXCLUSIVE : WriterLock.Mode.SHARED,
+                writeBehindProperties.getLockCheckInterval());
+    }
+
+    /**
+     * The primary database and, with the {@code sharded} profile, every shard.
+     */
+    static List<Database> passwordDatabases(DataSourceProperties dataSourceProperties, ShardProperties shardProperties,
+                                            Environment environment) {
+        String username = dataSourceProperties.determineUsername(), password = dataSourceProperties.determinePassword();
+        List<Database> databases = new ArrayList<>();
+        databases.add(new Database("primary", dataSourceProperties.determineUrl(), username, password));
+
+        if (environment.acceptsProfiles(Profiles.of("sharded"))) {
+            String shardUsername = shardProperties.getUsername() != null ? shardProperties.getUsername() : username;
+            String shardPassword = shardProperties.getPassword() != null ? shardProperties.getPassword() : password;
+            for (int i = 0; i < shardProperties.getUrls().size(); i++)
+                databases.add(new Database("shard-" + (i + 1), shardProperties.getUrls().get(i), shardUsername, shardPassword));
+        }
+        return databases;
+    }
+}
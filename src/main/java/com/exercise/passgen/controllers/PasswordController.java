@@ -2,39 +2,65 @@ package com.exercise.passgen.controllers;
 
 import com.exercise.passgen.exceptions.*;
 import com.exercise.passgen.models.schemas.*;
+import com.exercise.passgen.ratelimit.ConcurrencyLimiter;
+import com.exercise.passgen.ratelimit.RateLimiter;
 import com.exercise.passgen.services.PasswordService;
+import com.exercise.passgen.util.ClientIdResolver;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("password")
 @RequiredArgsConstructor
 public class PasswordController {
     private final PasswordService passwordService;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final ClientIdResolver clientIdResolver;
 
     @PostMapping("/generate")
-    public ResponseEntity<PasswordGenerationResponseDTO> generatePasswords(@RequestBody PasswordGenerationRequestDTO request)
+    public ResponseEntity<PasswordGenerationResponseDTO> generatePasswords(@RequestBody PasswordGenerationRequestDTO request,
+                                                                           HttpServletRequest httpRequest)
             throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException,
-            SearchHashGenerationFailureException {
-        List<PasswordDTO> passwords = passwordService.generatePasswords(request);
-        List<PasswordDTO> duplicates = passwordService.persistUniquePasswords(passwords);
+            SearchHashGenerationFailureException, RateLimitExceededException, PasswordSpaceExhaustedException, ServiceOverloadedException {
+        // Charged only once admitted, a request shed with 503 keeps its tokens
+        try (ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquireGeneration()) {
+            rateLimiter.acquireGeneration(clientIdResolver.resolve(httpRequest), request.getAmount());
+            PasswordGenerationResponseDTO response = passwordService.generateUniquePasswords(request.getLength(), request.isLowerCase(),
+                    request.isUpperCase(), request.isSpecialCase(), request.getAmount());
+            permit.completed(request.getAmount());
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        }
+    }
 
-        return new ResponseEntity<>(PasswordGenerationResponseDTO.builder()
-                .passwords(passwords.stream().map(PasswordDTO::getPassword).collect(Collectors.toList()))
-                .duplicates(duplicates.stream().map(PasswordDTO::getPassword).collect(Collectors.toList()))
-                .complexity(passwords.get(0).getComplexity())
-                .build(), HttpStatus.CREATED);
+    @PostMapping("/passphrase")
+    public ResponseEntity<PasswordGenerationResponseDTO> generatePassphrases(@RequestBody PassphraseGenerationRequestDTO request,
+                                                                             HttpServletRequest httpRequest)
+            throws IncorrectWordCountException, TooManyPasswordsAtOnceException, SearchHashGenerationFailureException,
+            RateLimitExceededException, PasswordSpaceExhaustedException, ServiceOverloadedException {
+        try (ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquireGeneration()) {
+            rateLimiter.acquireGeneration(clientIdResolver.resolve(httpRequest), request.getAmount());
+            PasswordGenerationResponseDTO response = passwordService.generateUniquePassphrases(request.getWords(), request.getAmount());
+            permit.completed(request.getAmount());
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        }
     }
 
     @PostMapping("/complexity")
-    public PasswordDTO checkComplexity(@RequestBody String password)
-            throws IncorrectPasswordLengthException, UndeterminablePasswordComplexityException, SearchHashGenerationFailureException {
-        PasswordDTO out = passwordService.getPasswordDTO(password);
+    public PasswordDTO checkComplexity(@RequestBody String password, HttpServletRequest httpRequest)
+            throws IncorrectPasswordLengthException, UndeterminablePasswordComplexityException, SearchHashGenerationFailureException,
+            RateLimitExceededException, ServiceOverloadedException {
+        PasswordDTO out;
+        try (ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquireLookup()) {
+            rateLimiter.acquireLookup(clientIdResolver.resolve(httpRequest));
+            out = passwordService.getPasswordDTO(password);
+            permit.completed(1);
+        }
 
         if (out == null) {
             out = PasswordDTO.builder()
@@ -48,9 +74,15 @@ public class PasswordController {
     }
 
     @DeleteMapping("")
-    public PasswordDTO deletePassword(@RequestBody String password)
-            throws IncorrectPasswordLengthException, UndeterminablePasswordComplexityException, SearchHashGenerationFailureException {
-        PasswordDTO out = passwordService.deletePassword(password);
+    public PasswordDTO deletePassword(@RequestBody String password, HttpServletRequest httpRequest)
+            throws IncorrectPasswordLengthException, UndeterminablePasswordComplexityException, SearchHashGenerationFailureException,
+            RateLimitExceededException, ServiceOverloadedException {
+        PasswordDTO out;
+        try (ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquireLookup()) {
+            rateLimiter.acquireLookup(clientIdResolver.resolve(httpRequest));
+            out = passwordService.deletePassword(password);
+            permit.completed(1);
+        }
 
         if (out == null) {
             out = PasswordDTO.builder()
@@ -62,4 +94,18 @@ public class PasswordController {
 
         return out;
     }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<String> rateLimitExceeded(RateLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> serviceOverloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
 }
@@ -0,0 +1,77 @@
+package com.exercise.passgen.converters;
+
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes {@link PasswordGenerationResponseDTO} as JSON with a streaming {@link JsonGenerator}, straight into the
+ * response body. The output is the same as the one of the Jackson converter, but without bean introspection and
+ * property dispatch for every element of the (up to {@value com.exercise.passgen.PasswordRules#MAX_PASSWORDS_AT_ONCE}
+ * element) password lists. Registered before the Jackson converter (see {@link com.exercise.passgen.config.WebConfig}),
+ * write only.
+ */
+public class GenerationResponseJsonConverter extends AbstractHttpMessageConverter<PasswordGenerationResponseDTO> {
+    private final JsonFactory jsonFactory;
+
+    public GenerationResponseJsonConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PasswordGenerationResponseDTO.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected PasswordGenerationResponseDTO readInternal(Class<? extends PasswordGenerationResponseDTO> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Generation responses are write only.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(PasswordGenerationResponseDTO response, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            write(response, generator);
+        }
+    }
+
+    /**
+     * Same property order as the declaration order of {@link PasswordGenerationResponseDTO}, which is what Jackson uses.
+     */
+    public static void write(PasswordGenerationResponseDTO response, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeStrings(generator, "passwords", response.getPasswords());
+        writeStrings(generator, "duplicates", response.getDuplicates());
+        generator.writeFieldName("complexity");
+        if (response.getComplexity() == null) generator.writeNull();
+        else generator.writeString(response.getComplexity().name());
+        generator.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator generator, String name, List<String> values) throws IOException {
+        generator.writeFieldName(name);
+        if (values == null) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartArray(values, values.size());
+        for (String value: values) generator.writeString(value);
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,351 @@
+package com.exercise.passgen.converters;
+
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import org.springframework.http.MediaType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the {@code models.schemas} messages. The encoding is the protobuf wire format of the
+ * messages declared in {@code passgen.proto}, so clients can use any protobuf library, but it is written by hand
+ * to spare the service a code generation step and a copy between generated classes and the DTOs.
+ * <ul>
+ *     <li>{@link PasswordGenerationRequestDTO} - {@code GenerationRequest}</li>
+ *     <li>{@link PasswordGenerationResponseDTO} - {@code GenerationResponse}</li>
+ *     <li>{@link PasswordDTO} - {@code Password}</li>
+ *     <li>{@link String} - {@code PasswordRequest}, the body of complexity checks and deletions</li>
+ * </ul>
+ * Complexities are encoded as {@code ordinal + 1}, 0 (the protobuf default) stands for none. Generation times are
+ * {@code google.protobuf.Timestamp}s of the (zone-less) local date time read as UTC. Unknown fields are skipped.
+ */
+public final class PassgenWireFormat {
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.valueOf(APPLICATION_PROTOBUF_VALUE);
+
+    private static final int VARINT = 0, FIXED64 = 1, LENGTH_DELIMITED = 2, FIXED32 = 5;
+
+    private PassgenWireFormat() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return type == PasswordGenerationRequestDTO.class || type == PasswordGenerationResponseDTO.class ||
+                type == PasswordDTO.class || type == String.class;
+    }
+
+    public static byte[] encode(Object message) {
+        Writer out = new Writer();
+
+        if (message instanceof PasswordGenerationRequestDTO request) {
+            out.writeInt32(1, request.getLength());
+            out.writeInt32(2, request.getAmount());
+            out.writeBool(3, request.isLowerCase());
+            out.writeBool(4, request.isUpperCase());
+            out.writeBool(5, request.isSpecialCase());
+        } else if (message instanceof PasswordGenerationResponseDTO response) {
+            out.writeStrings(1, response.getPasswords());
+            out.writeStrings(2, response.getDuplicates());
+            out.writeComplexity(3, response.getComplexity());
+        } else if (message instanceof PasswordDTO password) {
+            out.writeString(1, password.getPassword());
+            out.writeComplexity(2, password.getComplexity());
+            out.writeTimestamp(3, password.getGenerationDateTime());
+        } else if (message instanceof String password) {
+            out.writeString(1, password);
+        } else {
+            throw new IllegalArgumentException("No wire format for " + (message == null ? null : message.getClass()) + ".");
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IOException when the message is truncated or malformed
+     */
+    public static <T> T decode(byte[] bytes, Class<T> type) throws IOException {
+        Reader in = new Reader(bytes, 0, bytes.length);
+
+        if (type == PasswordGenerationRequestDTO.class) {
+            PasswordGenerationRequestDTO.PasswordGenerationRequestDTOBuilder request = PasswordGenerationRequestDTO.builder();
+            while (in.hasRemaining()) {
+                int tag = in.readTag();
+                switch (tag >>> 3) {
+                    case 1 -> request.length(in.readInt32(tag));
+                    case 2 -> request.amount(in.readInt32(tag));
+                    case 3 -> request.lowerCase(in.readBool(tag));
+                    case 4 -> request.upperCase(in.readBool(tag));
+                    case 5 -> request.specialCase(in.readBool(tag));
+                    default -> in.skip(tag);
+                }
+            }
+            return type.cast(request.build());
+        }
+
+        if (type == PasswordGenerationResponseDTO.class) {
+            List<String> passwords = new ArrayList<>(), duplicates = new ArrayList<>();
+            Complexity complexity = null;
+            while (in.hasRemaining()) {
+                int tag = in.readTag();
+                switch (tag >>> 3) {
+                    case 1 -> passwords.add(in.readString(tag));
+                    case 2 -> duplicates.add(in.readString(tag));
+                    case 3 -> complexity = in.readComplexity(tag);
+                    default -> in.skip(tag);
+                }
+            }
+            return type.cast(new PasswordGenerationResponseDTO(passwords, duplicates, complexity));
+        }
+
+        if (type == PasswordDTO.class) {
+            PasswordDTO.PasswordDTOBuilder password = PasswordDTO.builder();
+            while (in.hasRemaining()) {
+                int tag = in.readTag();
+                switch (tag >>> 3) {
+                    case 1 -> password.password(in.readString(tag));
+                    case 2 -> password.complexity(in.readComplexity(tag));
+                    case 3 -> password.generationDateTime(in.readTimestamp(tag));
+                    default -> in.skip(tag);
+                }
+            }
+            return type.cast(password.build());
+        }
+
+        if (type == String.class) {
+            // proto3 omits empty strings
+            String password = "";
+            while (in.hasRemaining()) {
+                int tag = in.readTag();
+                if (tag >>> 3 == 1) password = in.readString(tag);
+                else in.skip(tag);
+            }
+            return type.cast(password);
+        }
+
+        throw new IllegalArgumentException("No wire format for " + type + ".");
+    }
+
+    /**
+     * Protobuf encoder into a growing byte array. Default (zero, false, empty and null) scalar values are omitted
+     * as in proto3, repeated string elements are always written.
+     */
+    private static class Writer {
+        private byte[] buffer = new byte[64];
+        private int position;
+
+        void writeInt32(int field, int value) {
+            if (value == 0) return;
+            writeTag(field, VARINT);
+            // Negative int32 values are sign extended to 10 bytes, as protobuf does
+            writeVarint(value);
+        }
+
+        void writeInt64(int field, long value) {
+            if (value == 0) return;
+            writeTag(field, VARINT);
+            writeVarint(value);
+        }
+
+        void writeBool(int field, boolean value) {
+            if (!value) return;
+            writeTag(field, VARINT);
+            writeByte(1);
+        }
+
+        void writeString(int field, String value) {
+            if (value == null || value.isEmpty()) return;
+            writeStringElement(field, value);
+        }
+
+        void writeStrings(int field, List<String> values) {
+            if (values == null) return;
+            for (String value: values) writeStringElement(field, value);
+        }
+
+        void writeComplexity(int field, Complexity complexity) {
+            if (complexity != null) writeInt32(field, complexity.ordinal() + 1);
+        }
+
+        void writeTimestamp(int field, LocalDateTime dateTime) {
+            if (dateTime == null) return;
+
+            long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+            int nanos = dateTime.getNano();
+            writeTag(field, LENGTH_DELIMITED);
+            writeVarint((seconds == 0 ? 0 : 1 + varintSize(seconds)) + (nanos == 0 ? 0 : 1 + varintSize(nanos)));
+            writeInt64(1, seconds);
+            writeInt32(2, nanos);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void writeStringElement(int field, String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeTag(field, LENGTH_DELIMITED);
+            writeVarint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void writeTag(int field, int wireType) {
+            writeVarint(field << 3 | wireType);
+        }
+
+        private void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+
+        private static int varintSize(long value) {
+            // Every byte carries 7 bits, a value of 0 still takes one byte
+            return value == 0 ? 1 : (64 - Long.numberOfLeadingZeros(value) + 6) / 7;
+        }
+    }
+
+    private static class Reader {
+        private final byte[] buffer;
+        private final int limit;
+        private int position;
+
+        Reader(byte[] buffer, int offset, int limit) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        boolean hasRemaining() {
+            return position < limit;
+        }
+
+        int readTag() throws IOException {
+            long tag = readVarint();
+            if (tag >>> 3 == 0 || tag > Integer.MAX_VALUE)
+                throw new IOException("Invalid field tag " + tag + ".");
+            return (int) tag;
+        }
+
+        int readInt32(int tag) throws IOException {
+            expect(tag, VARINT);
+            return (int) readVarint();
+        }
+
+        boolean readBool(int tag) throws IOException {
+            expect(tag, VARINT);
+            return readVarint() != 0;
+        }
+
+        String readString(int tag) throws IOException {
+            expect(tag, LENGTH_DELIMITED);
+            int length = readLength();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        Complexity readComplexity(int tag) throws IOException {
+            int value = readInt32(tag);
+            Complexity[] complexities = Complexity.values();
+            if (value < 0 || value > complexities.length)
+                throw new IOException("Unknown complexity " + value + ".");
+            return value == 0 ? null : complexities[value - 1];
+        }
+
+        LocalDateTime readTimestamp(int tag) throws IOException {
+            expect(tag, LENGTH_DELIMITED);
+            int length = readLength();
+            Reader timestamp = new Reader(buffer, position, position + length);
+            position += length;
+
+            long seconds = 0;
+            int nanos = 0;
+            while (timestamp.hasRemaining()) {
+                int field = timestamp.readTag();
+                switch (field >>> 3) {
+                    case 1 -> {
+                        timestamp.expect(field, VARINT);
+                        seconds = timestamp.readVarint();
+                    }
+                    case 2 -> nanos = timestamp.readInt32(field);
+                    default -> timestamp.skip(field);
+                }
+            }
+
+            try {
+                return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid timestamp.", e);
+            }
+        }
+
+        void skip(int tag) throws IOException {
+            switch (tag & 7) {
+                case VARINT -> readVarint();
+                case FIXED64 -> advance(8);
+                case LENGTH_DELIMITED -> advance(readLength());
+                case FIXED32 -> advance(4);
+                default -> throw new IOException("Unsupported wire type " + (tag & 7) + ".");
+            }
+        }
+
+        private void expect(int tag, int wireType) throws IOException {
+            if ((tag & 7) != wireType)
+                throw new IOException("Field " + (tag >>> 3) + " has wire type " + (tag & 7) + " instead of " + wireType + ".");
+        }
+
+        private int readLength() throws IOException {
+            long length = readVarint();
+            // A 10 byte varint decodes to a negative length, which would move backwards
+            if (length < 0)
+                throw new IOException("Negative length " + length + ".");
+            if (length > limit - position)
+                throw new EOFException("Length " + length + " exceeds the message.");
+            return (int) length;
+        }
+
+        private void advance(int bytes) throws IOException {
+            if (bytes < 0)
+                throw new IOException("Negative length " + bytes + ".");
+            if (bytes > limit - position)
+                throw new EOFException("Truncated message.");
+            position += bytes;
+        }
+
+        private long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= limit)
+                    throw new EOFException("Truncated varint.");
+
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IOException("Malformed varint.");
+        }
+    }
+}
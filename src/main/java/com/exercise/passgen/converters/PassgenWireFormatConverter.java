@@ -0,0 +1,55 @@
+package com.exercise.passgen.converters;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Reads and writes {@value PassgenWireFormat#APPLICATION_PROTOBUF_VALUE} bodies with {@link PassgenWireFormat},
+ * for given message types only. Plain {@link String} bodies (password requests) are only ever read, so that error
+ * messages written as strings are left to the String converter.
+ */
+public class PassgenWireFormatConverter extends AbstractHttpMessageConverter<Object> {
+    private final Set<Class<?>> types;
+
+    public PassgenWireFormatConverter(Class<?>... types) {
+        super(PassgenWireFormat.APPLICATION_PROTOBUF);
+        this.types = Set.of(types);
+
+        for (Class<?> type: types) {
+            if (!PassgenWireFormat.supports(type))
+                throw new IllegalArgumentException("No wire format for " + type + ".");
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return types.contains(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz != String.class && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return PassgenWireFormat.decode(inputMessage.getBody().readAllBytes(), clazz);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed " + clazz.getSimpleName() + " message: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object message, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = PassgenWireFormat.encode(message);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
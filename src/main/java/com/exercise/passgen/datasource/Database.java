@@ -0,0 +1,7 @@
+package com.exercise.passgen.datasource;
+
+/**
+ * A database storing passwords, connected to outside the pools by {@link InvalidationListener} and {@link WriterLock}.
+ */
+public record Database(String name, String url, String username, String password) {
+}
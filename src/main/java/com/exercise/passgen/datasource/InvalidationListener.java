@@ -0,0 +1,166 @@
+package com.exercise.passgen.datasource;
+
+import com.exercise.passgen.services.CandidateCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listens on channel {@value CHANNEL}, where every change of {@code password_entity} is published by a trigger
+ * (migrations V4, V6 and V7) when its transaction commits, and evicts the changed search hashes from the {@link CandidateCache}.
+ * Changes of all instances - and of anything else writing to the database - are seen, including the local ones.
+ * <p>
+ * Every database (the primary and every shard) is listened to on a dedicated connection, outside the pools. While
+ * any of them is down, notifications can get lost, so the cache is bypassed until it is connected again. With read
+ * replicas, a lookup can still read a lagging replica after the notification - such hashes are evicted once more
+ * after {@code replicaLag}.
+ */
+@Slf4j
+public class InvalidationListener {
+    public static final String CHANNEL = "passgen_invalidation";
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    private final List<Database> databases;
+    private final CandidateCache candidateCache;
+    private final Duration reconnectDelay, replicaLag;
+    private final Timer lag;
+    private final Counter notifications, reconnects;
+    private final AtomicInteger disconnected;
+    private final List<Thread> threads = new ArrayList<>();
+    private final ScheduledExecutorService delayedInvalidations;
+    private volatile boolean running = true;
+
+    /**
+     * @param replicaLag delay of the second eviction, null without read replicas
+     */
+    public InvalidationListener(List<Database> databases, CandidateCache candidateCache, Duration reconnectDelay,
+                                Duration replicaLag, MeterRegistry meterRegistry) {
+        this.databases = List.copyOf(databases);
+        this.candidateCache = candidateCache;
+        this.reconnectDelay = reconnectDelay;
+        this.replicaLag = replicaLag;
+        this.disconnected = new AtomicInteger(databases.size());
+        this.delayedInvalidations = replicaLag == null ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "passgen-invalidation-delayed");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.lag = Timer.builder("passgen.invalidation.lag")
+                .description("Time from the start of the changing transaction to its notification being processed (includes clock skew)")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.notifications = Counter.builder("passgen.invalidation.notifications")
+                .description("Received change notifications")
+                .register(meterRegistry);
+        this.reconnects = Counter.builder("passgen.invalidation.reconnects")
+                .description("Notification connections re-established after a failure")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        candidateCache.setAvailable(false);
+        for (Database database: databases) {
+            Thread thread = new Thread(() -> listen(database), "passgen-invalidation-" + database.name());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread: threads) thread.join(POLL_TIMEOUT_MILLIS * 2L);
+        if (delayedInvalidations != null) delayedInvalidations.shutdownNow();
+    }
+
+    private void listen(Database database) {
+        boolean first = true;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(database.url(), database.username(), database.password())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                if (!first) reconnects.increment();
+                first = false;
+                if (disconnected.decrementAndGet() == 0) candidateCache.setAvailable(true);
+                log.info("Listening for changes of {}", database.name());
+
+                try {
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    while (running) {
+                        PGNotification[] received = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                        if (received == null || received.length == 0) {
+                            // A silently dropped connection would never deliver anything
+                            if (!connection.isValid(POLL_TIMEOUT_MILLIS / 1000)) throw new SQLException("Connection is no longer valid.");
+                            continue;
+                        }
+
+                        for (PGNotification notification: received) process(notification.getParameter());
+                    }
+                } finally {
+                    if (disconnected.getAndIncrement() == 0) candidateCache.setAvailable(false);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) return;
+                log.warn("Change notifications of {} are not available, retrying in {}", database.name(), reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param payload {@code <epoch seconds>;<hex search hash>,<hex search hash>,...}
+     */
+    void process(String payload) {
+        int separator = payload.indexOf(';');
+        if (separator < 0) {
+            log.warn("Malformed change notification, evicting everything: {}", payload);
+            candidateCache.invalidateAll();
+            return;
+        }
+
+        List<byte[]> searchHashes = new ArrayList<>();
+        HexFormat hex = HexFormat.of();
+        for (String searchHash: payload.substring(separator + 1).split(",")) {
+            if (!searchHash.isEmpty()) searchHashes.add(hex.parseHex(searchHash));
+        }
+        for (byte[] searchHash: searchHashes) candidateCache.invalidate(searchHash);
+
+        notifications.increment();
+        long sentMicros = (long) (Double.parseDouble(payload.substring(0, separator)) * 1_000_000);
+        lag.record(Math.max(0, System.currentTimeMillis() * 1000 - sentMicros), TimeUnit.MICROSECONDS);
+
+        if (delayedInvalidations != null) {
+            delayedInvalidations.schedule(() -> searchHashes.forEach(candidateCache::invalidate),
+                    replicaLag.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.exercise.passgen.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers which clients have recently written to the primary, so that their subsequent reads can be routed to the
+ * primary as well until the replicas have (most likely) caught up. Calls of both REST ({@link ReplicaRoutingInterceptor})
+ * and gRPC are handled between {@link #begin(String)} and {@link #end(String)}.
+ */
+public class ReadYourWritesTracker {
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String clientId) {
+        long now = System.nanoTime();
+        lastWrites.put(clientId, now);
+
+        if (lastWrites.size() > PURGE_THRESHOLD)
+            lastWrites.values().removeIf(time -> now - time > windowNanos);
+    }
+
+    /**
+     * Starts handling a call of a given client on the current thread: routing hints left by anything else are cleared
+     * and reads are routed to the primary if the client has written recently.
+     */
+    public void begin(String clientId) {
+        ReplicaRoutingContext.clear();
+
+        if (requiresPrimary(clientId))
+            ReplicaRoutingContext.usePrimary();
+    }
+
+    /**
+     * Ends handling a call started by {@link #begin(String)}, recording its writes.
+     */
+    public void end(String clientId) {
+        if (ReplicaRoutingContext.hasWritten())
+            recordWrite(clientId);
+
+        ReplicaRoutingContext.clear();
+    }
+
+    public boolean requiresPrimary(String clientId) {
+        Long lastWrite = lastWrites.get(clientId);
+        if (lastWrite == null) return false;
+
+        if (System.nanoTime() - lastWrite <= windowNanos) return true;
+
+        lastWrites.remove(clientId, lastWrite);
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.exercise.passgen.datasource;
+
+/**
+ * Thread bound routing hints for {@link ReplicaRoutingDataSource}. When replica routing is disabled these hints are
+ * simply never read.
+ */
+public abstract class ReplicaRoutingContext {
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Boolean> WROTE_TO_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Routes all reads of the current thread to the primary until the returned scope is closed.
+     * Scopes can be nested, closing a scope restores the previous state.
+     */
+    public static Scope usePrimary() {
+        boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(true);
+        return () -> FORCE_PRIMARY.set(previous);
+    }
+
+    public static boolean isPrimaryForced() {
+        return FORCE_PRIMARY.get();
+    }
+
+    /**
+     * Records that the current thread changed stored passwords, so that the following reads of its client are routed
+     * to the primary (see {@link ReadYourWritesTracker}). Called by the write operations themselves - a read-write
+     * connection alone does not change anything a replica could miss.
+     */
+    public static void markWrite() {
+        WROTE_TO_PRIMARY.set(true);
+    }
+
+    /**
+     * @return true if the current thread changed stored passwords since the last {@link #clear()}
+     */
+    public static boolean hasWritten() {
+        return WROTE_TO_PRIMARY.get();
+    }
+
+    public static void clear() {
+        FORCE_PRIMARY.remove();
+        WROTE_TO_PRIMARY.remove();
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
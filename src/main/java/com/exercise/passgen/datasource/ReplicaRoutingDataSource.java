@@ -0,0 +1,61 @@
+package com.exercise.passgen.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections of read-only transactions to one of the replicas (round-robin) and everything else to the
+ * primary. Has to be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * otherwise the connection is obtained before the read-only flag of the transaction is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    private static final String PRIMARY = "primary";
+
+    private final String[] replicaKeys;
+    private final List<DataSource> dataSources;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+
+        replicaKeys = new String[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys[i] = "replica-" + i;
+            targets.put(replicaKeys[i], replicas.get(i));
+        }
+
+        dataSources = new ArrayList<>(replicas);
+        dataSources.add(0, primary);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRoutingContext.isPrimaryForced()
+                || replicaKeys.length == 0)
+            return PRIMARY;
+
+        return replicaKeys[Math.floorMod(next.getAndIncrement(), replicaKeys.length)];
+    }
+
+    @Override
+    public void destroy() {
+        for (DataSource dataSource: dataSources) {
+            if (dataSource instanceof HikariDataSource hikariDataSource)
+                hikariDataSource.close();
+        }
+    }
+}
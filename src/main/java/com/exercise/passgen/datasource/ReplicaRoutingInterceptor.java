@@ -0,0 +1,27 @@
+package com.exercise.passgen.datasource;
+
+import com.exercise.passgen.util.ClientIdResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Pins reads of clients that have recently written to the primary and records writes made while handling a request.
+ */
+@RequiredArgsConstructor
+public class ReplicaRoutingInterceptor implements HandlerInterceptor {
+    private final ReadYourWritesTracker tracker;
+    private final ClientIdResolver clientIdResolver;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        tracker.begin(clientIdResolver.resolve(request));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        tracker.end(clientIdResolver.resolve(request));
+    }
+}
@@ -0,0 +1,149 @@
+package com.exercise.passgen.datasource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Makes a write-behind instance the only writer of its databases. Write-behind acknowledges passwords before they are
+ * inserted, so the unique index can no longer reject a duplicate that another instance generated in the meantime -
+ * both would be handed out. Every instance storing passwords in PostgreSQL therefore holds advisory lock {@value KEY}
+ * on every database (the primary and every shard), on a dedicated connection outside the pools: write-behind
+ * instances exclusively, all others shared. Whichever instance comes second refuses to start.
+ * <p>
+ * The lock lives as long as its connection. A lost connection is noticed within {@code checkInterval} and
+ * re-established, until then {@link #checkHeld()} refuses to store passwords.
+ */
+@Slf4j
+public class WriterLock {
+    public static final long KEY = 0x70617373_67656eL;
+
+    public enum Mode {SHARED, EXCLUSIVE}
+
+    private final List<Database> databases;
+    private final Mode mode;
+    private final Duration checkInterval;
+    private final Connection[] connections;
+    private volatile int lost;
+    private volatile boolean running = true;
+    private Thread watchdog;
+
+    public WriterLock(List<Database> databases, Mode mode, Duration checkInterval) {
+        this.databases = List.copyOf(databases);
+        this.mode = mode;
+        this.checkInterval = checkInterval;
+        this.connections = new Connection[databases.size()];
+    }
+
+    @PostConstruct
+    public void start() throws SQLException {
+        try {
+            for (int i = 0; i < connections.length; i++) connections[i] = acquire(databases.get(i));
+        } catch (SQLException | RuntimeException e) {
+            closeAll();
+            throw e;
+        }
+
+        watchdog = new Thread(this::watch, "passgen-writer-lock");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (watchdog != null) {
+            watchdog.interrupt();
+            watchdog.join();
+        }
+        closeAll();
+    }
+
+    /**
+     * @throws IllegalStateException while the lock of any database is not held
+     */
+    public void checkHeld() {
+        if (lost > 0)
+            throw new IllegalStateException("The writer lock is lost, passwords are not stored until it is held again.");
+    }
+
+    private Connection acquire(Database database) throws SQLException {
+        Connection connection = DriverManager.getConnection(database.url(), database.username(), database.password());
+        boolean acquired = false;
+        try (PreparedStatement statement = connection.prepareStatement(mode == Mode.EXCLUSIVE
+                ? "SELECT pg_try_advisory_lock(?)" : "SELECT pg_try_advisory_lock_shared(?)")) {
+            statement.setLong(1, KEY);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                acquired = resultSet.next() && resultSet.getBoolean(1);
+            }
+        } finally {
+            if (!acquired) connection.close();
+        }
+
+        if (!acquired) {
+            throw new IllegalStateException(mode == Mode.EXCLUSIVE
+                    ? "Another instance stores passwords in " + database.name() + ", write-behind requires being its only writer."
+                    : "A write-behind instance stores passwords in " + database.name() + ", it has to be its only writer.");
+        }
+        return connection;
+    }
+
+    private void watch() {
+        int timeoutSeconds = (int) Math.max(1, checkInterval.toSeconds());
+
+        while (running) {
+            try {
+                Thread.sleep(checkInterval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            for (int i = 0; i < connections.length && running; i++) {
+                Database database = databases.get(i);
+                try {
+                    if (connections[i] != null && connections[i].isValid(timeoutSeconds)) continue;
+                } catch (SQLException e) {
+                    // Not valid either
+                }
+
+                if (connections[i] != null) {
+                    close(connections[i]);
+                    connections[i] = null;
+                    lost++;
+                    log.warn("Writer lock of {} is lost, no passwords are stored until it is held again", database.name());
+                }
+
+                try {
+                    connections[i] = acquire(database);
+                    lost--;
+                    log.info("Writer lock of {} is held again", database.name());
+                } catch (SQLException | RuntimeException e) {
+                    log.warn("Could not reacquire the writer lock of {}, retrying in {}", database.name(), checkInterval, e);
+                }
+            }
+        }
+    }
+
+    private void closeAll() {
+        for (int i = 0; i < connections.length; i++) {
+            if (connections[i] != null) close(connections[i]);
+            connections[i] = null;
+        }
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Could not close a writer lock connection", e);
+        }
+    }
+}
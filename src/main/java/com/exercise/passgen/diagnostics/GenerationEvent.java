@@ -0,0 +1,29 @@
+package com.exercise.passgen.diagnostics;
+
+import jdk.jfr.*;
+
+/**
+ * Generation of a batch of passwords or passphrases, without persisting them. Covers the randomness and the assembly.
+ */
+@Name("com.exercise.passgen.Generation")
+@Label("Generation")
+@Category({"Passgen", "Generation"})
+@Description("Generation of a batch of passwords or passphrases")
+@StackTrace(false)
+@Threshold("1 ms")
+public class GenerationEvent extends Event {
+    @Label("Kind")
+    @Description("password or passphrase")
+    public String kind;
+
+    @Label("Amount")
+    public int amount;
+
+    @Label("Size")
+    @Description("Characters of a password, words of a passphrase")
+    public int size;
+
+    @Label("Chunks")
+    @Description("Chunks the batch was split into for parallel generation")
+    public int chunks;
+}
@@ -0,0 +1,18 @@
+package com.exercise.passgen.diagnostics;
+
+import jdk.jfr.*;
+
+/**
+ * Argon2 hashing of a batch of passwords being persisted.
+ */
+@Name("com.exercise.passgen.HashEncode")
+@Label("Hash Encode")
+@Category({"Passgen", "Hashing"})
+@Description("Argon2 hashing of a batch of passwords being persisted")
+@StackTrace(false)
+@Threshold("0 ms")
+public class HashEncodeEvent extends Event {
+    @Label("Passwords")
+    @Description("Passwords hashed with Argon2")
+    public int passwords;
+}
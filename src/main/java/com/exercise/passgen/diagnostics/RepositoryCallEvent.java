@@ -0,0 +1,21 @@
+package com.exercise.passgen.diagnostics;
+
+import jdk.jfr.*;
+
+/**
+ * Call of the password repository, whatever backend (database, shards, in-memory store) is behind it.
+ */
+@Name("com.exercise.passgen.RepositoryCall")
+@Label("Repository Call")
+@Category({"Passgen", "Storage"})
+@Description("Call of the password repository")
+@StackTrace(false)
+@Threshold("0 ms")
+public class RepositoryCallEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Entities")
+    @Description("Entities passed to or returned by the call")
+    public int entities;
+}
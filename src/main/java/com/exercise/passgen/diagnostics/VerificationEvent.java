@@ -0,0 +1,25 @@
+package com.exercise.passgen.diagnostics;
+
+import jdk.jfr.*;
+
+/**
+ * Lookup of a password - candidate sets of all consulted search hash schemes, verified one by one with Argon2.
+ */
+@Name("com.exercise.passgen.Verification")
+@Label("Verification")
+@Category({"Passgen", "Hashing"})
+@Description("Lookup of a password, candidates are verified with Argon2")
+@StackTrace(false)
+@Threshold("0 ms")
+public class VerificationEvent extends Event {
+    @Label("Candidates")
+    @Description("Candidates verified with Argon2")
+    public int candidates;
+
+    @Label("Schemes")
+    @Description("Search hash schemes consulted")
+    public int schemes;
+
+    @Label("Matched")
+    public boolean matched;
+}
@@ -7,14 +7,31 @@ import lombok.Getter;
 @AllArgsConstructor
 @Getter
 public enum Complexity {
-    ULTRA(17, true, true),
-    HIGH(9, true, true),
-    MEDIUM(6, true, false),
-    LOW(PasswordRules.MIN_CHARACTERS, false, false),
+    ULTRA(17, true, true, 100),
+    HIGH(9, true, true, 55),
+    MEDIUM(6, true, false, 34),
+    LOW(PasswordRules.MIN_CHARACTERS, false, false, 0),
     ;
 
     public final int MINIMUM_CHARACTERS;
     public final boolean REQUIRES_LOWER_AND_UPPER, REQUIRES_SPECIAL;
+    /**
+     * Passphrases are scored by their entropy, the thresholds are those of the weakest password meeting the
+     * character criteria (e.g. 9 characters of all cases have about 55 bits).
+     */
+    public final int MINIMUM_PASSPHRASE_BITS;
+
+    /**
+     * @param words amount of words of a passphrase
+     * @param wordlistSize amount of words the passphrase words were picked from
+     */
+    public static Complexity ofPassphrase(int words, int wordlistSize) {
+        double bits = words * Math.log(wordlistSize) / Math.log(2);
+        for (Complexity complexity: values()) {
+            if (bits >= complexity.MINIMUM_PASSPHRASE_BITS) return complexity;
+        }
+        return LOW;
+    }
 
     public boolean matchesCriteria(int length, boolean lowerCase, boolean upperCase, boolean specialCase) {
         return length >= MINIMUM_CHARACTERS &&
@@ -0,0 +1,12 @@
+package com.exercise.passgen.enums;
+
+public enum SearchHashScheme {
+    /**
+     * MD5 of a fraction of the password (see {@link com.exercise.passgen.security.PrefixSearchHashGenerator}).
+     */
+    PREFIX,
+    /**
+     * Truncated HMAC of the whole password (see {@link com.exercise.passgen.security.KeyedSearchHashGenerator}).
+     */
+    KEYED,
+}
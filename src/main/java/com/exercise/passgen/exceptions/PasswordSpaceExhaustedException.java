@@ -0,0 +1,11 @@
+package com.exercise.passgen.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class PasswordSpaceExhaustedException extends Exception {
+    public PasswordSpaceExhaustedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,37 @@
+package com.exercise.passgen.grpc;
+
+import com.exercise.passgen.util.ClientIdResolver;
+import io.grpc.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Resolves the client of every call the same way as for REST requests (the configured header is read from the call
+ * metadata) and makes it available to the service as {@link #CLIENT_ID}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientIdInterceptor implements ServerInterceptor {
+    public static final Context.Key<String> CLIENT_ID = Context.key("passgen-client-id");
+
+    private final ClientIdResolver clientIdResolver;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String clientId = clientIdResolver.resolve(
+                name -> headers.get(Metadata.Key.of(name, Metadata.ASCII_STRING_MARSHALLER)),
+                addressOf(call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR)));
+
+        return Contexts.interceptCall(Context.current().withValue(CLIENT_ID, clientId), call, headers, next);
+    }
+
+    private static String addressOf(SocketAddress address) {
+        if (address instanceof InetSocketAddress inet && inet.getAddress() != null)
+            return inet.getAddress().getHostAddress();
+        return String.valueOf(address);
+    }
+}
@@ -0,0 +1,49 @@
+package com.exercise.passgen.grpc;
+
+import com.exercise.passgen.config.GrpcProperties;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves {@link PasswordGrpcService} on {@code passgen.grpc.port} next to the REST endpoints.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "passgen.grpc", name = "port")
+@RequiredArgsConstructor
+public class GrpcServer {
+    private final PasswordGrpcService passwordGrpcService;
+    private final ClientIdInterceptor clientIdInterceptor;
+    private final GrpcProperties properties;
+
+    private Server server;
+
+    @PostConstruct
+    public void start() throws IOException {
+        server = NettyServerBuilder.forPort(properties.getPort())
+                .addService(ServerInterceptors.intercept(passwordGrpcService, clientIdInterceptor))
+                .build()
+                .start();
+
+        log.info("gRPC server listening on port {}", server.getPort());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        server.shutdown();
+        if (!server.awaitTermination(properties.getShutdownGracePeriod().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("gRPC calls still running after {}, cancelling them", properties.getShutdownGracePeriod());
+            server.shutdownNow().awaitTermination();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.exercise.passgen.grpc;
+
+import com.exercise.passgen.converters.PassgenWireFormat;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * gRPC marshaller of the {@code models.schemas} messages, same encoding as the {@code application/x-protobuf}
+ * REST bodies.
+ */
+public class PassgenWireFormatMarshaller<T> implements MethodDescriptor.Marshaller<T> {
+    private final Class<T> type;
+
+    public PassgenWireFormatMarshaller(Class<T> type) {
+        if (!PassgenWireFormat.supports(type))
+            throw new IllegalArgumentException("No wire format for " + type + ".");
+        this.type = type;
+    }
+
+    @Override
+    public InputStream stream(T value) {
+        return new ByteArrayInputStream(PassgenWireFormat.encode(value));
+    }
+
+    @Override
+    public T parse(InputStream stream) {
+        try {
+            return PassgenWireFormat.decode(stream.readAllBytes(), type);
+        } catch (IOException e) {
+            throw Status.INVALID_ARGUMENT
+                    .withDescription("Malformed " + type.getSimpleName() + " message: " + e.getMessage())
+                    .withCause(e)
+                    .asRuntimeException();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.exercise.passgen.grpc;
+
+import com.exercise.passgen.config.GrpcProperties;
+import com.exercise.passgen.datasource.ReadYourWritesTracker;
+import com.exercise.passgen.exceptions.RateLimitExceededException;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.exercise.passgen.ratelimit.RateLimiter;
+import com.exercise.passgen.services.PasswordService;
+import io.grpc.*;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.Callable;
+
+/**
+ * gRPC counterpart of {@code PasswordController} for bulk clients, service {@value SERVICE_NAME} declared in
+ * {@code passgen.proto}. Both methods use manual flow control, so the (Argon2 bound) work is only done as fast as
+ * the client takes the results:
+ * <ul>
+ *     <li>{@link #GENERATE} - server streaming, the next batch is generated and persisted only when the stream is
+ *     ready to send it</li>
+ *     <li>{@link #CHECK_COMPLEXITY} - bidirectional streaming, the next password is requested from the client only
+ *     when the answer to the previous one has been sent and the stream is ready for another</li>
+ * </ul>
+ * Errors end the call with the gRPC status corresponding to the {@link ResponseStatus} of the exception. With replica
+ * routing, every batch and every checked password is handled like a REST request of the same client, so reads after
+ * writes stay on the primary across both APIs (see {@link ReadYourWritesTracker}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordGrpcService implements BindableService {
+    public static final String SERVICE_NAME = "passgen.Passwords";
+
+    public static final MethodDescriptor<PasswordGenerationRequestDTO, PasswordGenerationResponseDTO> GENERATE =
+            MethodDescriptor.<PasswordGenerationRequestDTO, PasswordGenerationResponseDTO>newBuilder()
+                    .setType(MethodDescriptor.MethodType.SERVER_STREAMING)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, "Generate"))
+                    .setRequestMarshaller(new PassgenWireFormatMarshaller<>(PasswordGenerationRequestDTO.class))
+                    .setResponseMarshaller(new PassgenWireFormatMarshaller<>(PasswordGenerationResponseDTO.class))
+                    .build();
+
+    public static final MethodDescriptor<String, PasswordDTO> CHECK_COMPLEXITY =
+            MethodDescriptor.<String, PasswordDTO>newBuilder()
+                    .setType(MethodDescriptor.MethodType.BIDI_STREAMING)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, "CheckComplexity"))
+                    .setRequestMarshaller(new PassgenWireFormatMarshaller<>(String.class))
+                    .setResponseMarshaller(new PassgenWireFormatMarshaller<>(PasswordDTO.class))
+                    .build();
+
+    public static final Metadata.Key<String> RETRY_AFTER = Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final PasswordService passwordService;
+    private final RateLimiter rateLimiter;
+    private final GrpcProperties properties;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(SERVICE_NAME)
+                .addMethod(GENERATE, ServerCalls.asyncServerStreamingCall(this::generate))
+                .addMethod(CHECK_COMPLEXITY, ServerCalls.asyncBidiStreamingCall(this::checkComplexity))
+                .build();
+    }
+
+    private void generate(PasswordGenerationRequestDTO request, StreamObserver<PasswordGenerationResponseDTO> observer) {
+        ServerCallStreamObserver<PasswordGenerationResponseDTO> responses = (ServerCallStreamObserver<PasswordGenerationResponseDTO>) observer;
+
+        // The whole request is validated and paid for upfront, it is only generated in batches
+        try {
+            passwordService.checkUniqueGenerationArguments(request.getLength(), request.isLowerCase(), request.isUpperCase(),
+                    request.isSpecialCase(), request.getAmount());
+            rateLimiter.acquireGeneration(ClientIdInterceptor.CLIENT_ID.get(), request.getAmount());
+        } catch (Exception e) {
+            responses.onError(statusOf(e));
+            return;
+        }
+
+        GenerateStream stream = new GenerateStream(ClientIdInterceptor.CLIENT_ID.get(), request, responses);
+        responses.setOnCancelHandler(() -> log.debug("Generate stream cancelled by the client"));
+        responses.setOnReadyHandler(stream);
+        stream.run();
+    }
+
+    private StreamObserver<String> checkComplexity(StreamObserver<PasswordDTO> observer) {
+        ServerCallStreamObserver<PasswordDTO> responses = (ServerCallStreamObserver<PasswordDTO>) observer;
+        responses.disableAutoRequest();
+
+        CheckComplexityStream stream = new CheckComplexityStream(ClientIdInterceptor.CLIENT_ID.get(), responses);
+        responses.setOnCancelHandler(() -> log.debug("CheckComplexity stream cancelled by the client"));
+        responses.setOnReadyHandler(stream::requestIfReady);
+        stream.requestIfReady();
+        return stream;
+    }
+
+    /**
+     * Generates and sends batches while the stream is ready. Runs when the call starts and then every time the
+     * stream becomes ready again - never concurrently, gRPC serializes the callbacks of a call.
+     */
+    @RequiredArgsConstructor
+    private class GenerateStream implements Runnable {
+        private final String clientId;
+        private final PasswordGenerationRequestDTO request;
+        private final ServerCallStreamObserver<PasswordGenerationResponseDTO> responses;
+        private int sent;
+        private boolean closed;
+
+        @Override
+        public void run() {
+            while (!closed && responses.isReady()) {
+                if (responses.isCancelled()) {
+                    closed = true;
+                    return;
+                }
+
+                if (sent >= request.getAmount()) {
+                    closed = true;
+                    responses.onCompleted();
+                    return;
+                }
+
+                int batch = Math.min(request.getAmount() - sent, properties.getGenerateBatchSize());
+                try {
+                    responses.onNext(routed(clientId, () -> passwordService.generateUniquePasswords(request.getLength(),
+                            request.isLowerCase(), request.isUpperCase(), request.isSpecialCase(), batch)));
+                } catch (Exception e) {
+                    closed = true;
+                    responses.onError(statusOf(e));
+                    return;
+                }
+                // A batch short of unique passwords is not topped up, just like a REST response
+                sent += batch;
+            }
+        }
+    }
+
+    /**
+     * Keeps exactly one password request outstanding while the stream is ready, answers them in order.
+     */
+    @RequiredArgsConstructor
+    private class CheckComplexityStream implements StreamObserver<String> {
+        private final String clientId;
+        private final ServerCallStreamObserver<PasswordDTO> responses;
+        private boolean awaitingReady = true, closed;
+        private long received;
+
+        void requestIfReady() {
+            if (awaitingReady && !closed && responses.isReady()) {
+                awaitingReady = false;
+                responses.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(String password) {
+            if (closed) return;
+            received += 1;
+
+            try {
+                rateLimiter.acquireLookup(clientId);
+                PasswordDTO out = routed(clientId, () -> passwordService.getPasswordDTO(password));
+
+                if (out == null) {
+                    out = PasswordDTO.builder()
+                            .password(password)
+                            .complexity(passwordService.getComplexity(password))
+                            .generationDateTime(null)
+                            .build();
+                }
+
+                responses.onNext(out);
+            } catch (Exception e) {
+                closed = true;
+                responses.onError(statusOf(e, "Password #" + received + ": "));
+                return;
+            }
+
+            awaitingReady = true;
+            requestIfReady();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            closed = true;
+            log.debug("CheckComplexity stream failed on the client side", t);
+        }
+
+        @Override
+        public void onCompleted() {
+            if (closed) return;
+            closed = true;
+            responses.onCompleted();
+        }
+    }
+
+    /**
+     * Runs a part of a call the way {@link com.exercise.passgen.datasource.ReplicaRoutingInterceptor} runs a request,
+     * on whichever thread gRPC calls back.
+     */
+    private <T> T routed(String clientId, Callable<T> call) throws Exception {
+        ReadYourWritesTracker tracker = readYourWritesTracker.getIfAvailable();
+        if (tracker == null) return call.call();
+
+        tracker.begin(clientId);
+        try {
+            return call.call();
+        } finally {
+            tracker.end(clientId);
+        }
+    }
+
+    private static StatusRuntimeException statusOf(Exception e) {
+        return statusOf(e, "");
+    }
+
+    private static StatusRuntimeException statusOf(Exception e, String descriptionPrefix) {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        HttpStatus httpStatus = responseStatus == null ? HttpStatus.INTERNAL_SERVER_ERROR : responseStatus.code();
+
+        Metadata trailers = new Metadata();
+        if (e instanceof RateLimitExceededException rateLimitExceeded)
+            trailers.put(RETRY_AFTER, String.valueOf(rateLimitExceeded.getRetryAfterSeconds()));
+
+        Status status = switch (httpStatus) {
+            case BAD_REQUEST -> Status.INVALID_ARGUMENT.withDescription(descriptionPrefix + e.getMessage());
+            case TOO_MANY_REQUESTS -> Status.RESOURCE_EXHAUSTED.withDescription(descriptionPrefix + e.getMessage());
+            default -> {
+                log.error("gRPC call failed", e);
+                yield Status.INTERNAL.withDescription(descriptionPrefix + "Internal error.");
+            }
+        };
+
+        return status.asRuntimeException(trailers);
+    }
+}
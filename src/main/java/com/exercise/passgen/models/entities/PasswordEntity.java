@@ -13,9 +13,19 @@ import java.time.LocalDateTime;
 @Entity
 public class PasswordEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // New passwords are inserted by PasswordRepository#insertUnique with ids from the column default,
+    // the generator only has to agree with it for entities saved through JPA
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "password_entity_seq")
+    @SequenceGenerator(name = "password_entity_seq", sequenceName = "password_entity_seq", allocationSize = 1)
     private Long id;
     private byte[] searchHash;
+    // Scheme that produced the search hash (see SearchHashGenerator#getScheme)
+    private String searchScheme;
+    // Keyed hash of the whole password, unique (see PasswordFingerprinter)
+    @Column(unique = true)
+    private byte[] fingerprint;
+    // Scheme (key) that produced the fingerprint (see PasswordFingerprinter#getScheme), NULL if not recorded
+    private String fingerprintScheme;
     @Column(unique = true)
     private String passwordHash;
     private Complexity complexity;
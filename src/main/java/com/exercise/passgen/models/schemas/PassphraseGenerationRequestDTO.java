@@ -0,0 +1,10 @@
+package com.exercise.passgen.models.schemas;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class PassphraseGenerationRequestDTO {
+    private int words, amount;
+}
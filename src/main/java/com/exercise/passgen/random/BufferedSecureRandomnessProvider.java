@@ -0,0 +1,76 @@
+package com.exercise.passgen.random;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Production randomness without contention - every thread has its own {@link SecureRandom} wrapped in an
+ * {@link EntropyBuffer}, so threads never share generator state or locks and the source is called once per block
+ * of bytes instead of once per character.
+ */
+public class BufferedSecureRandomnessProvider implements RandomnessProvider {
+    private static final String DRBG = "DRBG";
+
+    private final String algorithm;
+    private final int strength, bufferSize;
+    private final long reseedInterval;
+    private final LongAdder bytesDrawn = new LongAdder(), reseeds = new LongAdder();
+    private final ThreadLocal<EntropyBuffer> buffers = ThreadLocal.withInitial(this::createBuffer);
+
+    /**
+     * @param algorithm {@link SecureRandom} algorithm, platform default when null or empty
+     * @param strength security strength in bits, used only by the DRBG algorithm
+     * @param bufferSize amount of bytes drawn from the source at once
+     * @param reseedInterval amount of bytes drawn by one thread after which its source is reseeded, 0 to never reseed
+     * @throws NoSuchAlgorithmException when the algorithm is not available
+     */
+    public BufferedSecureRandomnessProvider(String algorithm, int strength, int bufferSize, long reseedInterval)
+            throws NoSuchAlgorithmException {
+        this.algorithm = algorithm == null || algorithm.isBlank() ? null : algorithm;
+        this.strength = strength;
+        this.bufferSize = bufferSize;
+        this.reseedInterval = reseedInterval;
+
+        // Fail on startup rather than on the first request
+        createSource();
+    }
+
+    @Override
+    public RandomGenerator batchGenerator() {
+        return buffers.get();
+    }
+
+    public long getBytesDrawn() {
+        return bytesDrawn.sum();
+    }
+
+    public long getReseeds() {
+        return reseeds.sum();
+    }
+
+    private EntropyBuffer createBuffer() {
+        try {
+            SecureRandom source = createSource();
+            // Only DRBG is guaranteed to support reseeding, others are left to their own reseeding policy
+            return new EntropyBuffer(source, bufferSize, DRBG.equals(source.getAlgorithm()) ? reseedInterval : 0, bytesDrawn, reseeds);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SecureRandom createSource() throws NoSuchAlgorithmException {
+        if (algorithm == null) return new SecureRandom();
+
+        if (DRBG.equals(algorithm)) {
+            // Distinct personalization string for every thread, so that no two instances can ever share a state
+            byte[] personalization = (Thread.currentThread().getName() + "/" + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+            return SecureRandom.getInstance(DRBG, DrbgParameters.instantiation(strength, DrbgParameters.Capability.RESEED_ONLY, personalization));
+        }
+
+        return SecureRandom.getInstance(algorithm);
+    }
+}
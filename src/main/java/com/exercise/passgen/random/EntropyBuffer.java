@@ -0,0 +1,80 @@
+package com.exercise.passgen.random;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Random generator that draws bytes from a {@link SecureRandom} in blocks and serves bounded integers from the block
+ * with rejection sampling. Calling the underlying generator once per block instead of once per integer removes most
+ * of the per-call overhead (locking and DRBG state updates).<br>
+ * <b>NOT THREAD SAFE</b> - every thread needs its own instance (see {@link BufferedSecureRandomnessProvider}).
+ */
+public class EntropyBuffer implements RandomGenerator {
+    private final SecureRandom source;
+    private final byte[] buffer;
+    private final long reseedInterval;
+    private final LongAdder bytesDrawn, reseeds;
+    private int position;
+    private long drawnSinceReseed;
+
+    /**
+     * @param source underlying generator
+     * @param bufferSize amount of bytes drawn at once
+     * @param reseedInterval amount of drawn bytes after which the source is reseeded, 0 to never reseed
+     * @param bytesDrawn counter of bytes drawn from the source
+     * @param reseeds counter of reseeds
+     */
+    public EntropyBuffer(SecureRandom source, int bufferSize, long reseedInterval, LongAdder bytesDrawn, LongAdder reseeds) {
+        this.source = source;
+        this.buffer = new byte[Math.max(Long.BYTES, bufferSize)];
+        this.reseedInterval = reseedInterval;
+        this.bytesDrawn = bytesDrawn;
+        this.reseeds = reseeds;
+        this.position = buffer.length;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("Bound must be positive.");
+
+        // Alphabets and password lengths always fit into a single byte. Bytes at or above the largest multiple of
+        // the bound are rejected, otherwise the lower values would be more likely (modulo bias).
+        if (bound <= 256) {
+            int limit = 256 - 256 % bound;
+            while (true) {
+                int value = nextByte();
+                if (value < limit) return value % bound;
+            }
+        }
+
+        return RandomGenerator.super.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++)
+            value = (value << 8) | nextByte();
+        return value;
+    }
+
+    private int nextByte() {
+        if (position == buffer.length) refill();
+        return buffer[position++] & 0xff;
+    }
+
+    private void refill() {
+        if (reseedInterval > 0 && drawnSinceReseed >= reseedInterval) {
+            source.reseed();
+            reseeds.increment();
+            drawnSinceReseed = 0;
+        }
+
+        source.nextBytes(buffer);
+        bytesDrawn.add(buffer.length);
+        drawnSinceReseed += buffer.length;
+        position = 0;
+    }
+}
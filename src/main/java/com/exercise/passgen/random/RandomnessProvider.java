@@ -0,0 +1,14 @@
+package com.exercise.passgen.random;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of randomness for password generation.
+ */
+public interface RandomnessProvider {
+    /**
+     * Returns a generator for one generation batch. The returned generator is used only by the calling thread and
+     * only for the duration of the batch.
+     */
+    RandomGenerator batchGenerator();
+}
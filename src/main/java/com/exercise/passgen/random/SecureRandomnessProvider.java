@@ -0,0 +1,14 @@
+package com.exercise.passgen.random;
+
+import java.security.SecureRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Production randomness, every batch uses a fresh {@link SecureRandom} with the platform default algorithm.
+ */
+public class SecureRandomnessProvider implements RandomnessProvider {
+    @Override
+    public RandomGenerator batchGenerator() {
+        return new SecureRandom();
+    }
+}
@@ -0,0 +1,24 @@
+package com.exercise.passgen.random;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * <b>NOT FOR PRODUCTION - GENERATED PASSWORDS ARE PREDICTABLE!</b><br>
+ * Deterministic randomness for load tests and benchmarks. Every batch gets its own stream split off a root
+ * {@link SplittableRandom} seeded with a fixed seed, so the same sequence of batches is produced on every run with
+ * the same seed. Splitting is cheap and the streams are statistically independent, which also makes them suitable
+ * for parallel generation.
+ */
+public class SeededRandomnessProvider implements RandomnessProvider {
+    private final SplittableRandom root;
+
+    public SeededRandomnessProvider(long seed) {
+        this.root = new SplittableRandom(seed);
+    }
+
+    @Override
+    public synchronized RandomGenerator batchGenerator() {
+        return root.split();
+    }
+}
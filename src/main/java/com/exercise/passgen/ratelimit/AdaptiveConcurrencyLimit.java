@@ -0,0 +1,82 @@
+package com.exercise.passgen.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted by the measured latency (gradient algorithm). A long-term average of the latency serves
+ * as the baseline of an unloaded service, every sample moves the limit by the gradient between the baseline and the
+ * sample: while latency stays within {@code tolerance} x baseline the limit grows by a small queue allowance, once
+ * requests start queuing (for the CPU, or the connection pool) the latency rises and the limit shrinks
+ * multiplicatively - by at most half per sample. Requests over the limit are rejected instead of being queued.
+ * <p>
+ * The limit only grows while it is actually used (at least half of it in flight), so a quiet period does not leave
+ * behind a limit that the next burst would overrun. The baseline slowly follows lasting latency changes, it is pulled
+ * down faster when latency drops well below it.
+ */
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit, maxLimit, longWindow;
+    private final double tolerance, smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double baseline;
+    private long samples;
+
+    /**
+     * @param tolerance latency increase over the baseline (ratio) still considered unloaded
+     * @param smoothing weight of a new limit estimate, between 0 and 1
+     * @param longWindow samples averaged by the baseline
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return amount of requests in flight including this one, 0 if the limit is reached (nothing is acquired then)
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) return 0;
+            if (inFlight.compareAndSet(current, current + 1)) return current + 1;
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Adjusts the limit by the latency of a completed request.
+     * @param latency latency in any unit, the same for all samples
+     * @param inFlight amount of requests in flight when the request started (see {@link #tryAcquire()})
+     */
+    public synchronized void sample(double latency, int inFlight) {
+        if (latency <= 0) return;
+
+        samples += 1;
+        // Plain average until the window fills up, so that the first samples do not weigh too much
+        baseline += (latency - baseline) / Math.min(samples, longWindow);
+        if (baseline > 2 * latency) baseline *= 0.95;
+
+        // Not using the limit, nothing to learn about it
+        if (inFlight < limit / 2) return;
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baseline / latency));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + estimate * smoothing));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,112 @@
+package com.exercise.passgen.ratelimit;
+
+import com.exercise.passgen.config.ConcurrencyLimitProperties;
+import com.exercise.passgen.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sheds load of the whole instance (unlike {@link RateLimiter}, which keeps single clients in check) once the Argon2
+ * work starts queuing. Lookups and generations have separate {@link AdaptiveConcurrencyLimit}s - a lookup verifies
+ * a few hashes, a generation hashes and persists up to a thousand passwords, so their latencies are not comparable
+ * and a burst of generations must not starve the cheap lookups. Generation latency is measured per password.
+ * <p>
+ * Requests over the limit are rejected right away with {@link ServiceOverloadedException} ({@code 503}), waiting
+ * for a slot would only move the queue from the CPU to the request threads.
+ */
+@Component
+public class ConcurrencyLimiter {
+    private static final Permit UNLIMITED = new Permit(null, 0);
+
+    private final ConcurrencyLimitProperties properties;
+    private final AdaptiveConcurrencyLimit lookup, generation;
+    private final Counter lookupRejections, generationRejections;
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.lookup = createLimit(properties.getLookup());
+        this.generation = createLimit(properties.getGeneration());
+        this.lookupRejections = registerMeters("lookup", lookup, meterRegistry);
+        this.generationRejections = registerMeters("generation", generation, meterRegistry);
+    }
+
+    /**
+     * @return permit that has to be closed once the lookup (complexity check or deletion) is done
+     * @throws ServiceOverloadedException when the lookup limit is reached
+     */
+    public Permit acquireLookup() throws ServiceOverloadedException {
+        return acquire(lookup, lookupRejections);
+    }
+
+    /**
+     * @return permit that has to be closed once the generation is done
+     * @throws ServiceOverloadedException when the generation limit is reached
+     */
+    public Permit acquireGeneration() throws ServiceOverloadedException {
+        return acquire(generation, generationRejections);
+    }
+
+    private Permit acquire(AdaptiveConcurrencyLimit limit, Counter rejections) throws ServiceOverloadedException {
+        if (!properties.isEnabled()) return UNLIMITED;
+
+        int inFlight = limit.tryAcquire();
+        if (inFlight == 0) {
+            rejections.increment();
+            throw new ServiceOverloadedException("Service is overloaded, retry later.", properties.getRetryAfterSeconds());
+        }
+        return new Permit(limit, inFlight);
+    }
+
+    private AdaptiveConcurrencyLimit createLimit(ConcurrencyLimitProperties.Limit limit) {
+        return new AdaptiveConcurrencyLimit(limit.getInitialLimit(), limit.getMinLimit(), limit.getMaxLimit(),
+                properties.getTolerance(), properties.getSmoothing(), properties.getLongWindow());
+    }
+
+    private static Counter registerMeters(String work, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+        Gauge.builder("passgen.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive limit of concurrent requests")
+                .tag("work", work)
+                .register(meterRegistry);
+        Gauge.builder("passgen.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests in flight")
+                .tag("work", work)
+                .register(meterRegistry);
+        return Counter.builder("passgen.concurrency.rejections")
+                .description("Requests rejected by the concurrency limit")
+                .tag("work", work)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Slot of a request in flight. Only requests marked by {@link #completed(int)} contribute their latency to the
+     * limit, failed ones (mostly invalid arguments) are cut short and would distort it.
+     */
+    public static class Permit implements AutoCloseable {
+        private final AdaptiveConcurrencyLimit limit;
+        private final int inFlight;
+        private final long start = System.nanoTime();
+        private boolean completed;
+
+        private Permit(AdaptiveConcurrencyLimit limit, int inFlight) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+        }
+
+        /**
+         * @param units amount of work done by the request (passwords of a generation), latency is measured per unit
+         */
+        public void completed(int units) {
+            if (limit == null || completed) return;
+
+            completed = true;
+            limit.sample((double) (System.nanoTime() - start) / Math.max(1, units), inFlight);
+        }
+
+        @Override
+        public void close() {
+            if (limit != null) limit.release();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.exercise.passgen.ratelimit;
+
+import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.config.RateLimitProperties;
+import com.exercise.passgen.exceptions.RateLimitExceededException;
+import com.exercise.passgen.services.LookupStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-client rate limiter charging requests by the amount of Argon2 work they are expected to cause:
+ * <ul>
+ *     <li>generation - amount of passwords x (hashing cost + average candidates verified by the duplicate check)</li>
+ *     <li>lookup and deletion - average amount of candidates verified per lookup</li>
+ * </ul>
+ * A request costs one bucket lookup and one compare-and-set. At most {@link RateLimitProperties#getMaxClients()} clients
+ * are tracked, new clients beyond that share one overflow bucket - rotating client ids then cannot grow the map nor
+ * multiply the allowed rate. Buckets of idle clients are evicted by a scheduled sweep, off the request path.
+ */
+@Component
+public class RateLimiter {
+    private final RateLimitProperties properties;
+    private final LookupStatistics lookupStatistics;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final TokenBucket overflow;
+    private final Counter rejections;
+    private final Counter overflows;
+
+    public RateLimiter(RateLimitProperties properties, LookupStatistics lookupStatistics, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.lookupStatistics = lookupStatistics;
+        this.rejections = Counter.builder("passgen.rate-limit.rejections")
+                .description("Requests rejected by the rate limiter")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("passgen.rate-limit.overflows")
+                .description("Requests charged to the shared overflow bucket because too many clients are tracked")
+                .register(meterRegistry);
+        this.overflow = new TokenBucket(properties.getCapacity(), properties.getRefillPerSecond(), System.nanoTime());
+    }
+
+    public void acquireGeneration(String clientId, int amount) throws RateLimitExceededException {
+        double perPassword = properties.getHashCost() + lookupStatistics.getAverageCandidates();
+        acquire(clientId, (long) Math.ceil(Math.min(amount, PasswordRules.MAX_PASSWORDS_AT_ONCE) * perPassword));
+    }
+
+    public void acquireLookup(String clientId) throws RateLimitExceededException {
+        acquire(clientId, (long) Math.ceil(Math.max(1, lookupStatistics.getAverageCandidates())));
+    }
+
+    private void acquire(String clientId, long cost) throws RateLimitExceededException {
+        if (!properties.isEnabled()) return;
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket == null) bucket = track(clientId, now);
+
+        long waitNanos = bucket.tryAcquire(Math.max(1, cost), now);
+        if (waitNanos > 0) {
+            rejections.increment();
+            throw new RateLimitExceededException("Rate limit exceeded, retry later.",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+    }
+
+    private TokenBucket track(String clientId, long now) {
+        // Reserve a slot first, so that concurrent new clients cannot overshoot the cap
+        if (tracked.incrementAndGet() > properties.getMaxClients()) {
+            tracked.decrementAndGet();
+            overflows.increment();
+            return overflow;
+        }
+
+        TokenBucket created = new TokenBucket(properties.getCapacity(), properties.getRefillPerSecond(), now);
+        TokenBucket existing = buckets.putIfAbsent(clientId, created);
+        if (existing != null) {
+            tracked.decrementAndGet();
+            return existing;
+        }
+        return created;
+    }
+
+    /**
+     * Evicts the buckets of clients that have been idle long enough to be refilled completely,
+     * forgetting them does not change their limit.
+     */
+    @Scheduled(initialDelayString = "${passgen.rate-limit.sweep-interval:PT10S}",
+            fixedDelayString = "${passgen.rate-limit.sweep-interval:PT10S}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(entry -> {
+            if (!entry.getValue().isFull(now)) return false;
+            tracked.decrementAndGet();
+            return true;
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.exercise.passgen.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of the token count and the last refill time, the bucket keeps a single value -
+ * the theoretical time at which it would be full again (generic cell rate algorithm). Taking tokens moves that time
+ * forward, so both the refill and the take are a single compare-and-set of one {@code long}.
+ */
+public class TokenBucket {
+    private final long nanosPerToken, burstNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity maximum amount of tokens
+     * @param refillPerSecond tokens added per second
+     * @param now current {@link System#nanoTime()}, the bucket starts full
+     */
+    public TokenBucket(long capacity, long refillPerSecond, long now) {
+        this.nanosPerToken = Math.max(1, 1_000_000_000L / refillPerSecond);
+        this.burstNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a given amount of tokens if available.
+     * @param tokens amount of tokens, capped at the capacity
+     * @param now current {@link System#nanoTime()}
+     * @return 0 if the tokens were taken, otherwise nanoseconds after which they will be available
+     */
+    public long tryAcquire(long tokens, long now) {
+        long cost = Math.min(tokens * nanosPerToken, burstNanos);
+
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long debt = next - now - burstNanos;
+
+            if (debt > 0) return debt;
+            if (fullAt.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    /**
+     * @return true if the bucket is full, i.e. it does not carry any state worth keeping
+     */
+    public boolean isFull(long now) {
+        return fullAt.get() <= now;
+    }
+}
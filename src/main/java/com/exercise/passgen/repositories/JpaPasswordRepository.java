@@ -0,0 +1,42 @@
+package com.exercise.passgen.repositories;
+
+import com.exercise.passgen.models.entities.PasswordEntity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Profile("!memory & !sharded")
+public interface JpaPasswordRepository extends JpaRepository<PasswordEntity, Long>, PasswordRepository, UniqueInsertRepository {
+    // Read-only, so that lookups can be served by a replica (see ReplicaRoutingDataSource)
+    @Override
+    @Transactional(readOnly = true)
+    List<PasswordEntity> findAllBySearchHash(byte[] searchHash);
+
+    @Override
+    @Transactional(readOnly = true)
+    long countBySearchScheme(String searchScheme);
+
+    @Override
+    @Transactional(readOnly = true)
+    long countByFingerprintIsNull();
+
+    @Override
+    @Transactional(readOnly = true)
+    @Query("SELECT COUNT(e) FROM PasswordEntity e WHERE e.fingerprint IS NOT NULL " +
+            "AND (e.fingerprintScheme IS NULL OR e.fingerprintScheme <> ?1)")
+    long countFingerprintedByOtherScheme(String fingerprintScheme);
+
+    @Override
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT b.search_scheme AS scheme, b.size AS size, COUNT(*) AS buckets " +
+            "FROM (SELECT search_scheme, COUNT(*) AS size FROM password_entity GROUP BY search_scheme, search_hash) b " +
+            "GROUP BY b.search_scheme, b.size", nativeQuery = true)
+    List<SearchHashBucketCount> countSearchHashBuckets();
+
+    boolean existsByPasswordHash(String passwordHash);
+    PasswordEntity findByPasswordHash(String passwordHash);
+    PasswordEntity deletePasswordByPasswordHash(String passwordHash);
+}
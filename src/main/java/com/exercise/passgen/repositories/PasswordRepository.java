@@ -1,13 +1,53 @@
 package com.exercise.passgen.repositories;
 
 import com.exercise.passgen.models.entities.PasswordEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
-public interface PasswordRepository extends JpaRepository<PasswordEntity, Long> {
-    boolean existsByPasswordHash(String passwordHash);
-    PasswordEntity findByPasswordHash(String passwordHash);
-    PasswordEntity deletePasswordByPasswordHash(String passwordHash);
+/**
+ * Storage abstraction for password entities used by the service layer. The backend is chosen by profile:
+ * {@link JpaPasswordRepository} (PostgreSQL, default) or
+ * {@link com.exercise.passgen.repositories.memory.InMemoryPasswordRepository} (profile {@code memory}) or
+ * {@link com.exercise.passgen.repositories.sharded.ShardedPasswordRepository} (profile {@code sharded}), optionally
+ * decorated by {@link WriteBehindPasswordRepository}.
+ */
+public interface PasswordRepository {
     List<PasswordEntity> findAllBySearchHash(byte[] searchHash);
+    <S extends PasswordEntity> List<S> saveAll(Iterable<S> entities);
+    <S extends PasswordEntity> S save(S entity);
+    void delete(PasswordEntity entity);
+
+    /**
+     * Saves a persisted entity whose search hash was changed (re-keyed). A storage that places entities by search hash
+     * moves it, without storing it again if it was deleted in the meantime.
+     * @param previousSearchHash search hash the entity was stored with
+     */
+    default <S extends PasswordEntity> S saveRekeyed(S entity, byte[] previousSearchHash) {
+        return save(entity);
+    }
+
+    /**
+     * Persists the entities whose fingerprint is not taken yet, in a single statement. Every entity must have a fingerprint.
+     * @return persisted entities (with assigned ids), in input order
+     */
+    List<PasswordEntity> insertUnique(List<PasswordEntity> entities);
+
+    /**
+     * @return those of the given fingerprints that are taken by a persisted entity, in no particular order
+     */
+    List<byte[]> findExistingFingerprints(List<byte[]> fingerprints);
+
+    long countBySearchScheme(String searchScheme);
+    long countByFingerprintIsNull();
+
+    /**
+     * @return count of entities with a fingerprint of a scheme other than a given one, including those whose scheme
+     * was not recorded
+     */
+    long countFingerprintedByOtherScheme(String fingerprintScheme);
+
+    /**
+     * @return distribution of candidate set sizes (entities sharing a search hash) per scheme
+     */
+    List<SearchHashBucketCount> countSearchHashBuckets();
 }
@@ -0,0 +1,10 @@
+package com.exercise.passgen.repositories;
+
+/**
+ * Amount of distinct search hashes ({@code buckets}) of a scheme that are shared by exactly {@code size} entities.
+ */
+public interface SearchHashBucketCount {
+    String getScheme();
+    long getSize();
+    long getBuckets();
+}
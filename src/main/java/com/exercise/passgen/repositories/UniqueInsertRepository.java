@@ -0,0 +1,13 @@
+package com.exercise.passgen.repositories;
+
+import com.exercise.passgen.models.entities.PasswordEntity;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link JpaPasswordRepository}, implemented by {@link UniqueInsertRepositoryImpl}.
+ */
+public interface UniqueInsertRepository {
+    List<PasswordEntity> insertUnique(List<PasswordEntity> entities);
+    List<byte[]> findExistingFingerprints(List<byte[]> fingerprints);
+}
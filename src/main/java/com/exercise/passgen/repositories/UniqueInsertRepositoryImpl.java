@@ -0,0 +1,117 @@
+package com.exercise.passgen.repositories;
+
+import com.exercise.passgen.datasource.WriterLock;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Inserts a whole batch with a single statement. The columns are bound as arrays and unnested into rows, so the
+ * statement text (and its server-side prepared plan) is the same for every batch size. Rows with a fingerprint that
+ * is already taken are skipped by the unique index instead of being looked up beforehand. Nothing is inserted while
+ * the {@link WriterLock} is lost.
+ */
+public class UniqueInsertRepositoryImpl implements UniqueInsertRepository {
+    private static final String INSERT_UNIQUE = """
+            INSERT INTO password_entity (search_hash, search_scheme, fingerprint, fingerprint_scheme, password_hash, complexity, generation_date_time)
+            SELECT * FROM unnest(?::bytea[], ?::varchar[], ?::bytea[], ?::varchar[], ?::varchar[], ?::smallint[], ?::timestamp[])
+            ON CONFLICT (fingerprint) DO NOTHING
+            RETURNING id, fingerprint""";
+    private static final String FIND_EXISTING_FINGERPRINTS = "SELECT fingerprint FROM password_entity WHERE fingerprint = ANY(?::bytea[])";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WriterLock writerLock;
+
+    @Autowired
+    public UniqueInsertRepositoryImpl(JdbcTemplate jdbcTemplate, ObjectProvider<WriterLock> writerLock) {
+        this(jdbcTemplate, writerLock.getIfAvailable());
+    }
+
+    /**
+     * @param writerLock null when there is none, i.e. for a retired shard, which is only read from
+     */
+    public UniqueInsertRepositoryImpl(JdbcTemplate jdbcTemplate, WriterLock writerLock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writerLock = writerLock;
+    }
+
+    @Override
+    @Transactional
+    public List<PasswordEntity> insertUnique(List<PasswordEntity> entities) {
+        if (entities.isEmpty()) return new ArrayList<>(0);
+        if (writerLock != null) writerLock.checkHeld();
+
+        Map<ByteBuffer, Long> ids = jdbcTemplate.execute((Connection connection) -> {
+            int size = entities.size();
+            byte[][] searchHashes = new byte[size][], fingerprints = new byte[size][];
+            String[] searchSchemes = new String[size], fingerprintSchemes = new String[size], passwordHashes = new String[size];
+            Short[] complexities = new Short[size];
+            Timestamp[] generationDateTimes = new Timestamp[size];
+
+            for (int i = 0; i < size; i++) {
+                PasswordEntity entity = entities.get(i);
+                searchHashes[i] = entity.getSearchHash();
+                searchSchemes[i] = entity.getSearchScheme();
+                fingerprints[i] = entity.getFingerprint();
+                fingerprintSchemes[i] = entity.getFingerprintScheme();
+                passwordHashes[i] = entity.getPasswordHash();
+                complexities[i] = entity.getComplexity() == null ? null : (short) entity.getComplexity().ordinal();
+                generationDateTimes[i] = entity.getGenerationDateTime() == null ? null : Timestamp.valueOf(entity.getGenerationDateTime());
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_UNIQUE)) {
+                statement.setArray(1, connection.createArrayOf("bytea", searchHashes));
+                statement.setArray(2, connection.createArrayOf("varchar", searchSchemes));
+                statement.setArray(3, connection.createArrayOf("bytea", fingerprints));
+                statement.setArray(4, connection.createArrayOf("varchar", fingerprintSchemes));
+                statement.setArray(5, connection.createArrayOf("varchar", passwordHashes));
+                statement.setArray(6, connection.createArrayOf("int2", complexities));
+                statement.setArray(7, connection.createArrayOf("timestamp", generationDateTimes));
+
+                Map<ByteBuffer, Long> inserted = new HashMap<>(size * 2);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next())
+                        inserted.put(ByteBuffer.wrap(resultSet.getBytes(2)), resultSet.getLong(1));
+                }
+                return inserted;
+            }
+        });
+
+        List<PasswordEntity> out = new ArrayList<>(ids.size());
+        for (PasswordEntity entity: entities) {
+            Long id = ids.remove(ByteBuffer.wrap(entity.getFingerprint()));
+            if (id != null) {
+                entity.setId(id);
+                out.add(entity);
+            }
+        }
+        return out;
+    }
+
+    // Not read-only on purpose, a lagging replica could miss a fingerprint taken moments ago
+    @Override
+    public List<byte[]> findExistingFingerprints(List<byte[]> fingerprints) {
+        if (fingerprints.isEmpty()) return new ArrayList<>(0);
+
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(FIND_EXISTING_FINGERPRINTS)) {
+                statement.setArray(1, connection.createArrayOf("bytea", fingerprints.toArray(byte[][]::new)));
+
+                List<byte[]> out = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) out.add(resultSet.getBytes(1));
+                }
+                return out;
+            }
+        });
+    }
+}
@@ -0,0 +1,508 @@
+package com.exercise.passgen.repositories;
+
+import com.exercise.passgen.config.WriteBehindProperties;
+import com.exercise.passgen.datasource.WriterLock;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.memory.PasswordJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind decorator of the storage backend ({@code passgen.write-behind.enabled}). {@link #insertUnique(List)}
+ * returns as soon as the accepted entities are journaled locally. A single committer thread inserts everything queued
+ * in the meantime as one group - one transaction per {@code max-batch-size} entities instead of one per request.
+ * <p>
+ * Uniqueness: an entity is accepted only if its fingerprint is neither pending (queued or being committed) nor
+ * persisted. The fingerprint is reserved among the pending ones first and only then looked up in the store, and it
+ * stays pending until its commit has finished, so a concurrent request always finds it in one of the two. This only
+ * holds as long as nobody else writes to the store: an entity is acknowledged before the unique index sees it, so a
+ * duplicate inserted by another instance in the meantime would be handed out twice. A PostgreSQL store is therefore
+ * guarded by the {@link WriterLock}, which keeps other instances from starting (and nothing is accepted while it is
+ * lost). A conflict at commit time still drops the entity and is counted in {@code passgen.write-behind.conflicts}.
+ * <p>
+ * Durability: accepted entities are appended to the current journal segment and synced (concurrent requests share
+ * an fsync) before they are acknowledged. Every group starts a new segment and the old one is deleted once the group
+ * is committed, segments left over by a crash are committed on startup. Committing an entity twice is a no-op thanks
+ * to the unique index.
+ * <p>
+ * Lookups include pending entities, deletion of a pending entity waits for its commit.
+ */
+@Slf4j
+public class WriteBehindPasswordRepository implements PasswordRepository {
+    private static final String SEGMENT_PREFIX = "segment-", SEGMENT_SUFFIX = ".journal";
+
+    private final PasswordRepository delegate;
+    private final WriteBehindProperties properties;
+    private final WriterLock writerLock;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queuedCondition = lock.newCondition(), committedCondition = lock.newCondition();
+    private final Map<ByteBuffer, PasswordEntity> pending = new HashMap<>();
+    private final Map<ByteBuffer, List<PasswordEntity>> pendingBySearchHash = new HashMap<>();
+    private List<PasswordEntity> queued = new ArrayList<>();
+    private Segment current;
+    private long nextSegment;
+    private boolean running;
+
+    private Thread committer;
+    private Counter committed, conflicts;
+    private Timer commitTimer;
+    private DistributionSummary groupSize;
+
+    /**
+     * Without a writer lock, for a store no other process can write to (the in-memory one).
+     */
+    public WriteBehindPasswordRepository(PasswordRepository delegate, WriteBehindProperties properties, MeterRegistry meterRegistry) {
+        this(delegate, properties, null, meterRegistry);
+    }
+
+    /**
+     * @param writerLock exclusive lock of the databases of {@code delegate}
+     */
+    public WriteBehindPasswordRepository(PasswordRepository delegate, WriteBehindProperties properties, WriterLock writerLock,
+                                         MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.writerLock = writerLock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        Path directory = Path.of(properties.getJournalDirectory());
+        Files.createDirectories(directory);
+        replay(directory);
+
+        committed = meterRegistry.counter("passgen.write-behind.committed");
+        conflicts = meterRegistry.counter("passgen.write-behind.conflicts");
+        commitTimer = meterRegistry.timer("passgen.write-behind.commit");
+        groupSize = meterRegistry.summary("passgen.write-behind.group-size");
+        meterRegistry.gauge("passgen.write-behind.pending", this, WriteBehindPasswordRepository::countPending);
+
+        current = openSegment();
+        running = true;
+        committer = new Thread(this::commitLoop, "write-behind-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            queuedCondition.signalAll();
+            committedCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        // The committer commits whatever is still queued before it stops
+        committer.join();
+        current.journal().close();
+        if (queued.isEmpty()) Files.deleteIfExists(current.path());
+    }
+
+    @Override
+    public List<PasswordEntity> insertUnique(List<PasswordEntity> entities) {
+        if (entities.isEmpty()) return new ArrayList<>(0);
+        if (writerLock != null) writerLock.checkHeld();
+
+        List<PasswordEntity> reserved = new ArrayList<>(entities.size());
+        lock.lock();
+        try {
+            while (running && pending.size() >= properties.getMaxPending())
+                committedCondition.awaitUninterruptibly();
+            if (!running)
+                throw new IllegalStateException("Write-behind queue is stopped.");
+
+            for (PasswordEntity entity: entities) {
+                if (pending.putIfAbsent(ByteBuffer.wrap(entity.getFingerprint()), entity) == null)
+                    reserved.add(entity);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Looked up only after the reservation, see the class comment
+        List<PasswordEntity> accepted = withoutPersisted(reserved);
+        if (accepted.isEmpty()) return accepted;
+
+        PasswordJournal journal;
+        long position;
+        lock.lock();
+        try {
+            journal = current.journal();
+            position = journal.append(accepted);
+            queued.addAll(accepted);
+            for (PasswordEntity entity: accepted)
+                pendingBySearchHash.computeIfAbsent(ByteBuffer.wrap(entity.getSearchHash()), hash -> new ArrayList<>(1)).add(entity);
+            queuedCondition.signal();
+        } catch (IOException e) {
+            release(accepted);
+            throw new UncheckedIOException("Could not append to the write-behind journal.", e);
+        } finally {
+            lock.unlock();
+        }
+
+        // Outside the lock, so that requests appended in the meantime share the fsync
+        try {
+            journal.sync(position);
+        } catch (IOException e) {
+            // The entities stay queued, they are committed but not handed out
+            throw new UncheckedIOException("Could not sync the write-behind journal.", e);
+        }
+
+        return accepted;
+    }
+
+    @Override
+    public List<PasswordEntity> findAllBySearchHash(byte[] searchHash) {
+        List<PasswordEntity> out = delegate.findAllBySearchHash(searchHash);
+
+        List<PasswordEntity> pendingMatches;
+        lock.lock();
+        try {
+            List<PasswordEntity> bucket = pendingBySearchHash.get(ByteBuffer.wrap(searchHash));
+            pendingMatches = bucket == null ? null : new ArrayList<>(bucket);
+        } finally {
+            lock.unlock();
+        }
+        if (pendingMatches == null) return out;
+
+        // An entity can already be committed while it is still pending
+        Set<ByteBuffer> found = new HashSet<>();
+        for (PasswordEntity entity: out) {
+            if (entity.getFingerprint() != null) found.add(ByteBuffer.wrap(entity.getFingerprint()));
+        }
+
+        List<PasswordEntity> merged = new ArrayList<>(out);
+        for (PasswordEntity entity: pendingMatches) {
+            if (!found.contains(ByteBuffer.wrap(entity.getFingerprint()))) merged.add(entity);
+        }
+        return merged;
+    }
+
+    @Override
+    public List<byte[]> findExistingFingerprints(List<byte[]> fingerprints) {
+        List<byte[]> out = new ArrayList<>();
+        List<byte[]> notPending = new ArrayList<>(fingerprints.size());
+
+        lock.lock();
+        try {
+            for (byte[] fingerprint: fingerprints)
+                (pending.containsKey(ByteBuffer.wrap(fingerprint)) ? out : notPending).add(fingerprint);
+        } finally {
+            lock.unlock();
+        }
+
+        out.addAll(delegate.findExistingFingerprints(notPending));
+        return out;
+    }
+
+    @Override
+    public void delete(PasswordEntity entity) {
+        PasswordEntity pendingEntity = null;
+
+        if (entity.getFingerprint() != null) {
+            ByteBuffer fingerprint = ByteBuffer.wrap(entity.getFingerprint());
+            lock.lock();
+            try {
+                pendingEntity = pending.get(fingerprint);
+                while (pendingEntity != null && pending.get(fingerprint) == pendingEntity)
+                    committedCondition.awaitUninterruptibly();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Pending entities get their id when committed
+        if (entity.getId() == null) {
+            if (pendingEntity == null || pendingEntity.getId() == null) return;
+            entity = pendingEntity;
+        }
+
+        delegate.delete(entity);
+    }
+
+    @Override
+    public <S extends PasswordEntity> List<S> saveAll(Iterable<S> entities) {
+        return delegate.saveAll(entities);
+    }
+
+    @Override
+    public <S extends PasswordEntity> S save(S entity) {
+        return delegate.save(entity);
+    }
+
+    @Override
+    public <S extends PasswordEntity> S saveRekeyed(S entity, byte[] previousSearchHash) {
+        return delegate.saveRekeyed(entity, previousSearchHash);
+    }
+
+    @Override
+    public long countBySearchScheme(String searchScheme) {
+        long count = 0;
+        lock.lock();
+        try {
+            for (List<PasswordEntity> bucket: pendingBySearchHash.values()) {
+                for (PasswordEntity entity: bucket) {
+                    if (searchScheme.equals(entity.getSearchScheme())) count += 1;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return count + delegate.countBySearchScheme(searchScheme);
+    }
+
+    @Override
+    public long countByFingerprintIsNull() {
+        // Pending entities always have a fingerprint
+        return delegate.countByFingerprintIsNull();
+    }
+
+    @Override
+    public long countFingerprintedByOtherScheme(String fingerprintScheme) {
+        // Pending entities are new, so fingerprinted with the current key
+        return delegate.countFingerprintedByOtherScheme(fingerprintScheme);
+    }
+
+    /**
+     * Committed entities only.
+     */
+    @Override
+    public List<SearchHashBucketCount> countSearchHashBuckets() {
+        return delegate.countSearchHashBuckets();
+    }
+
+    /**
+     * Blocks until everything queued so far is committed (or dropped as a conflict).
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            Set<PasswordEntity> waitingFor = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (List<PasswordEntity> bucket: pendingBySearchHash.values()) waitingFor.addAll(bucket);
+
+            while (running && !waitingFor.isEmpty()) {
+                committedCondition.awaitUninterruptibly();
+                waitingFor.removeIf(entity -> pending.get(ByteBuffer.wrap(entity.getFingerprint())) != entity);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            List<PasswordEntity> group;
+            Segment segment = null;
+
+            lock.lock();
+            try {
+                while (running && queued.isEmpty())
+                    queuedCondition.awaitUninterruptibly();
+                if (queued.isEmpty()) return;
+
+                // Gives concurrent requests a moment to join the group
+                long wait = properties.getMaxDelay().toNanos();
+                while (running && wait > 0 && queued.size() < properties.getMaxBatchSize())
+                    wait = queuedCondition.awaitNanos(wait);
+
+                group = queued;
+                queued = new ArrayList<>();
+                try {
+                    Segment next = openSegment();
+                    segment = current;
+                    current = next;
+                } catch (IOException e) {
+                    // The group is committed anyway, the segment is just kept until the next successful rotation
+                    log.error("Could not start a new write-behind journal segment", e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (segment != null) segment.journal().close();
+                if (!commit(group)) return;
+                if (segment != null) Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                log.error("Could not retire a write-behind journal segment", e);
+            }
+
+            lock.lock();
+            try {
+                for (PasswordEntity entity: group) {
+                    pending.remove(ByteBuffer.wrap(entity.getFingerprint()), entity);
+                    ByteBuffer searchHash = ByteBuffer.wrap(entity.getSearchHash());
+                    List<PasswordEntity> bucket = pendingBySearchHash.get(searchHash);
+                    if (bucket != null && bucket.remove(entity) && bucket.isEmpty())
+                        pendingBySearchHash.remove(searchHash);
+                }
+                committedCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Inserts a group in transactions of at most {@code max-batch-size} entities, a failed transaction is retried
+     * until it succeeds.
+     * @return false if a transaction still failed when the repository was being shut down
+     */
+    private boolean commit(List<PasswordEntity> group) {
+        long start = System.nanoTime();
+        int inserted = 0;
+
+        for (int from = 0; from < group.size(); from += properties.getMaxBatchSize()) {
+            List<PasswordEntity> batch = group.subList(from, Math.min(group.size(), from + properties.getMaxBatchSize()));
+
+            while (true) {
+                try {
+                    inserted += delegate.insertUnique(new ArrayList<>(batch)).size();
+                    break;
+                } catch (RuntimeException e) {
+                    if (!isRunning()) {
+                        log.error("Could not commit {} write-behind passwords on shutdown, they stay journaled", group.size() - from, e);
+                        return false;
+                    }
+
+                    log.warn("Could not commit {} write-behind passwords, retrying in {}", batch.size(), properties.getRetryDelay(), e);
+                    try {
+                        Thread.sleep(properties.getRetryDelay().toMillis());
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }
+        }
+
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        groupSize.record(group.size());
+        committed.increment(inserted);
+        if (inserted < group.size()) {
+            conflicts.increment(group.size() - inserted);
+            log.warn("{} write-behind passwords were persisted in the meantime by someone else and were dropped", group.size() - inserted);
+        }
+        return true;
+    }
+
+    /**
+     * Commits segments left over by the previous run.
+     */
+    private void replay(Path directory) throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX) &&
+                            path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        for (Path path: segments) {
+            String name = path.getFileName().toString();
+            nextSegment = Math.max(nextSegment, Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())) + 1);
+
+            List<PasswordEntity> entities = new ArrayList<>();
+            PasswordJournal journal = new PasswordJournal(path, false);
+            journal.open(entities::add, id -> {});
+            journal.close();
+
+            int inserted = 0;
+            for (int from = 0; from < entities.size(); from += properties.getMaxBatchSize())
+                inserted += delegate.insertUnique(new ArrayList<>(entities.subList(from, Math.min(entities.size(), from + properties.getMaxBatchSize())))).size();
+
+            Files.delete(path);
+            log.info("Replayed write-behind segment {}: {} passwords, {} of them were not committed before", name, entities.size(), inserted);
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        Path path = Path.of(properties.getJournalDirectory(), String.format("%s%012d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        PasswordJournal journal = new PasswordJournal(path, properties.isFsync());
+        journal.open(entity -> {}, id -> {});
+        return new Segment(path, journal);
+    }
+
+    /**
+     * Drops reserved entities whose fingerprint is already persisted and releases their reservation.
+     */
+    private List<PasswordEntity> withoutPersisted(List<PasswordEntity> reserved) {
+        if (reserved.isEmpty()) return reserved;
+
+        List<byte[]> fingerprints = new ArrayList<>(reserved.size());
+        for (PasswordEntity entity: reserved) fingerprints.add(entity.getFingerprint());
+
+        Set<ByteBuffer> persisted = new HashSet<>();
+        try {
+            for (byte[] fingerprint: delegate.findExistingFingerprints(fingerprints)) persisted.add(ByteBuffer.wrap(fingerprint));
+        } catch (RuntimeException e) {
+            release(reserved);
+            throw e;
+        }
+        if (persisted.isEmpty()) return reserved;
+
+        List<PasswordEntity> accepted = new ArrayList<>(reserved.size()), taken = new ArrayList<>();
+        for (PasswordEntity entity: reserved)
+            (persisted.contains(ByteBuffer.wrap(entity.getFingerprint())) ? taken : accepted).add(entity);
+        release(taken);
+        return accepted;
+    }
+
+    private void release(List<PasswordEntity> entities) {
+        lock.lock();
+        try {
+            for (PasswordEntity entity: entities) pending.remove(ByteBuffer.wrap(entity.getFingerprint()), entity);
+            committedCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int countPending() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Segment(Path path, PasswordJournal journal) {
+    }
+}
@@ -0,0 +1,335 @@
+package com.exercise.passgen.repositories.memory;
+
+import com.exercise.passgen.config.InMemoryStoreProperties;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.repositories.SearchHashBucketCount;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process password storage. Entities are grouped in buckets indexed by a 64-bit key folded from their search
+ * hash, so a lookup is a single probe into {@link LongHashIndex} followed by a scan of a (usually tiny) bucket.
+ * Passwords with a fingerprint are also indexed by it, to reject duplicates in {@link #insertUnique(List)}.
+ * Optionally every change is appended to a {@link PasswordJournal} and replayed on startup.
+ */
+@Slf4j
+@Repository
+@Profile("memory")
+@RequiredArgsConstructor
+public class InMemoryPasswordRepository implements PasswordRepository {
+    private final InMemoryStoreProperties properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong sequence = new AtomicLong();
+    private LongHashIndex<List<PasswordEntity>> index;
+    private LongHashIndex<PasswordEntity> byId;
+    private Map<ByteBuffer, PasswordEntity> byFingerprint;
+    private PasswordJournal journal;
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        index = new LongHashIndex<>(properties.getInitialCapacity());
+        byId = new LongHashIndex<>(properties.getInitialCapacity());
+        byFingerprint = new HashMap<>();
+
+        if (properties.getJournal().isBlank())
+            return;
+
+        journal = new PasswordJournal(Path.of(properties.getJournal()), properties.isFsync());
+        long records = journal.open(this::insert, this::remove);
+
+        // Replayed deletions only add dead weight to the journal, rewrite it with the live entities only
+        if (records > byId.size())
+            journal.compact(findAll());
+
+        log.info("Replayed {} journal records, {} passwords in store", records, byId.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal != null) journal.close();
+    }
+
+    @Override
+    public List<PasswordEntity> findAllBySearchHash(byte[] searchHash) {
+        lock.readLock().lock();
+        try {
+            List<PasswordEntity> bucket = index.get(keyOf(searchHash));
+            if (bucket == null) return new ArrayList<>(0);
+
+            List<PasswordEntity> out = new ArrayList<>(bucket.size());
+            for (PasswordEntity entity: bucket) {
+                // Different search hashes can fold into the same key
+                if (Arrays.equals(entity.getSearchHash(), searchHash))
+                    out.add(copyOf(entity));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public <S extends PasswordEntity> List<S> saveAll(Iterable<S> entities) {
+        List<S> out = new ArrayList<>();
+        List<PasswordEntity> stored = new ArrayList<>();
+
+        lock.writeLock().lock();
+        try {
+            for (S entity: entities) {
+                if (entity.getId() == null)
+                    entity.setId(sequence.incrementAndGet());
+
+                PasswordEntity copy = copyOf(entity);
+                insert(copy);
+                stored.add(copy);
+                out.add(entity);
+            }
+
+            if (journal != null)
+                journal.appendSaves(stored);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the password journal.", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return out;
+    }
+
+    @Override
+    public List<PasswordEntity> insertUnique(List<PasswordEntity> entities) {
+        List<PasswordEntity> out = new ArrayList<>(entities.size());
+        List<PasswordEntity> stored = new ArrayList<>(entities.size());
+
+        lock.writeLock().lock();
+        try {
+            for (PasswordEntity entity: entities) {
+                if (byFingerprint.containsKey(ByteBuffer.wrap(entity.getFingerprint())))
+                    continue;
+
+                entity.setId(sequence.incrementAndGet());
+                PasswordEntity copy = copyOf(entity);
+                insert(copy);
+                stored.add(copy);
+                out.add(entity);
+            }
+
+            if (journal != null && !stored.isEmpty())
+                journal.appendSaves(stored);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the password journal.", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return out;
+    }
+
+    @Override
+    public List<byte[]> findExistingFingerprints(List<byte[]> fingerprints) {
+        List<byte[]> out = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (byte[] fingerprint: fingerprints) {
+                if (byFingerprint.containsKey(ByteBuffer.wrap(fingerprint))) out.add(fingerprint);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return out;
+    }
+
+    @Override
+    public <S extends PasswordEntity> S save(S entity) {
+        return saveAll(List.of(entity)).get(0);
+    }
+
+    @Override
+    public void delete(PasswordEntity entity) {
+        if (entity.getId() == null) return;
+
+        lock.writeLock().lock();
+        try {
+            if (remove(entity.getId()) && journal != null)
+                journal.appendDelete(entity.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the password journal.", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long countBySearchScheme(String searchScheme) {
+        long[] count = new long[1];
+
+        lock.readLock().lock();
+        try {
+            byId.forEachValue(entity -> {
+                if (Objects.equals(entity.getSearchScheme(), searchScheme)) count[0] += 1;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return count[0];
+    }
+
+    @Override
+    public long countByFingerprintIsNull() {
+        long[] count = new long[1];
+
+        lock.readLock().lock();
+        try {
+            byId.forEachValue(entity -> {
+                if (entity.getFingerprint() == null) count[0] += 1;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return count[0];
+    }
+
+    @Override
+    public long countFingerprintedByOtherScheme(String fingerprintScheme) {
+        long[] count = new long[1];
+
+        lock.readLock().lock();
+        try {
+            byId.forEachValue(entity -> {
+                if (entity.getFingerprint() != null && !fingerprintScheme.equals(entity.getFingerprintScheme()))
+                    count[0] += 1;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return count[0];
+    }
+
+    @Override
+    public List<SearchHashBucketCount> countSearchHashBuckets() {
+        Map<String, Map<ByteBuffer, Integer>> sizes = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            byId.forEachValue(entity -> sizes
+                    .computeIfAbsent(entity.getSearchScheme(), scheme -> new HashMap<>())
+                    .merge(ByteBuffer.wrap(entity.getSearchHash()), 1, Integer::sum));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SearchHashBucketCount> out = new ArrayList<>();
+        sizes.forEach((scheme, buckets) -> {
+            Map<Integer, Long> bucketsBySize = new TreeMap<>();
+            for (int size: buckets.values()) bucketsBySize.merge(size, 1L, Long::sum);
+            bucketsBySize.forEach((size, count) -> out.add(new BucketCount(scheme, size, count)));
+        });
+        return out;
+    }
+
+    /**
+     * Inserts or replaces (by id) a given entity.
+     */
+    private void insert(PasswordEntity entity) {
+        remove(entity.getId());
+
+        long key = keyOf(entity.getSearchHash());
+        List<PasswordEntity> bucket = index.get(key);
+
+        if (bucket == null) {
+            bucket = new ArrayList<>(2);
+            index.put(key, bucket);
+        }
+
+        bucket.add(entity);
+        byId.put(entity.getId(), entity);
+        if (entity.getFingerprint() != null)
+            byFingerprint.put(ByteBuffer.wrap(entity.getFingerprint()), entity);
+        sequence.accumulateAndGet(entity.getId(), Math::max);
+    }
+
+    private boolean remove(long id) {
+        PasswordEntity removed = byId.remove(id);
+        if (removed == null) return false;
+
+        long key = keyOf(removed.getSearchHash());
+        List<PasswordEntity> bucket = index.get(key);
+        bucket.removeIf(entity -> entity.getId() == id);
+        if (bucket.isEmpty()) index.remove(key);
+        if (removed.getFingerprint() != null)
+            byFingerprint.remove(ByteBuffer.wrap(removed.getFingerprint()), removed);
+
+        return true;
+    }
+
+    private List<PasswordEntity> findAll() {
+        List<PasswordEntity> out = new ArrayList<>(byId.size());
+        byId.forEachValue(out::add);
+        out.sort(Comparator.comparing(PasswordEntity::getId));
+        return out;
+    }
+
+    /**
+     * Folds a search hash of any length into 64 bits by XOR-ing its consecutive 8 byte chunks.
+     */
+    static long keyOf(byte[] searchHash) {
+        long key = searchHash.length;
+        for (int i = 0; i < searchHash.length; i += 8) {
+            long chunk = 0;
+            for (int j = i; j < Math.min(i + 8, searchHash.length); j++)
+                chunk = (chunk << 8) | (searchHash[j] & 0xff);
+            key ^= chunk;
+        }
+        return key;
+    }
+
+    private static PasswordEntity copyOf(PasswordEntity entity) {
+        return PasswordEntity.builder()
+                .id(entity.getId())
+                .searchHash(entity.getSearchHash())
+                .searchScheme(entity.getSearchScheme())
+                .fingerprint(entity.getFingerprint())
+                .fingerprintScheme(entity.getFingerprintScheme())
+                .passwordHash(entity.getPasswordHash())
+                .complexity(entity.getComplexity())
+                .generationDateTime(entity.getGenerationDateTime())
+                .build();
+    }
+
+    @Value
+    private static class BucketCount implements SearchHashBucketCount {
+        String scheme;
+        long size;
+        long buckets;
+    }
+}
@@ -0,0 +1,162 @@
+package com.exercise.passgen.repositories.memory;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing (linear probing) hash map with primitive {@code long} keys. Avoids boxing the keys and keeps them
+ * in a single flat array, which makes probing cache friendly.<br>
+ * <b>NOT THREAD SAFE</b> - callers are responsible for synchronization.
+ * @param <V> value type
+ */
+public class LongHashIndex<V> {
+    private static final Object TOMBSTONE = new Object();
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size, used, mask;
+
+    public LongHashIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashIndex(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * @return previous value associated with the key or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("Null values are not supported.");
+
+        int slot = mix(key) & mask;
+        int firstTombstone = -1;
+
+        while (values[slot] != null) {
+            if (values[slot] == TOMBSTONE) {
+                if (firstTombstone < 0) firstTombstone = slot;
+            } else if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (firstTombstone >= 0) {
+            slot = firstTombstone;
+        } else {
+            used += 1;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size += 1;
+
+        // Tombstones count towards the load, otherwise probe sequences could degrade to full scans
+        if (used * 4 >= values.length * 3)
+            rehash(size * 2 >= values.length ? values.length * 2 : values.length);
+
+        return null;
+    }
+
+    /**
+     * @return removed value or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = find(key);
+        if (slot < 0) return null;
+
+        V previous = (V) values[slot];
+        values[slot] = TOMBSTONE;
+        size -= 1;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value: values) {
+            if (value != null && value != TOMBSTONE)
+                action.accept((V) value);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        used = 0;
+    }
+
+    private int find(long key) {
+        int slot = mix(key) & mask;
+
+        while (values[slot] != null) {
+            if (values[slot] != TOMBSTONE && keys[slot] == key)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null || oldValues[i] == TOMBSTONE) continue;
+
+            int slot = mix(oldKeys[i]) & mask;
+            while (values[slot] != null)
+                slot = (slot + 1) & mask;
+
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            size += 1;
+            used += 1;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        size = 0;
+        used = 0;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 <= expectedSize) capacity <<= 1;
+        return capacity;
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreads the key bits so that sequential or prefix-sharing keys
+     * do not cluster in the table.
+     */
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,260 @@
+package com.exercise.passgen.repositories.memory;
+
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.security.SearchHashGenerator;
+
+import java.io.*;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Append-only file journal of password entity changes. Every change is appended as a single record:
+ * <ul>
+ *     <li>SAVE - id, search hash, search scheme, fingerprint, fingerprint scheme, password hash, complexity, generation time</li>
+ *     <li>DELETE - id</li>
+ * </ul>
+ * The current state is rebuilt by replaying the records in order. A record cut short by a crash is discarded
+ * together with everything after it. Entities without an id (not persisted anywhere else yet) are saved with id 0
+ * and replayed without one. SAVE records of older formats are still replayed: entities written before the
+ * search scheme was recorded get the {@link SearchHashGenerator#LEGACY_SCHEME}, entities written before fingerprints
+ * were introduced get none and entities written before the fingerprint scheme was recorded get a fingerprint without one.
+ */
+public class PasswordJournal implements Closeable {
+    private static final byte LEGACY_SAVE = 1, DELETE = 2, SCHEMED_SAVE = 3, FINGERPRINTED_SAVE = 4, SAVE = 5;
+
+    private final Path path;
+    private final boolean fsync;
+    private final Object syncLock = new Object();
+    private FileOutputStream fileOutputStream;
+    private DataOutputStream out;
+    private long appended, synced;
+
+    public PasswordJournal(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Replays all complete records and opens the journal for appending.
+     * @param onSave called for every saved entity
+     * @param onDelete called with id of every deleted entity
+     * @return number of replayed records
+     */
+    public long open(Consumer<PasswordEntity> onSave, LongConsumer onDelete) throws IOException {
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+
+        long records = 0, validLength = 0;
+
+        if (Files.exists(path)) {
+            try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(path)));
+                 DataInputStream in = new DataInputStream(counter)) {
+                while (true) {
+                    int op = in.read();
+                    if (op < 0) break;
+
+                    try {
+                        if (op == SAVE || op == FINGERPRINTED_SAVE || op == SCHEMED_SAVE || op == LEGACY_SAVE)
+                            onSave.accept(readEntity(in, op));
+                        else if (op == DELETE) onDelete.accept(in.readLong());
+                        else break;
+                    } catch (EOFException e) {
+                        break;
+                    }
+
+                    records += 1;
+                    validLength = counter.count;
+                }
+            }
+
+            // Drop a partially written record, if any, so that new records are appended after a valid one
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+
+        openForAppend();
+        return records;
+    }
+
+    public synchronized void appendSaves(Collection<? extends PasswordEntity> entities) throws IOException {
+        append(entities);
+        sync();
+    }
+
+    /**
+     * Appends SAVE records without making them durable, see {@link #sync(long)}.
+     * @return number of records appended to this journal so far, to be passed to {@link #sync(long)}
+     */
+    public synchronized long append(Collection<? extends PasswordEntity> entities) throws IOException {
+        for (PasswordEntity entity: entities) {
+            out.writeByte(SAVE);
+            writeEntity(out, entity);
+        }
+        appended += entities.size();
+        return appended;
+    }
+
+    /**
+     * Makes records up to a given one durable. Concurrent callers share a single fsync - a caller whose records were
+     * covered by an fsync started after they were appended returns right away. No-op on a journal closed (or
+     * compacted) before or during the call, which synced everything appended when it closed.
+     * @param upTo value returned by {@link #append(Collection)}
+     */
+    public void sync(long upTo) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= upTo) return;
+
+            long target;
+            FileOutputStream stream;
+            synchronized (this) {
+                if (out == null) return;
+                out.flush();
+                target = appended;
+                stream = fileOutputStream;
+            }
+
+            // Forced outside the lock, so that appends are not blocked by the fsync
+            try {
+                if (fsync) stream.getChannel().force(false);
+            } catch (ClosedChannelException e) {
+                // Closed by close() or compact(), which forced the stream first - unless it was closed by an interrupt
+                synchronized (this) {
+                    if (out != null && stream == fileOutputStream) throw e;
+                }
+            }
+            synced = target;
+        }
+    }
+
+    public synchronized void appendDelete(long id) throws IOException {
+        out.writeByte(DELETE);
+        out.writeLong(id);
+        sync();
+    }
+
+    /**
+     * Rewrites the journal so that it contains only SAVE records of given (live) entities.
+     */
+    public synchronized void compact(Collection<? extends PasswordEntity> entities) throws IOException {
+        close();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".compact");
+        try (DataOutputStream compacted = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            for (PasswordEntity entity: entities) {
+                compacted.writeByte(SAVE);
+                writeEntity(compacted, entity);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        openForAppend();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.flush();
+            if (fsync) fileOutputStream.getChannel().force(false);
+            out.close();
+            out = null;
+        }
+    }
+
+    private void openForAppend() throws IOException {
+        fileOutputStream = new FileOutputStream(path.toFile(), true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+    }
+
+    private void sync() throws IOException {
+        out.flush();
+        if (fsync) fileOutputStream.getChannel().force(false);
+    }
+
+    private static void writeEntity(DataOutputStream out, PasswordEntity entity) throws IOException {
+        out.writeLong(entity.getId() == null ? 0 : entity.getId());
+        out.writeInt(entity.getSearchHash().length);
+        out.write(entity.getSearchHash());
+        out.writeBoolean(entity.getSearchScheme() != null);
+        if (entity.getSearchScheme() != null)
+            out.writeUTF(entity.getSearchScheme());
+        out.writeBoolean(entity.getFingerprint() != null);
+        if (entity.getFingerprint() != null) {
+            out.writeByte(entity.getFingerprint().length);
+            out.write(entity.getFingerprint());
+        }
+        out.writeBoolean(entity.getFingerprintScheme() != null);
+        if (entity.getFingerprintScheme() != null)
+            out.writeUTF(entity.getFingerprintScheme());
+        out.writeUTF(entity.getPasswordHash());
+        out.writeByte(entity.getComplexity() == null ? -1 : entity.getComplexity().ordinal());
+
+        LocalDateTime generationDateTime = entity.getGenerationDateTime();
+        out.writeBoolean(generationDateTime != null);
+        if (generationDateTime != null) {
+            out.writeLong(generationDateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(generationDateTime.getNano());
+        }
+    }
+
+    private static PasswordEntity readEntity(DataInputStream in, int op) throws IOException {
+        long id = in.readLong();
+        byte[] searchHash = new byte[in.readInt()];
+        in.readFully(searchHash);
+        String searchScheme = op == LEGACY_SAVE ? SearchHashGenerator.LEGACY_SCHEME : in.readBoolean() ? in.readUTF() : null;
+
+        byte[] fingerprint = null;
+        if ((op == SAVE || op == FINGERPRINTED_SAVE) && in.readBoolean()) {
+            fingerprint = new byte[in.readUnsignedByte()];
+            in.readFully(fingerprint);
+        }
+        String fingerprintScheme = op == SAVE && in.readBoolean() ? in.readUTF() : null;
+        String passwordHash = in.readUTF();
+        byte complexity = in.readByte();
+        LocalDateTime generationDateTime = in.readBoolean() ?
+                LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+
+        return PasswordEntity.builder()
+                .id(id == 0 ? null : id)
+                .searchHash(searchHash)
+                .searchScheme(searchScheme)
+                .fingerprint(fingerprint)
+                .fingerprintScheme(fingerprintScheme)
+                .passwordHash(passwordHash)
+                .complexity(complexity < 0 ? null : Complexity.values()[complexity])
+                .generationDateTime(generationDateTime)
+                .build();
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count += 1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) count += read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.exercise.passgen.repositories.sharded;
+
+import com.exercise.passgen.datasource.WriterLock;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.SearchHashBucketCount;
+import com.exercise.passgen.repositories.UniqueInsertRepositoryImpl;
+import lombok.Getter;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage operations on a single shard database, plain JDBC with the same schema (and Flyway migrations) as the
+ * unsharded storage. Ids come from the sequence of every shard, so they are unique within a shard only - rows are
+ * always updated by id and password hash, which is unique everywhere.
+ */
+public class PasswordShard {
+    private static final String COLUMNS = "id, search_hash, search_scheme, fingerprint, fingerprint_scheme, password_hash, complexity, generation_date_time";
+    private static final String FIND_BY_SEARCH_HASH = "SELECT " + COLUMNS + " FROM password_entity WHERE search_hash = ?";
+    private static final String FIND_PAGE = "SELECT " + COLUMNS + " FROM password_entity WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String INSERT = """
+            INSERT INTO password_entity (search_hash, search_scheme, fingerprint, fingerprint_scheme, password_hash, complexity, generation_date_time)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            RETURNING id""";
+    // Skips rows copied by a previous, interrupted run (password hash conflict) as well as duplicates (fingerprint conflict)
+    private static final String COPY = """
+            INSERT INTO password_entity (search_hash, search_scheme, fingerprint, fingerprint_scheme, password_hash, complexity, generation_date_time)
+            SELECT * FROM unnest(?::bytea[], ?::varchar[], ?::bytea[], ?::varchar[], ?::varchar[], ?::smallint[], ?::timestamp[])
+            ON CONFLICT DO NOTHING""";
+    private static final String UPDATE = """
+            UPDATE password_entity
+            SET search_hash = ?, search_scheme = ?, fingerprint = ?, fingerprint_scheme = ?, complexity = ?, generation_date_time = ?
+            WHERE id = ? AND password_hash = ?""";
+    private static final String DELETE = "DELETE FROM password_entity WHERE id = ?";
+    private static final String DELETE_ALL = "DELETE FROM password_entity WHERE id = ANY(?::bigint[])";
+    private static final String REMOVE = "DELETE FROM password_entity WHERE id = ? AND password_hash = ? RETURNING " + COLUMNS;
+    private static final String COUNT_BY_SEARCH_SCHEME = "SELECT COUNT(*) FROM password_entity WHERE search_scheme = ?";
+    private static final String COUNT_BY_FINGERPRINT_IS_NULL = "SELECT COUNT(*) FROM password_entity WHERE fingerprint IS NULL";
+    private static final String COUNT_FINGERPRINTED_BY_OTHER_SCHEME =
+            "SELECT COUNT(*) FROM password_entity WHERE fingerprint IS NOT NULL AND fingerprint_scheme IS DISTINCT FROM ?";
+    private static final String COUNT_SEARCH_HASH_BUCKETS = "SELECT b.search_scheme, b.size, COUNT(*) " +
+            "FROM (SELECT search_scheme, COUNT(*) AS size FROM password_entity GROUP BY search_scheme, search_hash) b " +
+            "GROUP BY b.search_scheme, b.size";
+
+    private static final RowMapper<PasswordEntity> ENTITY_MAPPER = (resultSet, row) -> {
+        short complexity = resultSet.getShort(7);
+        boolean complexityNull = resultSet.wasNull();
+        Timestamp generationDateTime = resultSet.getTimestamp(8);
+
+        return PasswordEntity.builder()
+                .id(resultSet.getLong(1))
+                .searchHash(resultSet.getBytes(2))
+                .searchScheme(resultSet.getString(3))
+                .fingerprint(resultSet.getBytes(4))
+                .fingerprintScheme(resultSet.getString(5))
+                .passwordHash(resultSet.getString(6))
+                .complexity(complexityNull ? null : Complexity.values()[complexity])
+                .generationDateTime(generationDateTime == null ? null : generationDateTime.toLocalDateTime())
+                .build();
+    };
+
+    @Getter
+    private final String name;
+    private final JdbcTemplate jdbcTemplate;
+    private final UniqueInsertRepositoryImpl uniqueInsertRepository;
+
+    /**
+     * @param writerLock null for a retired shard
+     */
+    public PasswordShard(String name, DataSource dataSource, WriterLock writerLock) {
+        this.name = name;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.uniqueInsertRepository = new UniqueInsertRepositoryImpl(jdbcTemplate, writerLock);
+    }
+
+    public List<PasswordEntity> findAllBySearchHash(byte[] searchHash) {
+        return jdbcTemplate.query(FIND_BY_SEARCH_HASH, ENTITY_MAPPER, (Object) searchHash);
+    }
+
+    /**
+     * @return up to {@code limit} entities with an id larger than a given one, ordered by id
+     */
+    public List<PasswordEntity> findPage(long afterId, int limit) {
+        return jdbcTemplate.query(FIND_PAGE, ENTITY_MAPPER, afterId, limit);
+    }
+
+    public List<PasswordEntity> insertUnique(List<PasswordEntity> entities) {
+        return uniqueInsertRepository.insertUnique(entities);
+    }
+
+    public List<byte[]> findExistingFingerprints(List<byte[]> fingerprints) {
+        return uniqueInsertRepository.findExistingFingerprints(fingerprints);
+    }
+
+    /**
+     * Inserts a new entity and assigns its id.
+     * @throws org.springframework.dao.DataIntegrityViolationException when the fingerprint or password hash is taken
+     */
+    public void insert(PasswordEntity entity) {
+        Long id = jdbcTemplate.queryForObject(INSERT, Long.class, entity.getSearchHash(), entity.getSearchScheme(),
+                entity.getFingerprint(), entity.getFingerprintScheme(), entity.getPasswordHash(), complexityOf(entity),
+                timestampOf(entity));
+        entity.setId(id);
+    }
+
+    /**
+     * @return false if the entity is not stored in this shard
+     */
+    public boolean update(PasswordEntity entity) {
+        return jdbcTemplate.update(UPDATE, entity.getSearchHash(), entity.getSearchScheme(), entity.getFingerprint(),
+                entity.getFingerprintScheme(), complexityOf(entity), timestampOf(entity), entity.getId(), entity.getPasswordHash()) > 0;
+    }
+
+    /**
+     * Inserts copies of entities stored in another shard (with new ids), skipping those already present.
+     * @return number of inserted copies
+     */
+    public int copy(List<PasswordEntity> entities) {
+        if (entities.isEmpty()) return 0;
+
+        Integer inserted = jdbcTemplate.execute((Connection connection) -> {
+            int size = entities.size();
+            byte[][] searchHashes = new byte[size][], fingerprints = new byte[size][];
+            String[] searchSchemes = new String[size], fingerprintSchemes = new String[size], passwordHashes = new String[size];
+            Short[] complexities = new Short[size];
+            Timestamp[] generationDateTimes = new Timestamp[size];
+
+            for (int i = 0; i < size; i++) {
+                PasswordEntity entity = entities.get(i);
+                searchHashes[i] = entity.getSearchHash();
+                searchSchemes[i] = entity.getSearchScheme();
+                fingerprints[i] = entity.getFingerprint();
+                fingerprintSchemes[i] = entity.getFingerprintScheme();
+                passwordHashes[i] = entity.getPasswordHash();
+                complexities[i] = complexityOf(entity);
+                generationDateTimes[i] = timestampOf(entity);
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(COPY)) {
+                statement.setArray(1, connection.createArrayOf("bytea", searchHashes));
+                statement.setArray(2, connection.createArrayOf("varchar", searchSchemes));
+                statement.setArray(3, connection.createArrayOf("bytea", fingerprints));
+                statement.setArray(4, connection.createArrayOf("varchar", fingerprintSchemes));
+                statement.setArray(5, connection.createArrayOf("varchar", passwordHashes));
+                statement.setArray(6, connection.createArrayOf("int2", complexities));
+                statement.setArray(7, connection.createArrayOf("timestamp", generationDateTimes));
+                return statement.executeUpdate();
+            }
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    public void delete(PasswordEntity entity) {
+        jdbcTemplate.update(DELETE, entity.getId());
+    }
+
+    public void deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) return;
+
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(DELETE_ALL)) {
+                statement.setArray(1, connection.createArrayOf("bigint", ids.toArray(Long[]::new)));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Deletes a persisted entity and returns it as it was stored.
+     * @return null if the entity is not stored in this shard
+     */
+    public PasswordEntity remove(PasswordEntity entity) {
+        List<PasswordEntity> removed = jdbcTemplate.query(REMOVE, ENTITY_MAPPER, entity.getId(), entity.getPasswordHash());
+        return removed.isEmpty() ? null : removed.get(0);
+    }
+
+    public long countBySearchScheme(String searchScheme) {
+        Long count = jdbcTemplate.queryForObject(COUNT_BY_SEARCH_SCHEME, Long.class, searchScheme);
+        return count == null ? 0 : count;
+    }
+
+    public long countByFingerprintIsNull() {
+        Long count = jdbcTemplate.queryForObject(COUNT_BY_FINGERPRINT_IS_NULL, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public long countFingerprintedByOtherScheme(String fingerprintScheme) {
+        Long count = jdbcTemplate.queryForObject(COUNT_FINGERPRINTED_BY_OTHER_SCHEME, Long.class, fingerprintScheme);
+        return count == null ? 0 : count;
+    }
+
+    public List<SearchHashBucketCount> countSearchHashBuckets() {
+        return new ArrayList<>(jdbcTemplate.query(COUNT_SEARCH_HASH_BUCKETS,
+                (ResultSet resultSet, int row) -> new BucketCount(resultSet.getString(1), resultSet.getLong(2), resultSet.getLong(3))));
+    }
+
+    private static Short complexityOf(PasswordEntity entity) {
+        return entity.getComplexity() == null ? null : (short) entity.getComplexity().ordinal();
+    }
+
+    private static Timestamp timestampOf(PasswordEntity entity) {
+        return entity.getGenerationDateTime() == null ? null : Timestamp.valueOf(entity.getGenerationDateTime());
+    }
+
+    @Value
+    private static class BucketCount implements SearchHashBucketCount {
+        String scheme;
+        long size;
+        long buckets;
+    }
+}
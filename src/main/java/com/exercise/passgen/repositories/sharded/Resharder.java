@@ -0,0 +1,81 @@
+package com.exercise.passgen.repositories.sharded;
+
+import com.exercise.passgen.models.entities.PasswordEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.*;
+
+/**
+ * Resharding tool ({@code passgen.shards.reshard=true}). Scans every shard, including the retired ones, and moves
+ * each entity that is not stored in the shard selected for it by {@link ShardedPasswordRepository#shardOf} under the
+ * configured layout, then exits the application. Entities are copied before they are deleted from their old shard,
+ * so an interrupted run loses nothing and can just be started again - copies made by the previous run are skipped.
+ * The tool is meant to run while the application instances are stopped, an instance using either layout would miss
+ * the entities moved in the meantime.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class Resharder implements ApplicationRunner {
+    private final List<PasswordShard> shards;
+    private final List<PasswordShard> retired;
+    private final int batchSize;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long moved = reshard();
+        log.info("Resharding done, {} entities moved, {} shards in use", moved, shards.size());
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    /**
+     * @return number of moved entities
+     */
+    public long reshard() {
+        List<PasswordShard> sources = new ArrayList<>(shards);
+        sources.addAll(retired);
+
+        long total = 0;
+        for (int source = 0; source < sources.size(); source++) {
+            PasswordShard shard = sources.get(source);
+            long scanned = 0, moved = 0, afterId = 0;
+
+            while (true) {
+                List<PasswordEntity> page = shard.findPage(afterId, batchSize);
+                if (page.isEmpty()) break;
+                afterId = page.get(page.size() - 1).getId();
+                scanned += page.size();
+
+                Map<Integer, List<PasswordEntity>> misplaced = new TreeMap<>();
+                for (PasswordEntity entity: page) {
+                    int target = ShardedPasswordRepository.shardOf(entity.getSearchHash(), shards.size());
+                    if (target != source)
+                        misplaced.computeIfAbsent(target, key -> new ArrayList<>()).add(entity);
+                }
+
+                for (Map.Entry<Integer, List<PasswordEntity>> entry: misplaced.entrySet()) {
+                    List<PasswordEntity> entities = entry.getValue();
+                    int copied = shards.get(entry.getKey()).copy(entities);
+                    if (copied < entities.size()) {
+                        log.info("{} of {} entities moved from {} to {} were already there (or duplicates)",
+                                entities.size() - copied, entities.size(), shard.getName(), shards.get(entry.getKey()).getName());
+                    }
+
+                    List<Long> ids = new ArrayList<>(entities.size());
+                    for (PasswordEntity entity: entities) ids.add(entity.getId());
+                    shard.deleteAll(ids);
+                    moved += entities.size();
+                }
+            }
+
+            log.info("Shard {}: {} entities scanned, {} moved away", shard.getName(), scanned, moved);
+            total += moved;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,258 @@
+package com.exercise.passgen.repositories.sharded;
+
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.repositories.SearchHashBucketCount;
+import lombok.Value;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Storage distributed over several PostgreSQL databases (profile {@code sharded}). Every entity is stored in the
+ * shard selected by its search hash ({@link #shardOf(byte[], int)}), so a lookup - and with it the whole candidate
+ * set of a password - touches exactly one shard. Batch inserts are split per shard and the parts run in parallel.
+ * Passwords are unique across shards as long as they are keyed by a single scheme: the same password always has the
+ * same search hash, so a duplicate ends up in the same shard and is rejected by its unique index. Previous search hash
+ * schemes are therefore refused by {@link com.exercise.passgen.config.ShardingConfig}.
+ * <p>
+ * Operations that can not be routed (fingerprint lookups and counts) fan out to all shards in parallel.
+ */
+public class ShardedPasswordRepository implements PasswordRepository, DisposableBean {
+    private final List<PasswordShard> shards;
+    private final ExecutorService executor;
+
+    public ShardedPasswordRepository(List<PasswordShard> shards) {
+        this.shards = List.copyOf(shards);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, shards.size() - 1), runnable -> {
+            Thread thread = new Thread(runnable, "passgen-shard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Jump consistent hash (Lamping, Veach) of the search hash: adding a shard moves only {@code 1/shards} of the
+     * entities, all of them to the new shard. Entities are stored according to it, it must never change.
+     */
+    public static int shardOf(byte[] searchHash, int shards) {
+        // Folded and mixed (MurmurHash3 finalizer), short search hashes would otherwise differ in a few bits only
+        long key = searchHash.length;
+        for (int i = 0; i < searchHash.length; i++)
+            key = key * 31 + (searchHash[i] & 0xff);
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+
+        long bucket = -1, next = 0;
+        while (next < shards) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public List<PasswordEntity> findAllBySearchHash(byte[] searchHash) {
+        return shardFor(searchHash).findAllBySearchHash(searchHash);
+    }
+
+    @Override
+    public List<PasswordEntity> insertUnique(List<PasswordEntity> entities) {
+        if (entities.isEmpty()) return new ArrayList<>(0);
+
+        List<List<PasswordEntity>> parts = partition(entities);
+        List<Integer> used = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty()) used.add(i);
+        }
+
+        // A failure of one shard does not roll back the others, their entities stay persisted without being handed out
+        List<List<PasswordEntity>> inserted = forEachShard(used.size(), i -> shards.get(used.get(i)).insertUnique(parts.get(used.get(i))));
+
+        Set<PasswordEntity> persisted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<PasswordEntity> part: inserted) persisted.addAll(part);
+
+        List<PasswordEntity> out = new ArrayList<>(persisted.size());
+        for (PasswordEntity entity: entities) {
+            if (persisted.contains(entity)) out.add(entity);
+        }
+        return out;
+    }
+
+    @Override
+    public List<byte[]> findExistingFingerprints(List<byte[]> fingerprints) {
+        if (fingerprints.isEmpty()) return new ArrayList<>(0);
+
+        List<byte[]> out = new ArrayList<>();
+        for (List<byte[]> found: forEachShard(shards.size(), i -> shards.get(i).findExistingFingerprints(fingerprints)))
+            out.addAll(found);
+        return out;
+    }
+
+    @Override
+    public <S extends PasswordEntity> List<S> saveAll(Iterable<S> entities) {
+        List<S> out = new ArrayList<>();
+        for (S entity: entities) out.add(save(entity));
+        return out;
+    }
+
+    /**
+     * Inserts a new entity or updates a persisted one in the shard of its search hash. A persisted entity that is not
+     * stored there - deleted in the meantime - is not stored again, re-keyed entities are moved by {@link #saveRekeyed}.
+     */
+    @Override
+    public <S extends PasswordEntity> S save(S entity) {
+        PasswordShard shard = shardFor(entity.getSearchHash());
+        if (entity.getId() == null) shard.insert(entity);
+        else shard.update(entity);
+        return entity;
+    }
+
+    /**
+     * Moves an entity whose new search hash belongs to another shard: it is deleted from the shard of its previous
+     * search hash first and inserted into its new shard only if it was still stored there, so that a password deleted
+     * concurrently is not resurrected. If the insert fails, the entity is put back as it was.
+     */
+    @Override
+    public <S extends PasswordEntity> S saveRekeyed(S entity, byte[] previousSearchHash) {
+        PasswordShard source = shardFor(previousSearchHash), target = shardFor(entity.getSearchHash());
+        if (source == target) return save(entity);
+
+        PasswordEntity removed = source.remove(entity);
+        if (removed == null) return entity;
+
+        try {
+            // The id of the entity is the one assigned by the new shard now
+            target.insert(entity);
+        } catch (RuntimeException e) {
+            source.copy(List.of(removed));
+            throw e;
+        }
+        return entity;
+    }
+
+    @Override
+    public void delete(PasswordEntity entity) {
+        shardFor(entity.getSearchHash()).delete(entity);
+    }
+
+    @Override
+    public long countBySearchScheme(String searchScheme) {
+        return sum(forEachShard(shards.size(), i -> shards.get(i).countBySearchScheme(searchScheme)));
+    }
+
+    @Override
+    public long countByFingerprintIsNull() {
+        return sum(forEachShard(shards.size(), i -> shards.get(i).countByFingerprintIsNull()));
+    }
+
+    @Override
+    public long countFingerprintedByOtherScheme(String fingerprintScheme) {
+        return sum(forEachShard(shards.size(), i -> shards.get(i).countFingerprintedByOtherScheme(fingerprintScheme)));
+    }
+
+    /**
+     * Entities sharing a search hash are always in the same shard, so the bucket counts of the shards just add up.
+     */
+    @Override
+    public List<SearchHashBucketCount> countSearchHashBuckets() {
+        Map<BucketKey, Long> buckets = new LinkedHashMap<>();
+        for (List<SearchHashBucketCount> counts: forEachShard(shards.size(), i -> shards.get(i).countSearchHashBuckets())) {
+            for (SearchHashBucketCount count: counts)
+                buckets.merge(new BucketKey(count.getScheme(), count.getSize()), count.getBuckets(), Long::sum);
+        }
+
+        List<SearchHashBucketCount> out = new ArrayList<>(buckets.size());
+        for (Map.Entry<BucketKey, Long> entry: buckets.entrySet())
+            out.add(new BucketCount(entry.getKey().getScheme(), entry.getKey().getSize(), entry.getValue()));
+        return out;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private PasswordShard shardFor(byte[] searchHash) {
+        return shards.get(shardOf(searchHash, shards.size()));
+    }
+
+    private List<List<PasswordEntity>> partition(List<PasswordEntity> entities) {
+        List<List<PasswordEntity>> parts = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) parts.add(new ArrayList<>());
+        for (PasswordEntity entity: entities)
+            parts.get(shardOf(entity.getSearchHash(), shards.size())).add(entity);
+        return parts;
+    }
+
+    /**
+     * Runs a given call for every index and waits for all of them. The first call is executed by the calling thread,
+     * which would otherwise just wait.
+     * @throws RuntimeException first exception thrown by any of the calls
+     */
+    private <T> List<T> forEachShard(int count, IntFunction<T> call) {
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int i = 1; i < count; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> call.apply(index)));
+        }
+
+        List<T> out = new ArrayList<>(count);
+        RuntimeException failure = null;
+        try {
+            if (count > 0) out.add(call.apply(0));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        for (Future<T> future: futures) {
+            try {
+                out.add(future.get());
+            } catch (ExecutionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtimeException ?
+                        runtimeException : new IllegalStateException(e.getCause());
+                if (failure == null) failure = cause;
+                else failure.addSuppressed(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) failure = new IllegalStateException("Interrupted while waiting for a shard.", e);
+            }
+        }
+
+        if (failure != null)
+            throw failure;
+        return out;
+    }
+
+    private static long sum(List<Long> counts) {
+        long total = 0;
+        for (long count: counts) total += count;
+        return total;
+    }
+
+    @Value
+    private static class BucketKey {
+        String scheme;
+        long size;
+    }
+
+    @Value
+    private static class BucketCount implements SearchHashBucketCount {
+        String scheme;
+        long size;
+        long buckets;
+    }
+}
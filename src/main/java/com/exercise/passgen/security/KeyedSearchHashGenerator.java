@@ -0,0 +1,63 @@
+package com.exercise.passgen.security;
+
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * HMAC-SHA256 of the whole password truncated to a given number of bits. Selectivity does not depend on the password
+ * length: a lookup verifies {@code entities / 2^bits} candidates on average. Without the key the search hashes can not
+ * be brute forced, unlike unkeyed digests of short prefixes.
+ */
+public class KeyedSearchHashGenerator implements SearchHashGenerator {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final int bits;
+    private final String scheme;
+
+    public KeyedSearchHashGenerator(byte[] key, int bits) throws NoSuchAlgorithmException {
+        if (key.length == 0)
+            throw new IllegalArgumentException("Keyed search hash requires a non-empty key.");
+        if (bits < 1 || bits > 256)
+            throw new IllegalArgumentException("Keyed search hash must have between 1 and 256 bits.");
+
+        this.key = new SecretKeySpec(key, ALGORITHM);
+        this.bits = bits;
+
+        // Hashes produced with another key are useless, so the key has to be a part of the scheme. A short fingerprint
+        // tells keys apart without revealing them.
+        byte[] fingerprint = MessageDigest.getInstance("SHA-256").digest(key);
+        this.scheme = "hmac-sha256:" + bits + ":" + HexFormat.of().formatHex(fingerprint, 0, 4);
+    }
+
+    @Override
+    public byte[] generateSearchHash(String text) throws SearchHashGenerationFailureException {
+        byte[] digest;
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            digest = mac.doFinal(text.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new SearchHashGenerationFailureException(e.getMessage());
+        }
+
+        byte[] out = new byte[(bits + 7) / 8];
+        System.arraycopy(digest, 0, out, 0, out.length);
+        if (bits % 8 != 0)
+            out[out.length - 1] &= (byte) (0xff << (8 - bits % 8));
+
+        return out;
+    }
+
+    @Override
+    public String getScheme() {
+        return scheme;
+    }
+}
@@ -0,0 +1,30 @@
+package com.exercise.passgen.security;
+
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+
+/**
+ * Prepends the password length to a search hash of another scheme, so that passwords of different lengths never end
+ * up in the same candidate set. Mostly useful with prefix schemes, where e.g. every password starting with "a"
+ * would otherwise share a single search hash regardless of its length.
+ */
+public class LengthBucketedSearchHashGenerator implements SearchHashGenerator {
+    private final SearchHashGenerator delegate;
+
+    public LengthBucketedSearchHashGenerator(SearchHashGenerator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] generateSearchHash(String text) throws SearchHashGenerationFailureException {
+        byte[] hash = delegate.generateSearchHash(text);
+        byte[] out = new byte[hash.length + 1];
+        out[0] = (byte) text.length();
+        System.arraycopy(hash, 0, out, 1, hash.length);
+        return out;
+    }
+
+    @Override
+    public String getScheme() {
+        return "length+" + delegate.getScheme();
+    }
+}
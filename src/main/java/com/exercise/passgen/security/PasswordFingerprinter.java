@@ -0,0 +1,38 @@
+package com.exercise.passgen.security;
+
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes password fingerprints - 128-bit keyed hashes of the whole password. Unlike search hashes they identify
+ * a password (collisions are negligible), so the storage can enforce password uniqueness with a unique index instead
+ * of Argon2 verifications of every candidate. Like search hashes, every fingerprint is persisted together with the scheme
+ * that produced it (which identifies the key), so that the key can be rotated (see
+ * {@link com.exercise.passgen.services.SearchHashMigration}).
+ */
+public class PasswordFingerprinter {
+    private static final int BITS = 128;
+
+    private final KeyedSearchHashGenerator hash;
+
+    public PasswordFingerprinter(byte[] key) throws NoSuchAlgorithmException {
+        this.hash = new KeyedSearchHashGenerator(key, BITS);
+    }
+
+    public byte[] fingerprint(String password) throws SearchHashGenerationFailureException {
+        return hash.generateSearchHash(password);
+    }
+
+    public String getScheme() {
+        return hash.getScheme();
+    }
+
+    /**
+     * @return first 64 bits of a fingerprint, enough to tell apart the passwords of a single batch
+     */
+    public static long shortFingerprint(byte[] fingerprint) {
+        return ByteBuffer.wrap(fingerprint).getLong();
+    }
+}
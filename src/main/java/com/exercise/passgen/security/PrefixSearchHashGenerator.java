@@ -0,0 +1,41 @@
+package com.exercise.passgen.security;
+
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * MD5 of a prefix of the password, the prefix length is a given fraction of the password length (at least 1 character).
+ * The smaller the fraction, the more passwords share a search hash and have to be verified on every lookup, but the
+ * less the search hash reveals about the password.
+ */
+public class PrefixSearchHashGenerator implements SearchHashGenerator {
+    private final double fraction;
+
+    public PrefixSearchHashGenerator(double fraction) {
+        if (fraction <= 0 || fraction > 1)
+            throw new IllegalArgumentException("Prefix fraction must be in (0, 1].");
+
+        this.fraction = fraction;
+    }
+
+    @Override
+    public byte[] generateSearchHash(String text) throws SearchHashGenerationFailureException {
+        // The epsilon keeps e.g. 9 * (1.0 / 3) from flooring to 2
+        int prefixLength = Math.min(text.length(), Math.max(1, (int) (text.length() * fraction + 1e-9)));
+
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+            return messageDigest.digest(text.substring(0, prefixLength).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new SearchHashGenerationFailureException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String getScheme() {
+        return "md5-prefix:" + fraction;
+    }
+}
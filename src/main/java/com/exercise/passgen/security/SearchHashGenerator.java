@@ -3,5 +3,16 @@ package com.exercise.passgen.security;
 import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
 
 public interface SearchHashGenerator {
+    /**
+     * Scheme of entities persisted before the scheme was recorded along the search hash (MD5 of the first third).
+     */
+    String LEGACY_SCHEME = "md5-prefix:0.3333333333333333";
+
     byte[] generateSearchHash(String text) throws SearchHashGenerationFailureException;
+
+    /**
+     * @return descriptor stored along every search hash, generators producing different hashes for the same text
+     * must have different descriptors
+     */
+    String getScheme();
 }
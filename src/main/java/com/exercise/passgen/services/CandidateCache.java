@@ -0,0 +1,193 @@
+package com.exercise.passgen.services;
+
+import com.exercise.passgen.config.CandidateCacheProperties;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node-local cache of candidate sets (entities sharing a search hash), including empty ones, so that repeated
+ * lookups skip the storage and only pay for the Argon2 verification. Entries are evicted by
+ * {@link #invalidate(byte[])} - called for local writes right away and for writes of any instance by
+ * {@link com.exercise.passgen.datasource.InvalidationListener}.<br>
+ * A lookup that raced with an invalidation must not cache what it read, it could predate the change. Every stripe
+ * counts its invalidations and {@link #put(byte[], List, long)} only stores a candidate set if the stripe was not
+ * invalidated since the {@link #stamp(byte[])} taken before reading it.
+ */
+@Component
+public class CandidateCache {
+    private final boolean enabled;
+    private final long timeToLiveNanos;
+    private final Stripe[] stripes;
+    private final int mask;
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+    private volatile boolean available;
+
+    public CandidateCache(CandidateCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.timeToLiveNanos = properties.getTimeToLive().toNanos();
+        // Without a notification channel (in-memory storage) there is nothing to wait for
+        this.available = true;
+
+        int count = Integer.highestOneBit(Math.max(1, properties.getStripes() - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) stripes[i] = new Stripe(Math.max(1, properties.getMaximumSize() / count));
+        this.mask = count - 1;
+
+        FunctionCounter.builder("passgen.candidate-cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Lookups of a candidate set served by the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("passgen.candidate-cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Lookups of a candidate set that had to query the storage")
+                .register(meterRegistry);
+        Gauge.builder("passgen.candidate-cache.size", this, CandidateCache::size)
+                .description("Cached candidate sets")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return copies of the cached candidates, null if not cached
+     */
+    public List<PasswordEntity> get(byte[] searchHash) {
+        if (!enabled || !available) return null;
+
+        Stripe stripe = stripeOf(searchHash);
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.entries.get(ByteBuffer.wrap(searchHash));
+            if (entry != null && System.nanoTime() - entry.created > timeToLiveNanos) {
+                stripe.entries.remove(ByteBuffer.wrap(searchHash));
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return copyOf(entry.candidates);
+    }
+
+    /**
+     * @return invalidation count of the stripe of a given search hash, to be taken before reading its candidates
+     */
+    public long stamp(byte[] searchHash) {
+        Stripe stripe = stripeOf(searchHash);
+        synchronized (stripe) {
+            return stripe.invalidations;
+        }
+    }
+
+    /**
+     * Caches copies of given candidates, unless the search hash could have been changed since a given stamp.
+     */
+    public void put(byte[] searchHash, List<PasswordEntity> candidates, long stamp) {
+        if (!enabled || !available) return;
+
+        List<PasswordEntity> copies = copyOf(candidates);
+        Stripe stripe = stripeOf(searchHash);
+        synchronized (stripe) {
+            if (stripe.invalidations == stamp)
+                stripe.entries.put(ByteBuffer.wrap(searchHash.clone()), new Entry(copies, System.nanoTime()));
+        }
+    }
+
+    public void invalidate(byte[] searchHash) {
+        Stripe stripe = stripeOf(searchHash);
+        synchronized (stripe) {
+            stripe.invalidations += 1;
+            stripe.entries.remove(ByteBuffer.wrap(searchHash));
+        }
+    }
+
+    public void invalidateAll() {
+        for (Stripe stripe: stripes) {
+            synchronized (stripe) {
+                stripe.invalidations += 1;
+                stripe.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * While unavailable, the cache is bypassed. Set by the notification listener while it is not connected, changes
+     * made meanwhile would go unnoticed.
+     */
+    public void setAvailable(boolean available) {
+        if (!available) {
+            this.available = false;
+            invalidateAll();
+        } else {
+            // Anything cached before the connection was (re-)established could have missed a notification
+            invalidateAll();
+            this.available = true;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe: stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeOf(byte[] searchHash) {
+        int hash = ByteBuffer.wrap(searchHash).hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private static List<PasswordEntity> copyOf(List<PasswordEntity> entities) {
+        // Callers re-key or delete what they get, the cached entities must stay untouched
+        List<PasswordEntity> out = new ArrayList<>(entities.size());
+        for (PasswordEntity entity: entities) {
+            out.add(PasswordEntity.builder()
+                    .id(entity.getId())
+                    .searchHash(entity.getSearchHash())
+                    .searchScheme(entity.getSearchScheme())
+                    .fingerprint(entity.getFingerprint())
+                    .fingerprintScheme(entity.getFingerprintScheme())
+                    .passwordHash(entity.getPasswordHash())
+                    .complexity(entity.getComplexity())
+                    .generationDateTime(entity.getGenerationDateTime())
+                    .build());
+        }
+        return out;
+    }
+
+    private record Entry(List<PasswordEntity> candidates, long created) {
+    }
+
+    private static class Stripe {
+        private final Map<ByteBuffer, Entry> entries;
+        private long invalidations;
+
+        Stripe(int capacity) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Entry> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.exercise.passgen.services;
+
+import com.exercise.passgen.config.GenerationProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits large generation batches into chunks executed on a dedicated fork-join pool, so that a burst of large
+ * batches does not compete with parallel streams on the common pool.
+ */
+@Component
+public class GenerationExecutor implements DisposableBean {
+    private final int parallelThreshold, minChunkSize;
+    private final ForkJoinPool pool;
+
+    public GenerationExecutor(GenerationProperties properties) {
+        int parallelism = properties.getParallelism() > 0 ?
+                properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+
+        this.parallelThreshold = properties.getParallelThreshold();
+        this.minChunkSize = Math.max(1, properties.getMinChunkSize());
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @return number of chunks a batch of a given size should be split into, 1 if it should not be split at all
+     */
+    public int chunksFor(int amount) {
+        if (amount < parallelThreshold || pool.getParallelism() < 2)
+            return 1;
+
+        return Math.max(1, Math.min(pool.getParallelism(), amount / minChunkSize));
+    }
+
+    /**
+     * Runs a given action for every chunk index and waits for all of them to complete. The first chunk is executed
+     * by the calling thread, which would otherwise just wait.
+     * @throws RuntimeException first exception thrown by any of the chunks
+     */
+    public void forEachChunk(int chunks, IntConsumer chunk) {
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[chunks];
+        for (int i = 1; i < chunks; i++) {
+            int index = i;
+            tasks[i] = pool.submit(() -> chunk.accept(index));
+        }
+
+        RuntimeException failure = null;
+        try {
+            chunk.accept(0);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        // All chunks have to finish before returning, even after a failure, they write into the caller's buffers
+        for (int i = 1; i < chunks; i++) {
+            try {
+                tasks[i].join();
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,137 @@
+package com.exercise.passgen.services;
+
+import com.exercise.passgen.config.CoalescingProperties;
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight execution of lookups. While a lookup for a given key is in flight, concurrent callers with the same
+ * key do not execute their own lookup but wait for the in-flight one and receive its result (or exception).<br>
+ * In-flight lookups are partitioned into independently locked stripes, so unrelated keys rarely contend and the
+ * locks are only held for a map operation, never during the lookup itself.
+ */
+@Component
+public class LookupCoalescer {
+    private final boolean enabled;
+    private final Stripe[] stripes;
+    private final int mask;
+    private final LongAdder executions = new LongAdder(), joins = new LongAdder();
+
+    public LookupCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+
+        int count = Integer.highestOneBit(Math.max(1, properties.getStripes() - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) stripes[i] = new Stripe();
+        this.mask = count - 1;
+
+        FunctionCounter.builder("passgen.lookup.coalescing", executions, LongAdder::sum)
+                .tag("role", "executed")
+                .description("Lookups that were actually executed")
+                .register(meterRegistry);
+        FunctionCounter.builder("passgen.lookup.coalescing", joins, LongAdder::sum)
+                .tag("role", "joined")
+                .description("Lookups that waited for an identical in-flight lookup instead of executing")
+                .register(meterRegistry);
+        Gauge.builder("passgen.lookup.coalescing.ratio", this, LookupCoalescer::getCoalescingRatio)
+                .description("Fraction of lookups served by joining an in-flight lookup")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executes a given lookup, unless a lookup with the same key is already in flight, in which case its result is
+     * awaited and returned instead.
+     * @param key identity of the lookup, lookups with equal keys must produce equal results
+     * @param lookup the lookup itself
+     */
+    public <T> T execute(String key, Lookup<T> lookup) throws SearchHashGenerationFailureException {
+        if (!enabled) {
+            executions.increment();
+            return lookup.get();
+        }
+
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        CompletableFuture<T> inFlight;
+        boolean leader = false;
+
+        synchronized (stripe) {
+            inFlight = stripe.get(key);
+            if (inFlight == null) {
+                inFlight = new CompletableFuture<>();
+                stripe.inFlight.put(key, inFlight);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            joins.increment();
+            return await(inFlight);
+        }
+
+        executions.increment();
+        T result;
+        try {
+            result = lookup.get();
+        } catch (Throwable e) {
+            release(stripe, key);
+            inFlight.completeExceptionally(e);
+            throw e;
+        }
+
+        // Released before completion, callers arriving from now on start a fresh lookup
+        release(stripe, key);
+        inFlight.complete(result);
+        return result;
+    }
+
+    public double getCoalescingRatio() {
+        long joined = joins.sum(), total = joined + executions.sum();
+        return total == 0 ? 0 : (double) joined / total;
+    }
+
+    private void release(Stripe stripe, String key) {
+        synchronized (stripe) {
+            stripe.inFlight.remove(key);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> inFlight) throws SearchHashGenerationFailureException {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SearchHashGenerationFailureException searchHashGenerationFailureException)
+                throw searchHashGenerationFailureException;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    @FunctionalInterface
+    public interface Lookup<T> {
+        T get() throws SearchHashGenerationFailureException;
+    }
+
+    private static class Stripe {
+        private final Map<String, CompletableFuture<?>> inFlight = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        <T> CompletableFuture<T> get(String key) {
+            return (CompletableFuture<T>) inFlight.get(key);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.exercise.passgen.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps an exponentially weighted moving average of the amount of candidates (entities sharing a search hash) that
+ * have to be verified with Argon2 per lookup.
+ */
+@Component
+public class LookupStatistics {
+    private static final double ALPHA = 0.01;
+
+    private final AtomicLong averageBits = new AtomicLong(Double.doubleToLongBits(1));
+
+    public LookupStatistics(MeterRegistry meterRegistry) {
+        Gauge.builder("passgen.lookup.candidates", this, LookupStatistics::getAverageCandidates)
+                .description("Moving average of candidate hashes verified per lookup")
+                .register(meterRegistry);
+    }
+
+    public void recordCandidates(int candidates) {
+        while (true) {
+            long current = averageBits.get();
+            double average = Double.longBitsToDouble(current);
+            long next = Double.doubleToLongBits(average + ALPHA * (candidates - average));
+            if (averageBits.compareAndSet(current, next)) return;
+        }
+    }
+
+    public double getAverageCandidates() {
+        return Double.longBitsToDouble(averageBits.get());
+    }
+}
@@ -0,0 +1,69 @@
+package com.exercise.passgen.services;
+
+import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.config.PassphraseProperties;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.util.Wordlist;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.random.RandomGenerator;
+
+/**
+ * Diceware-style passphrases - words picked uniformly at random from the {@link Wordlist}, joined by a separator.
+ * Every passphrase is assembled from the mapped word bytes in a single buffer and decoded once.
+ */
+@Component
+public class PassphraseGenerator {
+    private final Wordlist wordlist;
+    private final char separator;
+    private final byte[] separatorBytes;
+
+    public PassphraseGenerator(Wordlist wordlist, PassphraseProperties properties) {
+        this.wordlist = wordlist;
+        this.separator = properties.getSeparator();
+        this.separatorBytes = String.valueOf(separator).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String generate(int words, RandomGenerator random) {
+        byte[] buffer = new byte[words * (wordlist.getMaxWordBytes() + separatorBytes.length)];
+        int length = 0;
+
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                System.arraycopy(separatorBytes, 0, buffer, length, separatorBytes.length);
+                length += separatorBytes.length;
+            }
+            length = wordlist.copyWord(random.nextInt(wordlist.size()), buffer, length);
+        }
+
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return complexity of a given passphrase, null if it is not a passphrase of this wordlist (between
+     * {@value PasswordRules#MIN_WORDS} and {@value PasswordRules#MAX_WORDS} listed words joined by the separator)
+     */
+    public Complexity getComplexity(String passphrase) {
+        if (passphrase.indexOf(separator) < 0) return null;
+
+        int words = 0, start = 0;
+        while (start <= passphrase.length()) {
+            int end = passphrase.indexOf(separator, start);
+            if (end < 0) end = passphrase.length();
+
+            if (++words > PasswordRules.MAX_WORDS || wordlist.indexOf(passphrase.substring(start, end)) < 0) return null;
+            start = end + 1;
+        }
+
+        return words < PasswordRules.MIN_WORDS ? null : getComplexity(words);
+    }
+
+    public Complexity getComplexity(int words) {
+        return Complexity.ofPassphrase(words, wordlist.size());
+    }
+
+    public double countPossiblePassphrases(int words) {
+        return Math.pow(wordlist.size(), words);
+    }
+}
@@ -1,23 +1,34 @@
 package com.exercise.passgen.services;
 
 import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.config.GenerationProperties;
+import com.exercise.passgen.datasource.ReplicaRoutingContext;
+import com.exercise.passgen.diagnostics.GenerationEvent;
+import com.exercise.passgen.diagnostics.HashEncodeEvent;
+import com.exercise.passgen.diagnostics.RepositoryCallEvent;
+import com.exercise.passgen.diagnostics.VerificationEvent;
 import com.exercise.passgen.enums.Complexity;
 import com.exercise.passgen.exceptions.*;
 import com.exercise.passgen.models.schemas.PasswordDTO;
 import com.exercise.passgen.models.entities.PasswordEntity;
 import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.exercise.passgen.random.RandomnessProvider;
 import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.security.PasswordFingerprinter;
 import com.exercise.passgen.security.SearchHashGenerator;
+import com.exercise.passgen.util.LongHashSet;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.random.RandomGenerator;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PasswordService {
@@ -28,6 +39,23 @@ public class PasswordService {
     private final PasswordRepository passwordRepository;
     private final PasswordEncoder passwordEncoder;
     private final SearchHashGenerator searchHashGenerator;
+    private final PasswordFingerprinter passwordFingerprinter;
+    private final SearchHashMigration searchHashMigration;
+    private final LookupCoalescer lookupCoalescer;
+    private final CandidateCache candidateCache;
+    private final LookupStatistics lookupStatistics;
+    private final RandomnessProvider randomnessProvider;
+    private final GenerationExecutor generationExecutor;
+    private final GenerationProperties generationProperties;
+    private final PassphraseGenerator passphraseGenerator;
+
+    /**
+     * @return service that only generates passwords ({@code generatePasswords}), without storage, hashing or
+     * passphrases - for benchmarks and tests of the generation alone
+     */
+    public static PasswordService forGeneration(RandomnessProvider randomnessProvider, GenerationExecutor generationExecutor) {
+        return new PasswordService(null, null, null, null, null, null, null, null, randomnessProvider, generationExecutor, null, null);
+    }
 
     /**
      * Returns complexity of a given password.<br>
@@ -38,14 +66,22 @@ public class PasswordService {
      *     <li>HIGH - at least 8 characters, at least 1 special case, both lower and upper case</li>
      *     <li>ULTRA - at least 16 characters, at least 1 special case, both lower and upper case</li>
      * </ul>
+     * Passphrases of the configured wordlist are scored by their entropy instead (see {@link Complexity#ofPassphrase(int, int)}).
      * @param password String value of a given password
      * @return Complexity value
      * @throws IncorrectPasswordLengthException if length was less than {@value PasswordRules#MIN_CHARACTERS}
      * and more than {@value PasswordRules#MAX_CHARACTERS}
      */
     public Complexity getComplexity(String password) throws IncorrectPasswordLengthException, UndeterminablePasswordComplexityException {
+        Complexity passphraseComplexity = passphraseGenerator.getComplexity(password);
+        if (passphraseComplexity != null) return passphraseComplexity;
+
+        checkLengthBetweenMinMax(password.length());
+        return getCharacterComplexity(password);
+    }
+
+    private static Complexity getCharacterComplexity(String password) throws UndeterminablePasswordComplexityException {
         int length = password.length();
-        checkLengthBetweenMinMax(length);
 
         boolean hasLowerCase = false,
                 hasUpperCase = false,
@@ -77,7 +113,7 @@ public class PasswordService {
      */
     public List<PasswordDTO> generatePasswords(PasswordGenerationRequestDTO request)
             throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException {
-        return generatePasswords(request.getLength(), request.isLowerCase(), request.isUpperCase(), request.isUpperCase(), request.getAmount());
+        return generatePasswords(request.getLength(), request.isLowerCase(), request.isUpperCase(), request.isSpecialCase(), request.getAmount());
     }
 
     /**
@@ -94,15 +130,32 @@ public class PasswordService {
      */
     public List<PasswordDTO> generatePasswords(int length, boolean lowerCase, boolean upperCase, boolean specialCase, int amount)
             throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException {
-        checkLengthBetweenMinMax(length);
-
-        if (!lowerCase && !upperCase && !specialCase)
-            throw new NoCaseException("At least one case must be selected.");
+        return generatePasswords(length, lowerCase, upperCase, specialCase, amount, randomnessProvider.batchGenerator(), randomnessProvider);
+    }
 
-        if (amount > PasswordRules.MAX_PASSWORDS_AT_ONCE)
-            throw new TooManyPasswordsAtOnceException("Cannot request more than " + PasswordRules.MAX_PASSWORDS_AT_ONCE + " to be generated at once.");
+    /**
+     * Same as {@link PasswordService#generatePasswords(int, boolean, boolean, boolean, int)}, but draws all randomness
+     * from a given generator. Passing a seeded generator makes the batch reproducible (benchmarks and tests only, see
+     * {@link com.exercise.passgen.random.SeededRandomnessProvider}).<br><b>THIS METHOD DOES NOT PERSIST THE GENERATED PASSWORDS!</b>
+     * @param random generator used by the calling thread only, large batches are generated in parallel only if it is
+     *               a {@link RandomGenerator.SplittableGenerator}
+     */
+    public List<PasswordDTO> generatePasswords(int length, boolean lowerCase, boolean upperCase, boolean specialCase, int amount,
+                                               RandomGenerator random)
+            throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException {
+        return generatePasswords(length, lowerCase, upperCase, specialCase, amount, random, null);
+    }
 
-        List<PasswordDTO> out = new ArrayList<>(amount);
+    /**
+     * @param workerRandomness source of generators for chunks of a split batch, if null, the batch is split only when
+     *                         the batch generator can be split
+     */
+    private List<PasswordDTO> generatePasswords(int length, boolean lowerCase, boolean upperCase, boolean specialCase, int amount,
+                                                RandomGenerator random, RandomnessProvider workerRandomness)
+            throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException {
+        checkGenerationArguments(length, lowerCase, upperCase, specialCase, amount);
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
 
         StringBuilder stringBuilder = new StringBuilder();
         if (lowerCase) stringBuilder.append(LOWER);
@@ -110,74 +163,356 @@ public class PasswordService {
         if (specialCase) stringBuilder.append(SPECIAL);
         char[] characters = stringBuilder.toString().toCharArray();
 
-        // This will be the same for the whole batch and will be computed along the first generated password
+        String[] generated = new String[amount];
+        int chunks = random instanceof RandomGenerator.SplittableGenerator || workerRandomness != null ?
+                generationExecutor.chunksFor(amount) : 1;
+
+        if (chunks == 1) {
+            generateRange(generated, 0, amount, length, lowerCase, upperCase, specialCase, characters, random);
+        } else {
+            // Every chunk draws from its own stream. Split streams are derived upfront, in chunk order, so a seeded
+            // batch stays reproducible no matter how the chunks get scheduled. Other sources give every worker
+            // its own generator (e.g. its thread-local DRBG), so that the workers never contend on a shared one.
+            RandomGenerator[] streams = new RandomGenerator[chunks];
+            streams[0] = random;
+            if (random instanceof RandomGenerator.SplittableGenerator splittable) {
+                for (int i = 1; i < chunks; i++) streams[i] = splittable.split();
+            }
+
+            generationExecutor.forEachChunk(chunks, chunk -> generateRange(generated,
+                    (int) ((long) amount * chunk / chunks), (int) ((long) amount * (chunk + 1) / chunks),
+                    length, lowerCase, upperCase, specialCase, characters,
+                    streams[chunk] != null ? streams[chunk] : workerRandomness.batchGenerator()));
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "password";
+            event.amount = amount;
+            event.size = length;
+            event.chunks = chunks;
+            event.commit();
+        }
+
+        if (amount == 0) return new ArrayList<>(0);
+
+        // This is the same for the whole batch, all generated passwords have the same length and cases. A generated
+        // password can look like a passphrase by chance, it is still scored by its characters.
+        return toDTOs(generated, getCharacterComplexity(generated[0]));
+    }
+
+    /**
+     * Generates a batch of diceware-style passphrases (see {@link PassphraseGenerator}).<br>
+     * <b>THIS METHOD DOES NOT PERSIST THE GENERATED PASSPHRASES!</b>
+     * @param words amount of words of every passphrase (between {@value PasswordRules#MIN_WORDS} and {@value PasswordRules#MAX_WORDS})
+     * @param amount amount of generated passphrases (max {@value PasswordRules#MAX_PASSWORDS_AT_ONCE})
+     * @throws IncorrectWordCountException when words is not between {@value PasswordRules#MIN_WORDS} and {@value PasswordRules#MAX_WORDS}
+     * @throws TooManyPasswordsAtOnceException when amount exceeds {@value PasswordRules#MAX_PASSWORDS_AT_ONCE}
+     */
+    public List<PasswordDTO> generatePassphrases(int words, int amount) throws IncorrectWordCountException, TooManyPasswordsAtOnceException {
+        checkPassphraseArguments(words, amount);
+
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+
+        RandomGenerator random = randomnessProvider.batchGenerator();
+        String[] generated = new String[amount];
+        for (int i = 0; i < amount; i++) generated[i] = passphraseGenerator.generate(words, random);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "passphrase";
+            event.amount = amount;
+            event.size = words;
+            event.chunks = 1;
+            event.commit();
+        }
+
+        return toDTOs(generated, passphraseGenerator.getComplexity(words));
+    }
+
+    private static List<PasswordDTO> toDTOs(String[] generated, Complexity complexity) {
+        List<PasswordDTO> out = new ArrayList<>(generated.length);
+        LocalDateTime generationDateTime = LocalDateTime.now();
+
+        for (String password: generated) {
+            out.add(PasswordDTO.builder()
+                    .password(password)
+                    .complexity(complexity)
+                    .generationDateTime(generationDateTime)
+                    .build());
+        }
+
+        return out;
+    }
+
+    /**
+     * Generates {@code amount} passwords and persists them, all of them unique - a candidate that is already persisted
+     * (or repeats within the batch) is rejected and replaced by a new one. Rejected candidates are replaced for at
+     * most {@link GenerationProperties#getUniquenessRounds()} rounds, if some are still missing after that, fewer
+     * passwords are returned.
+     * @return persisted passwords and the rejected candidates (duplicates)
+     * @throws IncorrectPasswordLengthException when length is not between {@value PasswordRules#MIN_CHARACTERS} and {@value PasswordRules#MAX_CHARACTERS}
+     * @throws NoCaseException when all case flags are false
+     * @throws TooManyPasswordsAtOnceException when amount exceeds {@value PasswordRules#MAX_PASSWORDS_AT_ONCE}
+     * @throws PasswordSpaceExhaustedException when there are fewer possible passwords of given length and cases than requested
+     */
+    public PasswordGenerationResponseDTO generateUniquePasswords(int length, boolean lowerCase, boolean upperCase, boolean specialCase, int amount)
+            throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException,
+            SearchHashGenerationFailureException, PasswordSpaceExhaustedException {
+        checkUniqueGenerationArguments(length, lowerCase, upperCase, specialCase, amount);
+
+        LongHashSet seen = new LongHashSet(amount);
+        List<PasswordDTO> persisted = new ArrayList<>(amount);
+        List<PasswordDTO> rejected = new ArrayList<>(0);
         Complexity complexity = null;
 
+        for (int round = 0; round < generationProperties.getUniquenessRounds() && persisted.size() < amount; round++) {
+            List<PasswordDTO> candidates = generatePasswords(length, lowerCase, upperCase, specialCase, amount - persisted.size());
+            complexity = candidates.get(0).getComplexity();
+            persisted.addAll(persistBatch(candidates, seen, rejected));
+        }
+
+        if (persisted.size() < amount)
+            log.warn("Only {} of {} unique passwords of length {} persisted, {} candidates rejected",
+                    persisted.size(), amount, length, rejected.size());
+
+        return toResponse(persisted, rejected, complexity);
+    }
+
+    /**
+     * Generates {@code amount} passphrases and persists them, all of them unique, the same way
+     * {@link #generateUniquePasswords(int, boolean, boolean, boolean, int)} does.
+     * @return persisted passphrases and the rejected candidates (duplicates)
+     * @throws IncorrectWordCountException when words is not between {@value PasswordRules#MIN_WORDS} and {@value PasswordRules#MAX_WORDS}
+     * @throws TooManyPasswordsAtOnceException when amount exceeds {@value PasswordRules#MAX_PASSWORDS_AT_ONCE}
+     * @throws PasswordSpaceExhaustedException when there are fewer possible passphrases of given word count than requested
+     */
+    public PasswordGenerationResponseDTO generateUniquePassphrases(int words, int amount)
+            throws IncorrectWordCountException, TooManyPasswordsAtOnceException, SearchHashGenerationFailureException,
+            PasswordSpaceExhaustedException {
+        checkPassphraseArguments(words, amount);
+
+        double possiblePassphrases = passphraseGenerator.countPossiblePassphrases(words);
+        if (amount > possiblePassphrases)
+            throw new PasswordSpaceExhaustedException("There are only " + (long) possiblePassphrases +
+                    " different passphrases of " + words + " words.");
+
+        LongHashSet seen = new LongHashSet(amount);
+        List<PasswordDTO> persisted = new ArrayList<>(amount);
+        List<PasswordDTO> rejected = new ArrayList<>(0);
+
+        for (int round = 0; round < generationProperties.getUniquenessRounds() && persisted.size() < amount; round++)
+            persisted.addAll(persistBatch(generatePassphrases(words, amount - persisted.size()), seen, rejected));
+
+        if (persisted.size() < amount)
+            log.warn("Only {} of {} unique passphrases of {} words persisted, {} candidates rejected",
+                    persisted.size(), amount, words, rejected.size());
+
+        return toResponse(persisted, rejected, passphraseGenerator.getComplexity(words));
+    }
+
+    private static PasswordGenerationResponseDTO toResponse(List<PasswordDTO> persisted, List<PasswordDTO> rejected, Complexity complexity) {
+        return PasswordGenerationResponseDTO.builder()
+                .passwords(passwordsOf(persisted))
+                .duplicates(passwordsOf(rejected))
+                .complexity(complexity)
+                .build();
+    }
+
+    /**
+     * Checks arguments of {@link #generateUniquePasswords(int, boolean, boolean, boolean, int)}, for callers that
+     * split a request into several batches and want to reject it as a whole upfront.
+     * @throws IncorrectPasswordLengthException when length is not between {@value PasswordRules#MIN_CHARACTERS} and {@value PasswordRules#MAX_CHARACTERS}
+     * @throws NoCaseException when all case flags are false
+     * @throws TooManyPasswordsAtOnceException when amount exceeds {@value PasswordRules#MAX_PASSWORDS_AT_ONCE}
+     * @throws PasswordSpaceExhaustedException when there are fewer possible passwords of given length and cases than requested
+     */
+    public void checkUniqueGenerationArguments(int length, boolean lowerCase, boolean upperCase, boolean specialCase, int amount)
+            throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, PasswordSpaceExhaustedException {
+        checkGenerationArguments(length, lowerCase, upperCase, specialCase, amount);
+
+        double possiblePasswords = countPossiblePasswords(length, lowerCase, upperCase, specialCase);
+        if (amount > possiblePasswords)
+            throw new PasswordSpaceExhaustedException("There are only " + (long) possiblePasswords +
+                    " different passwords of length " + length + " with the selected cases.");
+    }
+
+    /**
+     * Counts passwords of a given length containing at least one character of every selected case
+     * (inclusion-exclusion over the cases missing from the password).
+     */
+    public static double countPossiblePasswords(int length, boolean lowerCase, boolean upperCase, boolean specialCase) {
+        int[] caseSizes = new int[3];
+        int cases = 0, alphabet = 0;
+        if (lowerCase) caseSizes[cases++] = LOWER.length;
+        if (upperCase) caseSizes[cases++] = UPPER.length;
+        if (specialCase) caseSizes[cases++] = SPECIAL.length;
+        for (int i = 0; i < cases; i++) alphabet += caseSizes[i];
+
+        double count = 0;
+        for (int missing = 0; missing < 1 << cases; missing++) {
+            int excluded = 0;
+            for (int i = 0; i < cases; i++)
+                if ((missing & 1 << i) != 0) excluded += caseSizes[i];
+
+            count += (Integer.bitCount(missing) % 2 == 0 ? 1 : -1) * Math.pow(alphabet - excluded, length);
+        }
+        return count;
+    }
+
+    /**
+     * Generates passwords into {@code out[from, to)}.
+     */
+    private static void generateRange(String[] out, int from, int to, int length, boolean lowerCase, boolean upperCase,
+                                      boolean specialCase, char[] characters, RandomGenerator random) {
+        int[] indexes = new int[length];
+        char[] password = new char[length];
+
         // We will have to ensure that at least 1 character of every specified case will be present
         // A "sure case" is a character from one of those cases that will be randomly inserted at the start of the process
         // After all sure cases are inserted, the rest of the password is built randomly
-        for (int i = 0; i < amount; i++) {
-            Random random = new SecureRandom();
+        for (int i = from; i < to; i++) {
             int sureCaseInsertIndex = 0;
 
-            // Prepare shuffled list of password character indexes
-            List<Integer> indexes = IntStream.range(0, length).boxed().collect(Collectors.toList());
-            Collections.shuffle(indexes, random);
-
-            char[] password = new char[length];
+            // Prepare shuffled password character indexes (Fisher-Yates)
+            for (int j = 0; j < length; j++) indexes[j] = j;
+            for (int j = length - 1; j > 0; j--) {
+                int k = random.nextInt(j + 1);
+                int swap = indexes[j];
+                indexes[j] = indexes[k];
+                indexes[k] = swap;
+            }
 
             // Insert sure cases
             if (lowerCase) {
-                password[indexes.get(sureCaseInsertIndex)] = LOWER[random.nextInt(LOWER.length)];
+                password[indexes[sureCaseInsertIndex]] = LOWER[random.nextInt(LOWER.length)];
                 sureCaseInsertIndex += 1;
             }
             if (upperCase) {
-                password[indexes.get(sureCaseInsertIndex)] = UPPER[random.nextInt(UPPER.length)];
+                password[indexes[sureCaseInsertIndex]] = UPPER[random.nextInt(UPPER.length)];
                 sureCaseInsertIndex += 1;
             }
             if (specialCase) {
-                password[indexes.get(sureCaseInsertIndex)] = SPECIAL[random.nextInt(SPECIAL.length)];
+                password[indexes[sureCaseInsertIndex]] = SPECIAL[random.nextInt(SPECIAL.length)];
                 sureCaseInsertIndex += 1;
             }
 
             // Randomize the rest
             for (int j = sureCaseInsertIndex; j < length; j++)
-                password[indexes.get(j)] = characters[random.nextInt(characters.length)];
-
-            if (complexity == null)
-                complexity = getComplexity(new String(password));
+                password[indexes[j]] = characters[random.nextInt(characters.length)];
 
-            out.add(PasswordDTO.builder()
-                    .password(new String(password))
-                    .complexity(complexity)
-                    .generationDateTime(LocalDateTime.now())
-                    .build());
+            out[i] = new String(password);
         }
-
-        return out;
     }
 
     /**
      * Looks for an entity that contains a password hash matching the given password and returns a DTO version of found
-     * entity.
+     * entity. Concurrent lookups of the same password are coalesced into one (see {@link LookupCoalescer}).
      * @param password unhashed password string
      * @return DTO version of entity associated with a given password or null
      * @throws SearchHashGenerationFailureException when the generation of a search hash failed
      */
     public PasswordDTO getPasswordDTO(String password) throws SearchHashGenerationFailureException {
-        List<PasswordEntity> possibleMatches = passwordRepository.findAllBySearchHash(searchHashGenerator.generateSearchHash(password));
+        // Lookups pinned to the primary must not join a lookup that could be served by a replica
+        if (ReplicaRoutingContext.isPrimaryForced())
+            return findPasswordDTO(password);
 
-        for (PasswordEntity entity: possibleMatches) {
-            if (passwordEncoder.matches(password, entity.getPasswordHash())) {
-                return PasswordDTO.builder()
-                        .password(password)
-                        .complexity(entity.getComplexity())
-                        .generationDateTime(entity.getGenerationDateTime())
-                        .build();
+        return lookupCoalescer.execute(password, () -> findPasswordDTO(password));
+    }
+
+    private PasswordDTO findPasswordDTO(String password) throws SearchHashGenerationFailureException {
+        PasswordEntity entity = findEntity(password);
+        if (entity == null) return null;
+
+        byte[] searchHash = entity.getSearchHash();
+        searchHashMigration.onVerified(entity, password);
+        if (searchHash != entity.getSearchHash()) {
+            candidateCache.invalidate(searchHash);
+            candidateCache.invalidate(entity.getSearchHash());
+        }
+        return PasswordDTO.builder()
+                .password(password)
+                .complexity(entity.getComplexity())
+                .generationDateTime(entity.getGenerationDateTime())
+                .build();
+    }
+
+    /**
+     * Looks for an entity matching a given password under every scheme consulted by lookups (see {@link SearchHashMigration}).
+     */
+    private PasswordEntity findEntity(String password) throws SearchHashGenerationFailureException {
+        VerificationEvent event = new VerificationEvent();
+        event.begin();
+        int candidates = 0, schemes = 0;
+        PasswordEntity found = null;
+
+        lookup:
+        for (SearchHashGenerator generator: searchHashMigration.getLookupGenerators()) {
+            schemes += 1;
+            for (PasswordEntity entity: findCandidates(generator.generateSearchHash(password))) {
+                // A hash of another scheme can be equal by chance, such entity can only match under its own scheme
+                if (!generator.getScheme().equals(entity.getSearchScheme())) continue;
+
+                candidates += 1;
+                if (passwordEncoder.matches(password, entity.getPasswordHash())) {
+                    found = entity;
+                    break lookup;
+                }
             }
         }
 
-        return null;
+        lookupStatistics.recordCandidates(candidates);
+        event.end();
+        if (event.shouldCommit()) {
+            event.candidates = candidates;
+            event.schemes = schemes;
+            event.matched = found != null;
+            event.commit();
+        }
+        return found;
+    }
+
+    /**
+     * Entities with a given search hash, served by the {@link CandidateCache} if possible. Lookups pinned to the
+     * primary (deletions and duplicate checks) always read the storage, they must not act on a stale candidate set.
+     */
+    private List<PasswordEntity> findCandidates(byte[] searchHash) {
+        if (!candidateCache.isEnabled() || ReplicaRoutingContext.isPrimaryForced())
+            return findAllBySearchHash(searchHash);
+
+        List<PasswordEntity> candidates = candidateCache.get(searchHash);
+        if (candidates == null) {
+            long stamp = candidateCache.stamp(searchHash);
+            candidates = findAllBySearchHash(searchHash);
+            candidateCache.put(searchHash, candidates, stamp);
+        }
+        return candidates;
+    }
+
+    private List<PasswordEntity> findAllBySearchHash(byte[] searchHash) {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        List<PasswordEntity> candidates = passwordRepository.findAllBySearchHash(searchHash);
+        commit(event, "findAllBySearchHash", candidates.size());
+        return candidates;
+    }
+
+    private static void commit(RepositoryCallEvent event, String operation, int entities) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.entities = entities;
+            event.commit();
+        }
+    }
+
+    private static void commit(HashEncodeEvent event, int passwords) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.passwords = passwords;
+            event.commit();
+        }
     }
 
     /**
@@ -187,11 +522,18 @@ public class PasswordService {
      * @throws SearchHashGenerationFailureException when MD5 used to compute searchHash is unavailable
      */
     public PasswordDTO deletePassword(String password) throws SearchHashGenerationFailureException {
-        List<PasswordEntity> possibleMatches = passwordRepository.findAllBySearchHash(searchHashGenerator.generateSearchHash(password));
+        // A replica could still return an entity that was already deleted on the primary
+        try (ReplicaRoutingContext.Scope ignored = ReplicaRoutingContext.usePrimary()) {
+            PasswordEntity entity = findEntity(password);
 
-        for (PasswordEntity entity: possibleMatches) {
-            if (passwordEncoder.matches(password, entity.getPasswordHash())) {
+            if (entity != null) {
+                RepositoryCallEvent event = new RepositoryCallEvent();
+                event.begin();
                 passwordRepository.delete(entity);
+                commit(event, "delete", 1);
+                ReplicaRoutingContext.markWrite();
+                // Other instances learn about it from the database (see CandidateCache)
+                candidateCache.invalidate(entity.getSearchHash());
                 return PasswordDTO.builder()
                         .password(password)
                         .complexity(entity.getComplexity())
@@ -209,31 +551,155 @@ public class PasswordService {
      */
     public List<PasswordDTO> persistUniquePasswords(List<PasswordDTO> passwords) throws SearchHashGenerationFailureException {
         List<PasswordDTO> out = new LinkedList<>();
+        persistBatch(passwords, new LongHashSet(passwords.size()), out);
+        return out;
+    }
 
-        // Linked hash map preserves put order so the first duplicate in input list will be persisted
-        HashMap<String, PasswordEntity> in = new LinkedHashMap<>(passwords.size());
+    /**
+     * Persists passwords that are neither persisted yet nor present in {@code seen}. The first occurrence of a password
+     * repeated within the batch is persisted. Duplicates are rejected by the unique fingerprint index, only passwords
+     * persisted before fingerprints were introduced have to be looked up and those fingerprinted with a previous key
+     * checked by their fingerprints of that key (see {@link SearchHashMigration}).
+     * @param seen short fingerprints of passwords already processed by the caller, updated with the given passwords
+     * @param rejected receives the passwords that were not persisted
+     * @return persisted passwords, in input order
+     */
+    private List<PasswordDTO> persistBatch(List<PasswordDTO> passwords, LongHashSet seen, List<PasswordDTO> rejected)
+            throws SearchHashGenerationFailureException {
+        List<PasswordDTO> candidates = new ArrayList<>(passwords.size());
+        List<PasswordEntity> entities = new ArrayList<>(passwords.size());
+        boolean lookup = !searchHashMigration.isFingerprintingComplete();
+        List<PasswordEntity> inserted;
+
+        // Duplicates have to be checked against the primary, a lagging replica could miss a recently persisted password
+        try (ReplicaRoutingContext.Scope ignored = ReplicaRoutingContext.usePrimary()) {
+            for (PasswordDTO password: passwords) {
+                byte[] fingerprint = passwordFingerprinter.fingerprint(password.getPassword());
+
+                if (!seen.add(PasswordFingerprinter.shortFingerprint(fingerprint)) ||
+                        (lookup && findPasswordDTO(password.getPassword()) != null)) {
+                    rejected.add(password);
+                    continue;
+                }
+
+                candidates.add(password);
+                entities.add(PasswordEntity.builder()
+                        .complexity(password.getComplexity())
+                        .searchHash(searchHashGenerator.generateSearchHash(password.getPassword()))
+                        .searchScheme(searchHashGenerator.getScheme())
+                        .fingerprint(fingerprint)
+                        .fingerprintScheme(passwordFingerprinter.getScheme())
+                        .generationDateTime(password.getGenerationDateTime())
+                        .build());
+            }
+            rejectFingerprintedByPreviousKeys(candidates, entities, rejected);
+
+            // Hashed once the known duplicates are rejected, Argon2 dominates the cost of a batch
+            HashEncodeEvent hashEncodeEvent = new HashEncodeEvent();
+            hashEncodeEvent.begin();
+            for (int i = 0; i < entities.size(); i++)
+                entities.get(i).setPasswordHash(passwordEncoder.encode(candidates.get(i).getPassword()));
+            commit(hashEncodeEvent, entities.size());
+
+            RepositoryCallEvent event = new RepositoryCallEvent();
+            event.begin();
+            inserted = passwordRepository.insertUnique(entities);
+            commit(event, "insertUnique", entities.size());
+            if (!inserted.isEmpty()) ReplicaRoutingContext.markWrite();
+        }
+        for (PasswordEntity entity: inserted) candidateCache.invalidate(entity.getSearchHash());
+
+        // Inserted entities are a subsequence of the given ones
+        List<PasswordDTO> out = new ArrayList<>(inserted.size());
+        Iterator<PasswordEntity> insertedIterator = inserted.iterator();
+        PasswordEntity next = insertedIterator.hasNext() ? insertedIterator.next() : null;
 
-        for (PasswordDTO password: passwords) {
-            String passwordHash = passwordEncoder.encode(password.getPassword());
-            if (getPasswordDTO(password.getPassword()) != null) {
-                out.add(password);
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i) == next) {
+                out.add(candidates.get(i));
+                next = insertedIterator.hasNext() ? insertedIterator.next() : null;
             } else {
-                if (in.containsKey(password.getPassword())) out.add(password);
-                else {
-                    in.put(password.getPassword(), PasswordEntity.builder()
-                            .complexity(password.getComplexity())
-                            .passwordHash(passwordHash)
-                            .searchHash(searchHashGenerator.generateSearchHash(password.getPassword()))
-                            .generationDateTime(password.getGenerationDateTime())
-                            .build());
-                }
+                rejected.add(candidates.get(i));
             }
         }
 
-        passwordRepository.saveAll(in.values());
         return out;
     }
 
+    /**
+     * Moves candidates persisted with a fingerprint of a previous key to {@code rejected}. New entities always get the
+     * current key and an entity re-fingerprinted on access swaps its fingerprint in a single update, so a password
+     * that passes is either not persisted or caught by the unique index.
+     */
+    private void rejectFingerprintedByPreviousKeys(List<PasswordDTO> candidates, List<PasswordEntity> entities,
+                                                   List<PasswordDTO> rejected) throws SearchHashGenerationFailureException {
+        List<PasswordFingerprinter> previous = searchHashMigration.getPreviousFingerprinters();
+        if (previous.isEmpty() || candidates.isEmpty()) return;
+
+        List<byte[]> fingerprints = new ArrayList<>(candidates.size() * previous.size());
+        for (PasswordDTO candidate: candidates) {
+            for (PasswordFingerprinter fingerprinter: previous)
+                fingerprints.add(fingerprinter.fingerprint(candidate.getPassword()));
+        }
+
+        Set<ByteBuffer> taken = new HashSet<>();
+        for (byte[] fingerprint: passwordRepository.findExistingFingerprints(fingerprints)) taken.add(ByteBuffer.wrap(fingerprint));
+        if (taken.isEmpty()) return;
+
+        int kept = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            boolean duplicate = false;
+            for (int k = 0; k < previous.size(); k++)
+                duplicate |= taken.contains(ByteBuffer.wrap(fingerprints.get(i * previous.size() + k)));
+
+            if (duplicate) {
+                rejected.add(candidates.get(i));
+            } else {
+                candidates.set(kept, candidates.get(i));
+                entities.set(kept++, entities.get(i));
+            }
+        }
+        candidates.subList(kept, candidates.size()).clear();
+        entities.subList(kept, entities.size()).clear();
+    }
+
+    /**
+     * @return read-only view of the passwords of given DTOs, the response is serialized straight from the DTOs
+     */
+    private static List<String> passwordsOf(List<PasswordDTO> passwords) {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return passwords.get(index).getPassword();
+            }
+
+            @Override
+            public int size() {
+                return passwords.size();
+            }
+        };
+    }
+
+    private void checkPassphraseArguments(int words, int amount) throws IncorrectWordCountException, TooManyPasswordsAtOnceException {
+        if (words < PasswordRules.MIN_WORDS || words > PasswordRules.MAX_WORDS)
+            throw new IncorrectWordCountException("Passphrase word count must be between " +
+                    PasswordRules.MIN_WORDS + " and " + PasswordRules.MAX_WORDS + ".");
+
+        if (amount > PasswordRules.MAX_PASSWORDS_AT_ONCE)
+            throw new TooManyPasswordsAtOnceException("Cannot request more than " + PasswordRules.MAX_PASSWORDS_AT_ONCE + " to be generated at once.");
+    }
+
+    private void checkGenerationArguments(int length, boolean lowerCase, boolean upperCase, boolean specialCase, int amount)
+            throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException {
+        checkLengthBetweenMinMax(length);
+
+        if (!lowerCase && !upperCase && !specialCase)
+            throw new NoCaseException("At least one case must be selected.");
+
+        if (amount > PasswordRules.MAX_PASSWORDS_AT_ONCE)
+            throw new TooManyPasswordsAtOnceException("Cannot request more than " + PasswordRules.MAX_PASSWORDS_AT_ONCE + " to be generated at once.");
+    }
+
     /**
      * Checks if a given length is between {@value PasswordRules#MIN_CHARACTERS} and {@value PasswordRules#MAX_CHARACTERS}.
      * @param length length of a password
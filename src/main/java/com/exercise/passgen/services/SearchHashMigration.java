@@ -0,0 +1,183 @@
+package com.exercise.passgen.services;
+
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.security.PasswordFingerprinter;
+import com.exercise.passgen.security.SearchHashGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves persisted passwords from previous search hash schemes to the current one and fingerprints passwords persisted
+ * before fingerprints were introduced (or with a previous fingerprint key).<br>
+ * Search keys can not be recomputed in bulk - only Argon2 hashes of the passwords are stored. Instead, lookups
+ * consult the previous schemes too and an entity verified under a previous scheme (or without a fingerprint) is
+ * re-keyed with the (now known) password. A periodic check counts the entities left under every previous scheme
+ * and drops drained schemes from the lookup path, so that lookups stop paying for them. Until every entity has
+ * a fingerprint, generation has to look up its candidates too (see {@link #isFingerprintingComplete()}). Until every
+ * fingerprint is of the current key, generation also checks the fingerprints of the previous keys (see
+ * {@link #getPreviousFingerprinters()}), the unique index only rejects duplicates of the same key.
+ */
+@Slf4j
+public class SearchHashMigration {
+    private final SearchHashGenerator current;
+    private final PasswordFingerprinter passwordFingerprinter;
+    private final boolean rekeyOnAccess;
+    private final PasswordRepository passwordRepository;
+    private final Counter rekeyed;
+
+    /**
+     * Current scheme first, followed by the previous schemes that still key some entities.
+     */
+    @Getter
+    private volatile List<SearchHashGenerator> lookupGenerators;
+    /**
+     * Fingerprinters of the previous keys, as long as some entities may still have a fingerprint of one of them.
+     */
+    @Getter
+    private volatile List<PasswordFingerprinter> previousFingerprinters;
+    private volatile long remaining = -1, unfingerprinted = -1, previouslyFingerprinted = -1;
+
+    public SearchHashMigration(SearchHashGenerator current, List<SearchHashGenerator> previous,
+                               PasswordFingerprinter passwordFingerprinter, List<PasswordFingerprinter> previousFingerprinters,
+                               boolean rekeyOnAccess, PasswordRepository passwordRepository, MeterRegistry meterRegistry) {
+        this.current = current;
+        this.passwordFingerprinter = passwordFingerprinter;
+        this.rekeyOnAccess = rekeyOnAccess;
+        this.passwordRepository = passwordRepository;
+
+        List<SearchHashGenerator> generators = new ArrayList<>(previous.size() + 1);
+        generators.add(current);
+        generators.addAll(previous);
+        this.lookupGenerators = List.copyOf(generators);
+        this.previousFingerprinters = List.copyOf(previousFingerprinters);
+
+        this.rekeyed = Counter.builder("passgen.search-hash.rekeyed")
+                .description("Entities re-keyed to the current search hash scheme or fingerprinted on access")
+                .register(meterRegistry);
+        Gauge.builder("passgen.search-hash.previous", this, SearchHashMigration::getRemaining)
+                .description("Entities keyed by previous search hash schemes at the last check, -1 before the first check")
+                .register(meterRegistry);
+        Gauge.builder("passgen.search-hash.unfingerprinted", this, SearchHashMigration::getUnfingerprinted)
+                .description("Entities without a fingerprint at the last check, -1 before the first check")
+                .register(meterRegistry);
+        Gauge.builder("passgen.search-hash.previous-fingerprints", this, SearchHashMigration::getPreviouslyFingerprinted)
+                .description("Entities with a fingerprint of another than the current key at the last check, -1 before the first check")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Re-keys a given entity with the current scheme if it is keyed by a previous one and fingerprints it if it has
+     * no fingerprint of the current key.
+     * @param password password verified against the entity
+     */
+    public void onVerified(PasswordEntity entity, String password) throws SearchHashGenerationFailureException {
+        boolean rekey = !current.getScheme().equals(entity.getSearchScheme());
+        boolean fingerprint = !passwordFingerprinter.getScheme().equals(entity.getFingerprintScheme());
+        if (!rekeyOnAccess || (!rekey && !fingerprint))
+            return;
+
+        byte[] previousSearchHash = entity.getSearchHash();
+        entity.setSearchHash(current.generateSearchHash(password));
+        entity.setSearchScheme(current.getScheme());
+        entity.setFingerprint(passwordFingerprinter.fingerprint(password));
+        entity.setFingerprintScheme(passwordFingerprinter.getScheme());
+
+        try {
+            passwordRepository.saveRekeyed(entity, previousSearchHash);
+            rekeyed.increment();
+        } catch (DataIntegrityViolationException e) {
+            // The same password was persisted twice before fingerprints existed, the other copy already has it
+            log.warn("Entity {} duplicates an already fingerprinted password, it is left as it is", entity.getId());
+        }
+    }
+
+    /**
+     * @return true if every persisted entity had a fingerprint at the last check, so that duplicates are rejected
+     * by the storage alone
+     */
+    public boolean isFingerprintingComplete() {
+        return unfingerprinted == 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkFingerprints() {
+        // Once complete, it stays complete - new entities always get a fingerprint
+        if (unfingerprinted != 0)
+            unfingerprinted = passwordRepository.countByFingerprintIsNull();
+    }
+
+    @Scheduled(initialDelayString = "${passgen.search-hash.migration-check-interval:PT5M}",
+            fixedDelayString = "${passgen.search-hash.migration-check-interval:PT5M}")
+    public void checkProgress() {
+        checkFingerprints();
+        checkFingerprintKeys();
+
+        List<SearchHashGenerator> generators = lookupGenerators;
+        if (generators.size() == 1) {
+            remaining = 0;
+            return;
+        }
+
+        List<SearchHashGenerator> active = new ArrayList<>(generators.size());
+        active.add(current);
+        long total = 0;
+
+        for (SearchHashGenerator generator: generators.subList(1, generators.size())) {
+            long count = passwordRepository.countBySearchScheme(generator.getScheme());
+            if (count > 0) {
+                active.add(generator);
+                total += count;
+            } else {
+                // New entities always get the current scheme, a drained previous scheme can not come back
+                log.info("No entities left under search hash scheme {}, lookups stop consulting it", generator.getScheme());
+            }
+        }
+
+        if (total > 0)
+            log.info("{} entities left under previous search hash schemes", total);
+
+        lookupGenerators = List.copyOf(active);
+        remaining = total;
+    }
+
+    private void checkFingerprintKeys() {
+        if (previousFingerprinters.isEmpty()) {
+            previouslyFingerprinted = 0;
+            return;
+        }
+
+        long count = passwordRepository.countFingerprintedByOtherScheme(passwordFingerprinter.getScheme());
+        if (count > 0) {
+            log.info("{} entities left with fingerprints of previous keys", count);
+        } else {
+            // New entities always get the current key, previous keys can not come back
+            log.info("No entities left with fingerprints of previous keys, generation stops checking them");
+            previousFingerprinters = List.of();
+        }
+        previouslyFingerprinted = count;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public long getUnfingerprinted() {
+        return unfingerprinted;
+    }
+
+    public long getPreviouslyFingerprinted() {
+        return previouslyFingerprinted;
+    }
+}
@@ -0,0 +1,160 @@
+package com.exercise.passgen.services;
+
+import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.config.WarmUpProperties;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.security.PasswordFingerprinter;
+import com.exercise.passgen.security.SearchHashGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Runs the hot paths of the service with synthetic passwords after startup, so that the first requests after a deploy
+ * do not pay for the interpreter, the JIT compilers and the lazy initialization of the digests and the DRBG. Nothing
+ * is read from or written to the storage.
+ * <p>
+ * Work is done in rounds until the JIT compilers spend less than {@link WarmUpProperties#getCompilationThreshold()}
+ * of a round in several consecutive rounds, or until {@link WarmUpProperties#getMaxDuration()} elapses. Readiness
+ * is reported by the {@code warmUp} health indicator only after that.
+ */
+@Slf4j
+@Component
+public class WarmUp {
+    private static final int SMALL_BATCH = 50;
+
+    private final PasswordService passwordService;
+    private final SearchHashMigration searchHashMigration;
+    private final PasswordFingerprinter passwordFingerprinter;
+    private final PasswordEncoder passwordEncoder;
+    private final WarmUpProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Getter
+    private volatile State state;
+    @Getter
+    private volatile int rounds;
+    private volatile boolean running = true;
+    // Consumes the results, so that the compiler cannot drop the work
+    private volatile int sink;
+
+    public WarmUp(PasswordService passwordService, SearchHashMigration searchHashMigration,
+                  PasswordFingerprinter passwordFingerprinter, PasswordEncoder passwordEncoder,
+                  WarmUpProperties properties, MeterRegistry meterRegistry) {
+        this.passwordService = passwordService;
+        this.searchHashMigration = searchHashMigration;
+        this.passwordFingerprinter = passwordFingerprinter;
+        this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.state = properties.isEnabled() ? State.PENDING : State.DISABLED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (state != State.PENDING) return;
+
+        Thread thread = new Thread(this::run, "passgen-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isComplete() {
+        return state == State.COMPLETE || state == State.DISABLED;
+    }
+
+    private void run() {
+        state = State.RUNNING;
+        long start = System.nanoTime(), deadline = start + properties.getMaxDuration().toNanos();
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        // Without compilation time monitoring, every round counts as stable
+        boolean monitored = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        int stable = 0;
+        String outcome;
+
+        try {
+            while (running && stable < properties.getStableRounds() && System.nanoTime() < deadline) {
+                long compiledBefore = monitored ? compilation.getTotalCompilationTime() : 0, roundStart = System.nanoTime();
+                round(rounds);
+                rounds += 1;
+
+                double roundMillis = Math.max(1, (System.nanoTime() - roundStart) / 1_000_000.0);
+                double compiling = monitored ? (compilation.getTotalCompilationTime() - compiledBefore) / roundMillis : 0;
+                stable = compiling <= properties.getCompilationThreshold() ? stable + 1 : 0;
+            }
+            outcome = stable >= properties.getStableRounds() ? "settled" : "time-limit";
+        } catch (Exception e) {
+            log.warn("Warm-up failed after {} rounds, reporting readiness anyway", rounds, e);
+            outcome = "failed";
+        }
+        if (!running) return;
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        Timer.builder("passgen.warm-up.duration")
+                .description("Time the startup warm-up took, readiness is reported once it completes")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(duration);
+        log.info("Warm-up completed in {} ms after {} rounds ({})", duration.toMillis(), rounds, outcome);
+        state = State.COMPLETE;
+    }
+
+    /**
+     * Cycles through all case combinations and lengths across batches and rounds. The first batch of a round is
+     * as large as allowed, so that the parallel generation gets compiled too.
+     */
+    private void round(int round) throws Exception {
+        int lengths = PasswordRules.MAX_CHARACTERS - PasswordRules.MIN_CHARACTERS + 1;
+        int generated = 0;
+
+        for (int batch = 0; generated < properties.getPasswordsPerRound() && running; batch++) {
+            int cases = batch % 7 + 1;
+            int length = PasswordRules.MIN_CHARACTERS + (round + batch) % lengths;
+            int amount = Math.min(properties.getPasswordsPerRound() - generated,
+                    batch == 0 ? PasswordRules.MAX_PASSWORDS_AT_ONCE : SMALL_BATCH);
+
+            List<PasswordDTO> passwords = passwordService.generatePasswords(length,
+                    (cases & 1) != 0, (cases & 2) != 0, (cases & 4) != 0, amount);
+            int result = 0;
+            for (PasswordDTO password: passwords) {
+                result += passwordService.getComplexity(password.getPassword()).ordinal();
+                for (SearchHashGenerator generator: searchHashMigration.getLookupGenerators())
+                    result += generator.generateSearchHash(password.getPassword())[0];
+                result += passwordFingerprinter.fingerprint(password.getPassword())[0];
+            }
+            sink += result;
+            generated += amount;
+        }
+
+        int words = PasswordRules.MIN_WORDS + round % (PasswordRules.MAX_WORDS - PasswordRules.MIN_WORDS + 1);
+        int result = 0;
+        for (PasswordDTO passphrase: passwordService.generatePassphrases(words, SMALL_BATCH))
+            result += passwordService.getComplexity(passphrase.getPassword()).ordinal();
+        sink += result;
+
+        for (int i = 0; i < properties.getArgon2PerRound() && running; i++) {
+            String password = "warm-up-" + round + "-" + i;
+            if (passwordEncoder.matches(password, passwordEncoder.encode(password))) sink += 1;
+        }
+    }
+
+    public enum State {
+        DISABLED, PENDING, RUNNING, COMPLETE
+    }
+}
@@ -0,0 +1,64 @@
+package com.exercise.passgen.startup;
+
+import com.exercise.passgen.config.StartupProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of the Argon2 password encoder ({@code passgen.startup.argon2-benchmark}), then exits.
+ * Argon2 dominates generation and lookups, and the ahead-of-time compiled code of a native image performs differently
+ * from the JIT compiled one, so every startup mode gets measured (see {@code startup/benchmark.sh}). The latency of
+ * the very first hash (cold code) is reported separately from the throughput.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Argon2Throughput implements ApplicationRunner {
+    private final StartupProperties properties;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (properties.getArgon2Benchmark() == null) return;
+
+        int threads = properties.getArgon2BenchmarkThreads() > 0 ?
+                properties.getArgon2BenchmarkThreads() : Runtime.getRuntime().availableProcessors();
+        long firstStart = System.nanoTime();
+        passwordEncoder.encode("first-hash");
+        double firstMillis = (System.nanoTime() - firstStart) / 1_000_000.0;
+
+        AtomicLong hashes = new AtomicLong();
+        long start = System.nanoTime(), deadline = start + properties.getArgon2Benchmark().toNanos();
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            int worker = i;
+            Thread thread = new Thread(() -> {
+                for (long n = 0; System.nanoTime() < deadline; n++) {
+                    passwordEncoder.encode("benchmark-" + worker + "-" + n);
+                    hashes.incrementAndGet();
+                }
+            }, "passgen-argon2-benchmark-" + i);
+            thread.start();
+            workers.add(thread);
+        }
+        for (Thread thread: workers) thread.join();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        log.info("Argon2 throughput: mode={} threads={} first-hash-ms={} hashes={} hashes-per-second={}",
+                System.getProperty("org.graalvm.nativeimage.imagecode") != null ? "native" : "jvm", threads,
+                String.format(Locale.ROOT, "%.1f", firstMillis), hashes.get(), String.format(Locale.ROOT, "%.2f", hashes.get() / seconds));
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,45 @@
+package com.exercise.passgen.startup;
+
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.models.schemas.PassphraseGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection and resource hints of a native image that the AOT processing of the application context cannot infer:
+ * the entity (instantiated and populated by Hibernate), the DTOs and their Lombok builders (Jackson, also outside of
+ * controller signatures), the Bouncy Castle Argon2 implementation behind the password encoder and the Flyway migrations.
+ */
+public class PassgenRuntimeHints implements RuntimeHintsRegistrar {
+    private static final String[] ARGON2_TYPES = {
+            "org.bouncycastle.crypto.generators.Argon2BytesGenerator",
+            "org.bouncycastle.crypto.generators.Argon2BytesGenerator$Block",
+            "org.bouncycastle.crypto.generators.Argon2BytesGenerator$FillBlock",
+            "org.bouncycastle.crypto.generators.Argon2BytesGenerator$Position",
+            "org.bouncycastle.crypto.params.Argon2Parameters",
+            "org.bouncycastle.crypto.params.Argon2Parameters$Builder",
+            "org.bouncycastle.crypto.digests.Blake2bDigest"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type: new Class<?>[] {PasswordEntity.class, PasswordEntity.PasswordEntityBuilder.class,
+                PasswordDTO.class, PasswordDTO.PasswordDTOBuilder.class,
+                PasswordGenerationRequestDTO.class, PasswordGenerationRequestDTO.PasswordGenerationRequestDTOBuilder.class,
+                PassphraseGenerationRequestDTO.class, PassphraseGenerationRequestDTO.PassphraseGenerationRequestDTOBuilder.class,
+                PasswordGenerationResponseDTO.class, PasswordGenerationResponseDTO.PasswordGenerationResponseDTOBuilder.class})
+            hints.reflection().registerType(type, MemberCategory.values());
+
+        for (String type: ARGON2_TYPES)
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.DECLARED_FIELDS);
+
+        hints.resources().registerPattern("db/migration/*.sql");
+        hints.resources().registerPattern("wordlists/*.txt");
+    }
+}
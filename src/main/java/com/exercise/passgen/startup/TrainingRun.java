@@ -0,0 +1,39 @@
+package com.exercise.passgen.startup;
+
+import com.exercise.passgen.config.StartupProperties;
+import com.exercise.passgen.services.WarmUp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exits the application once it is ready and the {@link WarmUp} completed ({@code passgen.startup.exit-after-warm-up}).
+ * The JVM dumps the class data sharing archive on exit (see the {@code cds} Maven profile), so it holds every class
+ * loaded by the startup and by the paths exercised by the warm-up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrainingRun {
+    private final StartupProperties properties;
+    private final WarmUp warmUp;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        if (!properties.isExitAfterWarmUp()) return;
+
+        Thread thread = new Thread(() -> {
+            try {
+                while (!warmUp.isComplete()) Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.info("Training run done, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext(), () -> 0));
+        }, "passgen-training-run");
+        thread.start();
+    }
+}
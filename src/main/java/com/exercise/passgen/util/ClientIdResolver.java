@@ -0,0 +1,37 @@
+package com.exercise.passgen.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Resolves an identifier of the client that sent a request. By default it is the remote address, but when the
+ * application runs behind a trusted gateway a header set by the gateway can be used instead
+ * ({@code passgen.client-id-header}).
+ */
+@Component
+public class ClientIdResolver {
+    private final String header;
+
+    public ClientIdResolver(@Value("${passgen.client-id-header:}") String header) {
+        this.header = header;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        return resolve(request::getHeader, request.getRemoteAddr());
+    }
+
+    /**
+     * @param headers header value by name, null when missing
+     */
+    public String resolve(UnaryOperator<String> headers, String remoteAddress) {
+        if (!header.isEmpty()) {
+            String value = headers.apply(header);
+            if (value != null && !value.isBlank()) return value;
+        }
+
+        return remoteAddress;
+    }
+}
@@ -0,0 +1,83 @@
+package com.exercise.passgen.util;
+
+/**
+ * Open addressing (linear probing) set of primitive {@code long} values, meant for short-lived per-request
+ * deduplication where boxing every value into a {@code HashSet<Long>} would dominate.<br>
+ * <b>NOT THREAD SAFE</b>
+ */
+public class LongHashSet {
+    private long[] values;
+    private boolean containsZero;
+    private int size, mask;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3 / 4 <= expectedSize) capacity <<= 1;
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return true if the value was not present yet
+     */
+    public boolean add(long value) {
+        // Zero marks an empty slot, so it is tracked on the side
+        if (value == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size += 1;
+            return true;
+        }
+
+        int slot = mix(value) & mask;
+        while (values[slot] != 0) {
+            if (values[slot] == value) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        values[slot] = value;
+        size += 1;
+        if (size * 4 >= values.length * 3) grow();
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) return containsZero;
+
+        int slot = mix(value) & mask;
+        while (values[slot] != 0) {
+            if (values[slot] == value) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] old = values;
+        values = new long[old.length * 2];
+        mask = values.length - 1;
+
+        for (long value: old) {
+            if (value == 0) continue;
+            int slot = mix(value) & mask;
+            while (values[slot] != 0) slot = (slot + 1) & mask;
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Finalization step of MurmurHash3.
+     */
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+}
@@ -0,0 +1,208 @@
+package com.exercise.passgen.util;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Read-only wordlist backed by a memory-mapped index file. The words live in the page cache, not on the heap - picking
+ * a word is two offset reads and a copy of its bytes, checking a word is a binary search over the sorted words.
+ * <p>
+ * The index is compiled once from a text wordlist ({@link #compile}): one word per line, or diceware lines
+ * ({@code <dice> <word>}), blank lines and {@code #} comments are skipped. Index layout (big endian):
+ * <pre>
+ * int magic, int version, int count, int maxWordBytes, byte[32] SHA-256 of the source
+ * int[count + 1] offsets of the words in the data section
+ * byte[] data - UTF-8 words, deduplicated and sorted by their bytes
+ * </pre>
+ */
+public class Wordlist {
+    private static final int MAGIC = 0x5047574C, VERSION = 1;
+    private static final int DIGEST_BYTES = 32, HEADER_BYTES = 16 + DIGEST_BYTES;
+
+    private final ByteBuffer index;
+    private final int size, maxWordBytes, dataStart;
+
+    private Wordlist(ByteBuffer index) throws IOException {
+        if (index.capacity() < HEADER_BYTES || index.getInt(0) != MAGIC || index.getInt(4) != VERSION)
+            throw new IOException("Not a wordlist index.");
+
+        this.index = index;
+        this.size = index.getInt(8);
+        this.maxWordBytes = index.getInt(12);
+        this.dataStart = HEADER_BYTES + (size + 1) * Integer.BYTES;
+        if (size < 2 || index.capacity() != (long) dataStart + index.getInt(HEADER_BYTES + size * Integer.BYTES))
+            throw new IOException("Wordlist index is corrupted.");
+    }
+
+    /**
+     * Maps a given index file, compiling it from the source first unless it was already compiled from the same source.
+     * @param source text wordlist
+     * @param index index file, replaced atomically when (re)compiled
+     * @param maxWordCharacters longest accepted word
+     * @param separator character that words must not contain
+     */
+    public static Wordlist open(byte[] source, Path index, int maxWordCharacters, char separator) throws IOException {
+        byte[] digest = sha256(source);
+        if (!isCompiledFrom(index, digest)) {
+            Files.createDirectories(index.toAbsolutePath().getParent());
+            Path temporary = Files.createTempFile(index.toAbsolutePath().getParent(), index.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, compile(new ByteArrayInputStream(source), digest, maxWordCharacters, separator));
+                Files.move(temporary, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        return map(index);
+    }
+
+    /**
+     * Maps a compiled index file. The mapping stays valid after the file is closed (or replaced).
+     */
+    public static Wordlist map(Path index) throws IOException {
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            return new Wordlist(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Compiles a text wordlist into an index.
+     * @param digest SHA-256 of the source, stored in the index to detect a changed source
+     * @throws IOException when a word is too long or contains whitespace or the separator, or there are fewer than 2 words
+     */
+    public static byte[] compile(InputStream source, byte[] digest, int maxWordCharacters, char separator) throws IOException {
+        SortedSet<byte[]> words = new TreeSet<>(Arrays::compareUnsigned);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber += 1;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            // Diceware lists prefix every word with its dice rolls
+            String[] tokens = line.split("\\s+");
+            String word = tokens[tokens.length - 1];
+            if (tokens.length > 2 || (tokens.length == 2 && !tokens[0].chars().allMatch(Character::isDigit)))
+                throw new IOException("Line " + lineNumber + " of the wordlist contains more than one word.");
+            if (word.length() > maxWordCharacters)
+                throw new IOException("Word '" + word + "' is longer than " + maxWordCharacters + " characters.");
+            if (word.indexOf(separator) >= 0)
+                throw new IOException("Word '" + word + "' contains the separator '" + separator + "'.");
+
+            words.add(word.getBytes(StandardCharsets.UTF_8));
+        }
+        if (words.size() < 2) throw new IOException("Wordlist has fewer than 2 words.");
+
+        int dataBytes = 0, maxWordBytes = 0;
+        for (byte[] word: words) {
+            dataBytes += word.length;
+            maxWordBytes = Math.max(maxWordBytes, word.length);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + (words.size() + 1) * Integer.BYTES + dataBytes);
+        out.putInt(MAGIC).putInt(VERSION).putInt(words.size()).putInt(maxWordBytes).put(digest);
+        int offset = 0;
+        for (byte[] word: words) {
+            out.putInt(offset);
+            offset += word.length;
+        }
+        out.putInt(offset);
+        for (byte[] word: words) out.put(word);
+        return out.array();
+    }
+
+    private static boolean isCompiledFrom(Path index, byte[] digest) throws IOException {
+        if (!Files.isRegularFile(index) || Files.size(index) < HEADER_BYTES) return false;
+
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0);
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION &&
+                    header.slice(16, DIGEST_BYTES).equals(ByteBuffer.wrap(digest));
+        }
+    }
+
+    public static byte[] sha256(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return length of the longest word in UTF-8 bytes
+     */
+    public int getMaxWordBytes() {
+        return maxWordBytes;
+    }
+
+    public String word(int index) {
+        byte[] bytes = new byte[wordLength(index)];
+        copyWord(index, bytes, 0);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the UTF-8 bytes of a word into a given array.
+     * @return offset right after the copied word
+     */
+    public int copyWord(int index, byte[] target, int offset) {
+        int length = wordLength(index);
+        this.index.get(dataStart + offset(index), target, offset, length);
+        return offset + length;
+    }
+
+    /**
+     * @return index of a given word, negative if it is not in the list
+     */
+    public int indexOf(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        int low = 0, high = size - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(middle, bytes);
+            if (comparison < 0) low = middle + 1;
+            else if (comparison > 0) high = middle - 1;
+            else return middle;
+        }
+        return -(low + 1);
+    }
+
+    private int compare(int index, byte[] word) {
+        int start = dataStart + offset(index), length = wordLength(index);
+        for (int i = 0; i < Math.min(length, word.length); i++) {
+            int comparison = Byte.compareUnsigned(this.index.get(start + i), word[i]);
+            if (comparison != 0) return comparison;
+        }
+        return Integer.compare(length, word.length);
+    }
+
+    private int offset(int index) {
+        Objects.checkIndex(index, size);
+        return this.index.getInt(HEADER_BYTES + index * Integer.BYTES);
+    }
+
+    private int wordLength(int index) {
+        return this.index.getInt(HEADER_BYTES + (index + 1) * Integer.BYTES) - offset(index);
+    }
+}
@@ -0,0 +1,16 @@
+-- Increment has to match the allocationSize of PasswordEntity id generator
+CREATE SEQUENCE password_entity_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE password_entity
+(
+    id                   BIGINT NOT NULL DEFAULT nextval('password_entity_seq'),
+    search_hash          BYTEA,
+    password_hash        VARCHAR(255),
+    complexity           SMALLINT,
+    generation_date_time TIMESTAMP(6),
+    CONSTRAINT pk_password_entity PRIMARY KEY (id),
+    CONSTRAINT uk_password_entity_password_hash UNIQUE (password_hash)
+);
+
+-- Every lookup, deletion and duplicate check goes through findAllBySearchHash
+CREATE INDEX idx_password_entity_search_hash ON password_entity (search_hash);
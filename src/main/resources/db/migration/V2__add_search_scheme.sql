@@ -0,0 +1,6 @@
+-- Existing search hashes were all computed as MD5 of the first third of the password (SearchHashGenerator#LEGACY_SCHEME)
+ALTER TABLE password_entity ADD COLUMN search_scheme VARCHAR(64) NOT NULL DEFAULT 'md5-prefix:0.3333333333333333';
+ALTER TABLE password_entity ALTER COLUMN search_scheme DROP DEFAULT;
+
+-- Counted per scheme to track the progress of a search hash migration
+CREATE INDEX idx_password_entity_search_scheme ON password_entity (search_scheme);
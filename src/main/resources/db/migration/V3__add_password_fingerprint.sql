@@ -0,0 +1,13 @@
+-- Keyed hash of the whole password (see PasswordFingerprinter), NULL for passwords persisted before fingerprints
+-- were introduced until they are fingerprinted on access
+ALTER TABLE password_entity ADD COLUMN fingerprint BYTEA;
+
+-- Target of INSERT ... ON CONFLICT (fingerprint) DO NOTHING, rejects duplicate passwords without any lookups
+CREATE UNIQUE INDEX uk_password_entity_fingerprint ON password_entity (fingerprint);
+
+-- Count of passwords that still have to be checked with lookups
+CREATE INDEX idx_password_entity_fingerprint_missing ON password_entity (id) WHERE fingerprint IS NULL;
+
+-- New passwords are inserted with a single statement taking ids from the column default, Hibernate no longer
+-- allocates them in blocks (allocationSize of PasswordEntity id generator is 1)
+ALTER SEQUENCE password_entity_seq INCREMENT BY 1;
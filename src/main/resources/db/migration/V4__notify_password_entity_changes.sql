@@ -0,0 +1,45 @@
+-- Publishes the search hashes touched by every statement on channel passgen_invalidation (see InvalidationListener),
+-- so that other instances can drop their cached candidate sets. Notifications are delivered when the transaction
+-- commits and identical ones within a transaction are delivered once. Payload: sending time (epoch seconds) followed
+-- by the hex encoded search hashes, split into chunks below the 8000 byte payload limit.
+CREATE FUNCTION notify_password_entity_change() RETURNS trigger AS
+$$
+DECLARE
+    hashes text[];
+    sent   text := extract(EPOCH FROM clock_timestamp())::text;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(DISTINCT encode(search_hash, 'hex')) INTO hashes FROM new_rows;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT array_agg(DISTINCT encode(search_hash, 'hex')) INTO hashes FROM old_rows;
+    ELSE
+        SELECT array_agg(DISTINCT hash) INTO hashes
+        FROM (SELECT encode(search_hash, 'hex') AS hash FROM old_rows
+              UNION
+              SELECT encode(search_hash, 'hex') FROM new_rows) changed;
+    END IF;
+
+    IF hashes IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    -- 200 MD5 search hashes take 6600 characters
+    FOR i IN 1 .. array_length(hashes, 1) BY 200 LOOP
+        PERFORM pg_notify('passgen_invalidation', sent || ';' || array_to_string(hashes[i : i + 199], ','));
+    END LOOP;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- Transition tables are only allowed on single event triggers
+CREATE TRIGGER password_entity_inserted AFTER INSERT ON password_entity
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_password_entity_change();
+
+CREATE TRIGGER password_entity_deleted AFTER DELETE ON password_entity
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_password_entity_change();
+
+CREATE TRIGGER password_entity_updated AFTER UPDATE ON password_entity
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_password_entity_change();
@@ -0,0 +1,7 @@
+-- Scheme (and so the key) of every fingerprint, see PasswordFingerprinter#getScheme. The key of existing fingerprints
+-- was not recorded, they stay NULL until fingerprinted again on access and are checked with every configured key
+-- (passgen.search-hash.fingerprint-key and previous-fingerprint-keys) in the meantime
+ALTER TABLE password_entity ADD COLUMN fingerprint_scheme VARCHAR(64);
+
+-- Counted to track the progress of a fingerprint key rotation
+CREATE INDEX idx_password_entity_fingerprint_scheme ON password_entity (fingerprint_scheme) WHERE fingerprint IS NOT NULL;
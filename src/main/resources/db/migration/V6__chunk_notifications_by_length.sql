@@ -0,0 +1,39 @@
+-- Chunks the change notifications of V4 by their length instead of 200 search hashes each: keyed search hashes can
+-- be up to 256 bits long, and 200 of them (64 hex characters each) exceed the payload limit of pg_notify (less than
+-- 8000 bytes), which failed the statement. The payload format is unchanged.
+CREATE OR REPLACE FUNCTION notify_password_entity_change() RETURNS trigger AS
+$$
+DECLARE
+    hashes   text[];
+    hex_hash text;
+    sent     text := extract(EPOCH FROM clock_timestamp())::text;
+    payload  text := '';
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(DISTINCT encode(search_hash, 'hex')) INTO hashes FROM new_rows;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT array_agg(DISTINCT encode(search_hash, 'hex')) INTO hashes FROM old_rows;
+    ELSE
+        SELECT array_agg(DISTINCT hash) INTO hashes
+        FROM (SELECT encode(search_hash, 'hex') AS hash FROM old_rows
+              UNION
+              SELECT encode(search_hash, 'hex') FROM new_rows) changed;
+    END IF;
+
+    IF hashes IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    FOREACH hex_hash IN ARRAY hashes LOOP
+        -- Sent before the next hash (and its separator) would take the payload to 8000 bytes
+        IF payload <> '' AND octet_length(sent) + 1 + octet_length(payload) + 1 + octet_length(hex_hash) >= 8000 THEN
+            PERFORM pg_notify('passgen_invalidation', sent || ';' || payload);
+            payload := '';
+        END IF;
+        payload := CASE WHEN payload = '' THEN hex_hash ELSE payload || ',' || hex_hash END;
+    END LOOP;
+
+    PERFORM pg_notify('passgen_invalidation', sent || ';' || payload);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,79 @@
+package com.exercise.passgen.Benchmarks;
+
+import com.exercise.passgen.converters.GenerationResponseJsonConverter;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a generation response with {@code amount} passwords of 32 characters:
+ * <ul>
+ *     <li>newMapper - a new {@link ObjectMapper} for every response (what {@code JSONParser} used to do)</li>
+ *     <li>sharedMapper - Jackson data binding with a shared mapper (the default Spring converter)</li>
+ *     <li>streaming - {@link GenerationResponseJsonConverter}</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=GenerationResponseSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationResponseSerializationBenchmark {
+    @Param({"10", "1000"})
+    public int amount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+    private PasswordGenerationResponseDTO response;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> passwords = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            char[] password = new char[32];
+            for (int j = 0; j < password.length; j++) password[j] = (char) random.nextInt('!', '~' + 1);
+            passwords.add(new String(password));
+        }
+
+        response = PasswordGenerationResponseDTO.builder()
+                .passwords(passwords)
+                .duplicates(List.of())
+                .complexity(Complexity.ULTRA)
+                .build();
+    }
+
+    @Benchmark
+    public int newMapper() throws Exception {
+        out.reset();
+        new ObjectMapper().writeValue(out, response);
+        return out.size();
+    }
+
+    @Benchmark
+    public int sharedMapper() throws Exception {
+        out.reset();
+        objectMapper.writeValue(out, response);
+        return out.size();
+    }
+
+    @Benchmark
+    public int streaming() throws Exception {
+        out.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            GenerationResponseJsonConverter.write(response, generator);
+        }
+        return out.size();
+    }
+}
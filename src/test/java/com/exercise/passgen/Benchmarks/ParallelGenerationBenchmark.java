@@ -0,0 +1,56 @@
+package com.exercise.passgen.Benchmarks;
+
+import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.config.GenerationProperties;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.random.BufferedSecureRandomnessProvider;
+import com.exercise.passgen.services.GenerationExecutor;
+import com.exercise.passgen.services.PasswordService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of a batch of the longest passwords split into {@code chunks} parts (1 - generated by the calling thread).
+ * Comparing the results for a given amount shows from which batch size splitting pays off, which is what
+ * {@code passgen.generation.parallel-threshold} should be set to.<br>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ParallelGenerationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelGenerationBenchmark {
+    @Param({"1", "2", "4"})
+    public int chunks;
+
+    @Param({"64", "128", "256", "512", "1000"})
+    public int amount;
+
+    private GenerationExecutor generationExecutor;
+    private PasswordService passwordService;
+
+    @Setup
+    public void setup() throws Exception {
+        GenerationProperties properties = new GenerationProperties();
+        properties.setParallelism(chunks);
+        properties.setParallelThreshold(1);
+        properties.setMinChunkSize(1);
+
+        generationExecutor = new GenerationExecutor(properties);
+        passwordService = PasswordService.forGeneration(new BufferedSecureRandomnessProvider("DRBG", 256, 4096, 1 << 20), generationExecutor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        generationExecutor.destroy();
+    }
+
+    @Benchmark
+    public List<PasswordDTO> generateBatch() throws Exception {
+        return passwordService.generatePasswords(PasswordRules.MAX_CHARACTERS, true, true, true, amount);
+    }
+}
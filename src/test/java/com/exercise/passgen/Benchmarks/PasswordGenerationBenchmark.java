@@ -0,0 +1,61 @@
+package com.exercise.passgen.Benchmarks;
+
+import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.config.GenerationProperties;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.random.BufferedSecureRandomnessProvider;
+import com.exercise.passgen.random.RandomnessProvider;
+import com.exercise.passgen.random.SecureRandomnessProvider;
+import com.exercise.passgen.random.SeededRandomnessProvider;
+import com.exercise.passgen.services.GenerationExecutor;
+import com.exercise.passgen.services.PasswordService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of a full batch of the longest passwords with different randomness sources. The differences between
+ * them are the cost of the randomness source, the rest of the pipeline is identical. Batches are never split here,
+ * see {@link ParallelGenerationBenchmark} for that.<br>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PasswordGenerationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordGenerationBenchmark {
+    @Param({"secure", "buffered", "seeded"})
+    public String randomness;
+
+    @Param({"1", "100", "1000"})
+    public int amount;
+
+    private GenerationExecutor generationExecutor;
+    private PasswordService passwordService;
+
+    @Setup
+    public void setup() throws Exception {
+        RandomnessProvider randomnessProvider = switch (randomness) {
+            case "seeded" -> new SeededRandomnessProvider(42);
+            case "buffered" -> new BufferedSecureRandomnessProvider("DRBG", 256, 4096, 1 << 20);
+            default -> new SecureRandomnessProvider();
+        };
+        GenerationProperties properties = new GenerationProperties();
+        properties.setParallelThreshold(Integer.MAX_VALUE);
+        generationExecutor = new GenerationExecutor(properties);
+        passwordService = PasswordService.forGeneration(randomnessProvider, generationExecutor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        generationExecutor.destroy();
+    }
+
+    @Benchmark
+    public List<PasswordDTO> generateBatch() throws Exception {
+        return passwordService.generatePasswords(PasswordRules.MAX_CHARACTERS, true, true, true, amount);
+    }
+}
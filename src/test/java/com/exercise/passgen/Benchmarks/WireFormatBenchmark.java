@@ -0,0 +1,103 @@
+package com.exercise.passgen.Benchmarks;
+
+import com.exercise.passgen.converters.PassgenWireFormat;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (Jackson, shared mapper) against {@link PassgenWireFormat} for a complexity check response and a generation
+ * response with {@code amount} passwords of 32 characters. Payload sizes are printed during setup.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WireFormatBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+    @Param({"10", "1000"})
+    public int amount;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private PasswordDTO password;
+    private PasswordGenerationResponseDTO response;
+    private byte[] passwordJson, passwordBinary, responseJson, responseBinary;
+
+    @Setup
+    public void setup() throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> passwords = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            char[] chars = new char[32];
+            for (int j = 0; j < chars.length; j++) chars[j] = (char) random.nextInt('!', '~' + 1);
+            passwords.add(new String(chars));
+        }
+
+        password = new PasswordDTO(passwords.get(0), Complexity.ULTRA, LocalDateTime.of(2023, 1, 15, 10, 30, 15, 123456789));
+        response = new PasswordGenerationResponseDTO(passwords, List.of(), Complexity.ULTRA);
+
+        passwordJson = objectMapper.writeValueAsBytes(password);
+        passwordBinary = PassgenWireFormat.encode(password);
+        responseJson = objectMapper.writeValueAsBytes(response);
+        responseBinary = PassgenWireFormat.encode(response);
+
+        System.out.printf("%nPassword: %d B JSON, %d B binary; response of %d: %d B JSON, %d B binary%n",
+                passwordJson.length, passwordBinary.length, amount, responseJson.length, responseBinary.length);
+    }
+
+    @Benchmark
+    public byte[] encodePasswordJson() throws Exception {
+        return objectMapper.writeValueAsBytes(password);
+    }
+
+    @Benchmark
+    public byte[] encodePasswordBinary() {
+        return PassgenWireFormat.encode(password);
+    }
+
+    @Benchmark
+    public PasswordDTO decodePasswordJson() throws Exception {
+        return objectMapper.readValue(passwordJson, PasswordDTO.class);
+    }
+
+    @Benchmark
+    public PasswordDTO decodePasswordBinary() throws Exception {
+        return PassgenWireFormat.decode(passwordBinary, PasswordDTO.class);
+    }
+
+    @Benchmark
+    public byte[] encodeResponseJson() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] encodeResponseBinary() {
+        return PassgenWireFormat.encode(response);
+    }
+
+    @Benchmark
+    public PasswordGenerationResponseDTO decodeResponseJson() throws Exception {
+        return objectMapper.readValue(responseJson, PasswordGenerationResponseDTO.class);
+    }
+
+    @Benchmark
+    public PasswordGenerationResponseDTO decodeResponseBinary() throws Exception {
+        return PassgenWireFormat.decode(responseBinary, PasswordGenerationResponseDTO.class);
+    }
+}
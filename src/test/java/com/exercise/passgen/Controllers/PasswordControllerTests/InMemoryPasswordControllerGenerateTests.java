@@ -0,0 +1,10 @@
+package com.exercise.passgen.Controllers.PasswordControllerTests;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * {@link PasswordControllerGenerateTests} against the in-memory store.
+ */
+@ActiveProfiles("memory")
+public class InMemoryPasswordControllerGenerateTests extends PasswordControllerGenerateTests {
+}
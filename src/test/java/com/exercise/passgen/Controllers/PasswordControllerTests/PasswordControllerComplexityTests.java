@@ -1,5 +1,6 @@
 package com.exercise.passgen.Controllers.PasswordControllerTests;
 
+import com.exercise.passgen.converters.PassgenWireFormat;
 import com.exercise.passgen.enums.Complexity;
 import com.exercise.passgen.models.schemas.PasswordDTO;
 import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
@@ -56,6 +57,40 @@ public class PasswordControllerComplexityTests {
         assertAndGetComplexityCheckResponse("tes7password11222", Complexity.LOW);
     }
 
+    @Test
+    public void successfulBinaryGenerationAndComplexityCheck() throws Exception {
+        PasswordGenerationRequestDTO request = generateGenerationRequest(Complexity.HIGH, 2);
+
+        MvcResult generation = mockMvc.perform(MockMvcRequestBuilders.post(GENERATION_URI)
+                .contentType(PassgenWireFormat.APPLICATION_PROTOBUF).accept(PassgenWireFormat.APPLICATION_PROTOBUF)
+                .content(PassgenWireFormat.encode(request))).andReturn();
+        assertEquals(201, generation.getResponse().getStatus());
+        assertEquals(PassgenWireFormat.APPLICATION_PROTOBUF_VALUE, generation.getResponse().getContentType());
+
+        PasswordGenerationResponseDTO generated = PassgenWireFormat.decode(
+                generation.getResponse().getContentAsByteArray(), PasswordGenerationResponseDTO.class);
+        assertEquals(2, generated.getPasswords().size());
+        assertEquals(Complexity.HIGH, generated.getComplexity());
+
+        for (String password: generated.getPasswords()) {
+            MvcResult check = mockMvc.perform(MockMvcRequestBuilders.post(COMPLEXITY_URI)
+                    .contentType(PassgenWireFormat.APPLICATION_PROTOBUF).accept(PassgenWireFormat.APPLICATION_PROTOBUF)
+                    .content(PassgenWireFormat.encode(password))).andReturn();
+            assertEquals(200, check.getResponse().getStatus());
+
+            PasswordDTO checked = PassgenWireFormat.decode(check.getResponse().getContentAsByteArray(), PasswordDTO.class);
+            assertEquals(password, checked.getPassword());
+            assertEquals(Complexity.HIGH, checked.getComplexity());
+            assertNotNull(checked.getGenerationDateTime());
+        }
+
+        // Clients accepting anything still get JSON
+        MvcResult json = mockMvc.perform(MockMvcRequestBuilders.post(COMPLEXITY_URI)
+                .contentType(PassgenWireFormat.APPLICATION_PROTOBUF).accept(MediaType.ALL)
+                .content(PassgenWireFormat.encode(generated.getPasswords().get(0)))).andReturn();
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, json.getResponse().getContentType());
+    }
+
     private void assertSuccessfulGenerationAndComplexityCheck(Complexity complexity, int batchSize) throws Exception {
         PasswordGenerationRequestDTO request = generateGenerationRequest(complexity, batchSize);
         PasswordGenerationResponseDTO response = assertAndGetGenerationResponse(request, complexity, batchSize);
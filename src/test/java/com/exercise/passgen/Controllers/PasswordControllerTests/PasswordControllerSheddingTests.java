@@ -0,0 +1,38 @@
+package com.exercise.passgen.Controllers.PasswordControllerTests;
+
+import com.exercise.passgen.controllers.PasswordController;
+import com.exercise.passgen.exceptions.ServiceOverloadedException;
+import com.exercise.passgen.models.schemas.PassphraseGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.ratelimit.ConcurrencyLimiter;
+import com.exercise.passgen.ratelimit.RateLimiter;
+import com.exercise.passgen.services.PasswordService;
+import com.exercise.passgen.util.ClientIdResolver;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PasswordControllerSheddingTests {
+
+    @Test
+    public void shedRequestsAreNotCharged() throws Exception {
+        ConcurrencyLimiter concurrencyLimiter = mock(ConcurrencyLimiter.class);
+        when(concurrencyLimiter.acquireGeneration()).thenThrow(new ServiceOverloadedException("Service is overloaded, retry later.", 1));
+        when(concurrencyLimiter.acquireLookup()).thenThrow(new ServiceOverloadedException("Service is overloaded, retry later.", 1));
+        RateLimiter rateLimiter = mock(RateLimiter.class);
+        PasswordController controller = new PasswordController(mock(PasswordService.class), rateLimiter, concurrencyLimiter,
+                new ClientIdResolver(""));
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+
+        assertThrows(ServiceOverloadedException.class, () -> controller.generatePasswords(
+                PasswordGenerationRequestDTO.builder().length(12).lowerCase(true).amount(100).build(), httpRequest));
+        assertThrows(ServiceOverloadedException.class, () -> controller.generatePassphrases(
+                PassphraseGenerationRequestDTO.builder().words(5).amount(100).build(), httpRequest));
+        assertThrows(ServiceOverloadedException.class, () -> controller.checkComplexity("Password123", httpRequest));
+        assertThrows(ServiceOverloadedException.class, () -> controller.deletePassword("Password123", httpRequest));
+
+        verifyNoInteractions(rateLimiter);
+    }
+}
@@ -0,0 +1,50 @@
+package com.exercise.passgen.Converters;
+
+import com.exercise.passgen.converters.GenerationResponseJsonConverter;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.exercise.passgen.util.JSONParser;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GenerationResponseJsonConverterTests {
+    private final GenerationResponseJsonConverter converter = new GenerationResponseJsonConverter(new JsonFactory());
+
+    @Test
+    public void outputMatchesJackson() throws Exception {
+        assertSameAsJackson(PasswordGenerationResponseDTO.builder()
+                .passwords(Arrays.asList("aB3$", "\"quoted\\\"", "ünïcödé"))
+                .duplicates(List.of("dup"))
+                .complexity(Complexity.HIGH)
+                .build());
+
+        assertSameAsJackson(PasswordGenerationResponseDTO.builder()
+                .passwords(new ArrayList<>())
+                .duplicates(null)
+                .complexity(null)
+                .build());
+    }
+
+    @Test
+    public void writesOnlyGenerationResponses() {
+        assertTrue(converter.canWrite(PasswordGenerationResponseDTO.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Object.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(PasswordGenerationResponseDTO.class, MediaType.APPLICATION_JSON));
+    }
+
+    private void assertSameAsJackson(PasswordGenerationResponseDTO response) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(response, MediaType.APPLICATION_JSON, message);
+
+        assertEquals(JSONParser.mapToJson(response), message.getBodyAsString());
+        assertEquals(response, JSONParser.mapFromJson(message.getBodyAsString(), PasswordGenerationResponseDTO.class));
+    }
+}
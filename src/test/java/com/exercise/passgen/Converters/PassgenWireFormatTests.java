@@ -0,0 +1,104 @@
+package com.exercise.passgen.Converters;
+
+import com.exercise.passgen.converters.PassgenWireFormat;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PassgenWireFormatTests {
+
+    @Test
+    public void roundTrips() throws Exception {
+        PasswordGenerationRequestDTO request = PasswordGenerationRequestDTO.builder()
+                .length(17).amount(1000).lowerCase(true).upperCase(false).specialCase(true).build();
+        assertEquals(request, roundTrip(request));
+
+        PasswordGenerationResponseDTO response = new PasswordGenerationResponseDTO(
+                Arrays.asList("aB3$", "", "ünïcödé"), List.of("dup"), Complexity.LOW);
+        assertEquals(response, roundTrip(response));
+
+        PasswordDTO password = new PasswordDTO("!es7PASSWORD!!222", Complexity.ULTRA, LocalDateTime.of(1969, 7, 20, 20, 17, 40, 123456789));
+        assertEquals(password, roundTrip(password));
+
+        PasswordDTO notGenerated = new PasswordDTO("tes7", Complexity.LOW, null);
+        assertEquals(notGenerated, roundTrip(notGenerated));
+
+        assertEquals("p@ss", roundTrip("p@ss"));
+        assertEquals("", roundTrip(""));
+    }
+
+    @Test
+    public void encodesProtobufWireFormat() {
+        // length = 9 (field 1, varint), amount = 300 (field 2, two byte varint), lower_case = true (field 3)
+        PasswordGenerationRequestDTO request = PasswordGenerationRequestDTO.builder().length(9).amount(300).lowerCase(true).build();
+        assertArrayEquals(new byte[]{0x08, 9, 0x10, (byte) 0xAC, 0x02, 0x18, 1}, PassgenWireFormat.encode(request));
+
+        // passwords = ["ab"] (field 1, length delimited), complexity = HIGH (field 3, ordinal + 1)
+        PasswordGenerationResponseDTO response = new PasswordGenerationResponseDTO(List.of("ab"), List.of(), Complexity.HIGH);
+        assertArrayEquals(new byte[]{0x0A, 2, 'a', 'b', 0x18, 2}, PassgenWireFormat.encode(response));
+    }
+
+    @Test
+    public void skipsUnknownFields() throws Exception {
+        byte[] bytes = {
+                0x08, 9,                        // length = 9
+                0x38, (byte) 0x96, 0x01,        // field 7, varint
+                0x42, 2, 'x', 'y',              // field 8, length delimited
+                0x49, 1, 2, 3, 4, 5, 6, 7, 8,   // field 9, fixed64
+                0x55, 1, 2, 3, 4,               // field 10, fixed32
+                0x10, 2                         // amount = 2
+        };
+
+        PasswordGenerationRequestDTO request = PassgenWireFormat.decode(bytes, PasswordGenerationRequestDTO.class);
+        assertEquals(9, request.getLength());
+        assertEquals(2, request.getAmount());
+    }
+
+    @Test
+    public void rejectsMalformedMessages() {
+        // Truncated string, varint and a wrong wire type for a known field
+        assertThrows(IOException.class, () -> PassgenWireFormat.decode(new byte[]{0x0A, 5, 'a'}, String.class));
+        assertThrows(IOException.class, () -> PassgenWireFormat.decode(new byte[]{0x08, (byte) 0x80}, PasswordGenerationRequestDTO.class));
+        assertThrows(IOException.class, () -> PassgenWireFormat.decode(new byte[]{0x0A, 1, 'a'}, PasswordGenerationRequestDTO.class));
+        assertThrows(IOException.class, () -> PassgenWireFormat.decode(new byte[]{0x18, 9}, PasswordGenerationResponseDTO.class));
+    }
+
+    @Test(timeout = 5000)
+    public void rejectsNegativeLengths() {
+        // -11 of an unknown field would move back to the start of the message and loop forever
+        assertThrows(IOException.class, () -> PassgenWireFormat.decode(lengthDelimited(9, -11), String.class));
+        assertThrows(IOException.class, () -> PassgenWireFormat.decode(lengthDelimited(9, -11), PasswordDTO.class));
+        // Of a known string field
+        assertThrows(IOException.class, () -> PassgenWireFormat.decode(lengthDelimited(1, -1), String.class));
+        assertThrows(IOException.class, () -> PassgenWireFormat.decode(lengthDelimited(1, -1), PasswordGenerationResponseDTO.class));
+    }
+
+    /**
+     * @return tag of a length delimited field followed by the length as a (10 byte, if negative) varint, no content
+     */
+    private static byte[] lengthDelimited(int field, long length) {
+        byte[] out = new byte[11];
+        int size = 0;
+        out[size++] = (byte) (field << 3 | 2);
+        while ((length & ~0x7FL) != 0) {
+            out[size++] = (byte) (length & 0x7F | 0x80);
+            length >>>= 7;
+        }
+        out[size++] = (byte) length;
+        return Arrays.copyOf(out, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T message) throws IOException {
+        return PassgenWireFormat.decode(PassgenWireFormat.encode(message), (Class<T>) message.getClass());
+    }
+}
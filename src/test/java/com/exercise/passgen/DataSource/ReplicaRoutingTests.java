@@ -0,0 +1,204 @@
+package com.exercise.passgen.DataSource;
+
+import com.exercise.passgen.datasource.ReadYourWritesTracker;
+import com.exercise.passgen.datasource.ReplicaRoutingContext;
+import com.exercise.passgen.datasource.ReplicaRoutingDataSource;
+import com.exercise.passgen.datasource.ReplicaRoutingInterceptor;
+import com.exercise.passgen.util.ClientIdResolver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingTests {
+    private DataSource primary, firstReplica, secondReplica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly, readWrite;
+
+    @Before
+    public void setUp() throws SQLException {
+        primary = dataSource();
+        firstReplica = dataSource();
+        secondReplica = dataSource();
+
+        // Wired the same way as in ReplicaRoutingConfig
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica)));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+
+        // The lazy proxy reads the connection defaults from a primary connection once, on creation
+        clearInvocations(primary, firstReplica, secondReplica);
+        ReplicaRoutingContext.clear();
+    }
+
+    @After
+    public void clearContext() {
+        ReplicaRoutingContext.clear();
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToReplicas() throws SQLException {
+        query(readOnly);
+        query(readOnly);
+
+        // Round-robin over the replicas, the primary is never asked
+        verify(firstReplica).getConnection();
+        verify(secondReplica).getConnection();
+        verify(primary, never()).getConnection();
+        assertFalse(ReplicaRoutingContext.hasWritten());
+
+        // Only the write operations themselves count as writes, not every read-write connection
+        query(readWrite);
+        verify(primary).getConnection();
+        assertFalse(ReplicaRoutingContext.hasWritten());
+    }
+
+    @Test
+    public void usePrimaryForcesThePrimary() throws SQLException {
+        try (ReplicaRoutingContext.Scope ignored = ReplicaRoutingContext.usePrimary()) {
+            // Scopes nest, closing the inner one keeps the outer one in force
+            try (ReplicaRoutingContext.Scope inner = ReplicaRoutingContext.usePrimary()) {
+                query(readOnly);
+            }
+            query(readOnly);
+        }
+        verify(primary, times(2)).getConnection();
+        verifyNoInteractions(firstReplica, secondReplica);
+
+        assertFalse(ReplicaRoutingContext.isPrimaryForced());
+        query(readOnly);
+        verify(firstReplica).getConnection();
+    }
+
+    @Test
+    public void readsWithinTheWindowAfterAWriteStayOnThePrimary() throws Exception {
+        ReplicaRoutingInterceptor interceptor = new ReplicaRoutingInterceptor(
+                new ReadYourWritesTracker(Duration.ofMinutes(1)), new ClientIdResolver(""));
+
+        // A request that only reads through a read-write connection does not pin the client
+        handle(interceptor, "10.0.0.1", () -> query(readWrite));
+        handle(interceptor, "10.0.0.1", () -> query(readOnly));
+        verify(firstReplica).getConnection();
+        clearInvocations(primary, firstReplica, secondReplica);
+
+        // A request of the client writes
+        handle(interceptor, "10.0.0.1", this::write);
+
+        // Its next read is pinned to the primary, reads of other clients are not
+        handle(interceptor, "10.0.0.1", () -> query(readOnly));
+        verify(primary, times(2)).getConnection();
+        verifyNoInteractions(firstReplica, secondReplica);
+
+        handle(interceptor, "10.0.0.2", () -> query(readOnly));
+        verify(secondReplica).getConnection();
+    }
+
+    @Test
+    public void callsOutsideRequestsAreTrackedToo() throws SQLException {
+        // The way the gRPC service handles its calls, on whichever thread they arrive
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+        tracker.begin("10.0.0.1");
+        write();
+        tracker.end("10.0.0.1");
+        assertFalse(ReplicaRoutingContext.hasWritten());
+
+        tracker.begin("10.0.0.1");
+        query(readOnly);
+        tracker.end("10.0.0.1");
+        verify(primary, times(2)).getConnection();
+        verifyNoInteractions(firstReplica, secondReplica);
+        assertFalse(ReplicaRoutingContext.isPrimaryForced());
+    }
+
+    @Test
+    public void readsAfterTheWindowGoToReplicas() throws Exception {
+        ReplicaRoutingInterceptor interceptor = new ReplicaRoutingInterceptor(
+                new ReadYourWritesTracker(Duration.ofMillis(10)), new ClientIdResolver(""));
+
+        handle(interceptor, "10.0.0.1", this::write);
+        Thread.sleep(50);
+        handle(interceptor, "10.0.0.1", () -> query(readOnly));
+
+        verify(primary).getConnection();
+        verify(firstReplica).getConnection();
+    }
+
+    @Test
+    public void contextIsClearedAfterTheCall() throws Exception {
+        ReplicaRoutingInterceptor interceptor = new ReplicaRoutingInterceptor(
+                new ReadYourWritesTracker(Duration.ofMinutes(1)), new ClientIdResolver(""));
+
+        handle(interceptor, "10.0.0.1", this::write);
+        handle(interceptor, "10.0.0.1", () -> assertTrue(ReplicaRoutingContext.isPrimaryForced()));
+        assertFalse(ReplicaRoutingContext.isPrimaryForced());
+        assertFalse(ReplicaRoutingContext.hasWritten());
+
+        // Cleared even when the handler fails
+        MockHttpServletRequest request = request("10.0.0.1");
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        write();
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), new IllegalStateException());
+        assertFalse(ReplicaRoutingContext.isPrimaryForced());
+        assertFalse(ReplicaRoutingContext.hasWritten());
+
+        // Hints left on a pooled thread by something else do not leak into the next request
+        ReplicaRoutingContext.usePrimary();
+        handle(interceptor, "10.0.0.3", () -> assertFalse(ReplicaRoutingContext.isPrimaryForced()));
+    }
+
+    /**
+     * A write operation, which marks itself (see PasswordService)
+     */
+    private void write() {
+        query(readWrite);
+        ReplicaRoutingContext.markWrite();
+    }
+
+    private void query(TransactionTemplate transaction) {
+        transaction.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Object>) Connection::createStatement));
+    }
+
+    private static void handle(ReplicaRoutingInterceptor interceptor, String client, Runnable handler) throws Exception {
+        MockHttpServletRequest request = request(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        handler.run();
+        interceptor.afterCompletion(request, response, new Object(), null);
+    }
+
+    private static MockHttpServletRequest request(String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(client);
+        return request;
+    }
+
+    private static DataSource dataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            when(connection.getAutoCommit()).thenReturn(true);
+            return connection;
+        });
+        return dataSource;
+    }
+}
@@ -0,0 +1,98 @@
+package com.exercise.passgen.DataSource;
+
+import com.exercise.passgen.datasource.Database;
+import com.exercise.passgen.datasource.WriterLock;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WriterLockTests {
+    // A database no application context of the other tests holds the lock of
+    private static final Database DATABASE = new Database("shard-3", "jdbc:postgresql://localhost:5432/passgen_shard3", "postgres", "s$cret");
+
+    private final List<WriterLock> locks = new ArrayList<>();
+
+    @After
+    public void tearDown() throws InterruptedException {
+        for (WriterLock lock: locks) lock.stop();
+    }
+
+    @Test
+    public void writeBehindRequiresBeingTheOnlyWriter() throws Exception {
+        WriterLock writer = start(WriterLock.Mode.SHARED);
+        start(WriterLock.Mode.SHARED);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> start(WriterLock.Mode.EXCLUSIVE));
+        assertTrue(e.getMessage().contains("write-behind requires being its only writer"));
+        writer.checkHeld();
+
+        for (WriterLock lock: locks) lock.stop();
+        locks.clear();
+        start(WriterLock.Mode.EXCLUSIVE);
+        assertThrows(IllegalStateException.class, () -> start(WriterLock.Mode.SHARED));
+        assertThrows(IllegalStateException.class, () -> start(WriterLock.Mode.EXCLUSIVE));
+    }
+
+    @Test
+    public void lostLockRefusesWritesUntilHeldAgain() throws Exception {
+        WriterLock lock = start(WriterLock.Mode.EXCLUSIVE);
+
+        try (Connection connection = DriverManager.getConnection(DATABASE.url(), DATABASE.username(), DATABASE.password());
+             Statement statement = connection.createStatement()) {
+            // Another writer takes over as soon as the connection is gone, so the lock cannot be reacquired
+            takeOver(statement);
+            awaitHeld(lock, false);
+            assertThrows(IllegalStateException.class, lock::checkHeld);
+
+            statement.execute("SELECT pg_advisory_unlock_shared(" + WriterLock.KEY + ")");
+            awaitHeld(lock, true);
+        }
+        assertThrows(IllegalStateException.class, () -> start(WriterLock.Mode.SHARED));
+    }
+
+    private WriterLock start(WriterLock.Mode mode) throws SQLException {
+        WriterLock lock = new WriterLock(List.of(DATABASE), mode, Duration.ofMillis(100));
+        lock.start();
+        locks.add(lock);
+        return lock;
+    }
+
+    private static void takeOver(Statement statement) throws SQLException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            statement.execute("SELECT pg_terminate_backend(pid) FROM pg_locks WHERE locktype = 'advisory' AND pid <> pg_backend_pid()");
+            Thread.sleep(20);
+            try (ResultSet resultSet = statement.executeQuery("SELECT pg_try_advisory_lock_shared(" + WriterLock.KEY + ")")) {
+                if (resultSet.next() && resultSet.getBoolean(1)) return;
+            }
+            assertTrue("Writer lock could not be taken over", System.currentTimeMillis() < deadline);
+        }
+    }
+
+    private static void awaitHeld(WriterLock lock, boolean held) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (isHeld(lock) != held) {
+            assertTrue("Writer lock still " + (held ? "lost" : "held"), System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static boolean isHeld(WriterLock lock) {
+        try {
+            lock.checkHeld();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+}
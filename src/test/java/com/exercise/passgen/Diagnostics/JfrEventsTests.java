@@ -0,0 +1,112 @@
+package com.exercise.passgen.Diagnostics;
+
+import com.exercise.passgen.actuator.JfrEndpoint;
+import com.exercise.passgen.diagnostics.GenerationEvent;
+import com.exercise.passgen.services.PasswordService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("memory")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class JfrEventsTests {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Autowired
+    PasswordService passwordService;
+
+    @Autowired
+    JfrEndpoint jfrEndpoint;
+
+    @Test
+    public void hotPathsEmitEvents() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("recording.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(GenerationEvent.class).withoutThreshold();
+            recording.start();
+
+            String password = passwordService.generateUniquePasswords(10, true, true, false, 3).getPasswords().get(0);
+            assertNotNull(passwordService.getPasswordDTO(password));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+        RecordedEvent generation = events.get("com.exercise.passgen.Generation").get(0);
+        assertEquals("password", generation.getString("kind"));
+        assertEquals(3, generation.getInt("amount"));
+        assertEquals(10, generation.getInt("size"));
+
+        List<RecordedEvent> hashEncodes = events.get("com.exercise.passgen.HashEncode");
+        assertEquals(1, hashEncodes.size());
+        assertEquals(3, hashEncodes.get(0).getInt("passwords"));
+
+        RecordedEvent verification = events.get("com.exercise.passgen.Verification").get(0);
+        assertTrue(verification.getBoolean("matched"));
+        assertTrue(verification.getInt("candidates") >= 1);
+
+        Map<String, RecordedEvent> repositoryCalls = events.get("com.exercise.passgen.RepositoryCall").stream()
+                .collect(Collectors.toMap(event -> event.getString("operation"), Function.identity(), (first, second) -> first));
+        assertEquals(3, repositoryCalls.get("insertUnique").getInt("entities"));
+        assertTrue(repositoryCalls.containsKey("findAllBySearchHash"));
+    }
+
+    @Test
+    public void endpointReturnsBoundedRecording() throws Exception {
+        assertEquals("NONE", jfrEndpoint.status().getState());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, jfrEndpoint.stop().getStatus());
+
+        WebEndpointResponse<JfrEndpoint.Status> started = jfrEndpoint.start(Duration.ofHours(1), "default");
+        assertEquals(WebEndpointResponse.STATUS_OK, started.getStatus());
+        assertEquals("RUNNING", started.getBody().getState());
+        // Capped by passgen.jfr.max-duration
+        assertEquals(Duration.ofMinutes(10), started.getBody().getDuration());
+        // Only one recording at a time
+        assertEquals(409, jfrEndpoint.start(null, null).getStatus());
+
+        passwordService.generatePasswords(12, true, true, true, 10);
+
+        WebEndpointResponse<Resource> stopped = jfrEndpoint.stop();
+        assertEquals(WebEndpointResponse.STATUS_OK, stopped.getStatus());
+        Path file = stopped.getBody().getFile().toPath();
+        Path copy = temporaryFolder.getRoot().toPath().resolve("copy.jfr");
+        try (InputStream in = stopped.getBody().getInputStream()) {
+            Files.copy(in, copy);
+        }
+        // Sent once, then deleted
+        assertFalse(Files.exists(file));
+        assertFalse(RecordingFile.readAllEvents(copy).isEmpty());
+        assertEquals("NONE", jfrEndpoint.status().getState());
+
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, jfrEndpoint.start(null, "no-such-settings").getStatus());
+    }
+}
@@ -0,0 +1,173 @@
+package com.exercise.passgen.Grpc;
+
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.grpc.ClientIdInterceptor;
+import com.exercise.passgen.grpc.PasswordGrpcService;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import io.grpc.*;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "passgen.grpc.generate-batch-size=40",
+        "passgen.rate-limit.capacity=30",
+        "passgen.rate-limit.refill-per-second=1",
+        "passgen.client-id-header=X-Client-Id"
+})
+@ActiveProfiles("memory")
+public class PasswordGrpcServiceTests {
+    @Autowired
+    PasswordGrpcService passwordGrpcService;
+    @Autowired
+    ClientIdInterceptor clientIdInterceptor;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @Before
+    public void startServer() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(passwordGrpcService, clientIdInterceptor))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void generateStreamsBatches() {
+        List<PasswordGenerationResponseDTO> batches = generate("generator", request(Complexity.HIGH, 100));
+
+        assertEquals(List.of(40, 40, 20), batches.stream().map(batch -> batch.getPasswords().size()).toList());
+        Set<String> passwords = new HashSet<>();
+        for (PasswordGenerationResponseDTO batch: batches) {
+            assertEquals(Complexity.HIGH, batch.getComplexity());
+            passwords.addAll(batch.getPasswords());
+        }
+        assertEquals(100, passwords.size());
+    }
+
+    @Test
+    public void checkComplexityAnswersInOrder() throws Exception {
+        List<String> passwords = new ArrayList<>(generate("checker", request(Complexity.ULTRA, 5)).get(0).getPasswords());
+        passwords.add("tes7password11222");
+
+        List<PasswordDTO> answers = checkComplexity("checker", passwords);
+
+        assertEquals(passwords, answers.stream().map(PasswordDTO::getPassword).toList());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Complexity.ULTRA, answers.get(i).getComplexity());
+            assertNotNull(answers.get(i).getGenerationDateTime());
+        }
+        assertEquals(Complexity.LOW, answers.get(5).getComplexity());
+        assertNull(answers.get(5).getGenerationDateTime());
+    }
+
+    @Test
+    public void invalidRequestsEndTheCall() {
+        PasswordGenerationRequestDTO tooShort = PasswordGenerationRequestDTO.builder().length(2).lowerCase(true).amount(1).build();
+        StatusRuntimeException generateError = assertThrows(StatusRuntimeException.class, () -> generate("invalid", tooShort));
+        assertEquals(Status.Code.INVALID_ARGUMENT, generateError.getStatus().getCode());
+
+        Exception checkError = assertThrows(Exception.class, () -> checkComplexity("invalid", List.of("tes7password", "ab", "tes7")));
+        Status status = Status.fromThrowable(checkError);
+        assertEquals(Status.Code.INVALID_ARGUMENT, status.getCode());
+        assertTrue(status.getDescription().startsWith("Password #2: "));
+    }
+
+    @Test
+    public void rateLimitedPerClient() {
+        // A single request never costs more than the bucket capacity, the whole bucket is used up though
+        assertEquals(1, generate("greedy", request(Complexity.LOW, 30)).size());
+
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class, () -> generate("greedy", request(Complexity.LOW, 10)));
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, error.getStatus().getCode());
+        assertNotNull(error.getTrailers().get(PasswordGrpcService.RETRY_AFTER));
+
+        // Other clients have their own budget
+        assertEquals(1, generate("modest", request(Complexity.LOW, 10)).size());
+    }
+
+    private List<PasswordGenerationResponseDTO> generate(String clientId, PasswordGenerationRequestDTO request) {
+        List<PasswordGenerationResponseDTO> out = new ArrayList<>();
+        ClientCalls.blockingServerStreamingCall(channelOf(clientId), PasswordGrpcService.GENERATE, CallOptions.DEFAULT, request)
+                .forEachRemaining(out::add);
+        return out;
+    }
+
+    private List<PasswordDTO> checkComplexity(String clientId, List<String> passwords) throws Exception {
+        List<PasswordDTO> out = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<List<PasswordDTO>> completion = new CompletableFuture<>();
+
+        StreamObserver<String> requests = ClientCalls.asyncBidiStreamingCall(
+                channelOf(clientId).newCall(PasswordGrpcService.CHECK_COMPLEXITY, CallOptions.DEFAULT),
+                new StreamObserver<>() {
+                    @Override
+                    public void onNext(PasswordDTO value) {
+                        out.add(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        completion.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completion.complete(out);
+                    }
+                });
+
+        for (String password: passwords) requests.onNext(password);
+        requests.onCompleted();
+
+        try {
+            return completion.get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private Channel channelOf(String clientId) {
+        Metadata headers = new Metadata();
+        headers.put(Metadata.Key.of("X-Client-Id", Metadata.ASCII_STRING_MARSHALLER), clientId);
+        return ClientInterceptors.intercept(channel, MetadataUtils.newAttachHeadersInterceptor(headers));
+    }
+
+    private static PasswordGenerationRequestDTO request(Complexity complexity, int amount) {
+        return PasswordGenerationRequestDTO.builder()
+                .length(complexity.getMINIMUM_CHARACTERS())
+                .lowerCase(true)
+                .upperCase(complexity.REQUIRES_LOWER_AND_UPPER)
+                .specialCase(complexity.REQUIRES_SPECIAL)
+                .amount(amount)
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.exercise.passgen;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * {@link PassgenApplicationTests} with the in-memory store.
+ */
+@ActiveProfiles("memory")
+class InMemoryPassgenApplicationTests extends PassgenApplicationTests {
+}
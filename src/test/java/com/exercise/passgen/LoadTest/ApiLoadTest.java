@@ -0,0 +1,290 @@
+package com.exercise.passgen.LoadTest;
+
+import com.exercise.passgen.PassgenApplication;
+import com.exercise.passgen.LoadTest.LoadTestOptions.Operation;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.exercise.passgen.util.JSONParser;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the REST API: {@code POST /password/generate}, {@code POST /password/complexity} and
+ * {@code DELETE /password} in a configurable mix (see {@link LoadTestOptions}), against an application started
+ * in-process or already running. After a warm-up, latencies of every operation are recorded and reported as
+ * p50/p99/p99.9/max together with the throughput and errors.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--duration=30s --concurrency=8"}.
+ * The in-process application shares the processors with the load generator, for numbers of the application alone
+ * start it separately and pass {@code --url}. An in-process application with a database needs its fingerprint key
+ * ({@code PASSGEN_FINGERPRINT_KEY}), the in-memory store is thrown away afterwards and gets a random one.
+ */
+public class ApiLoadTest {
+    private static final String GENERATE_URI = "/password/generate", PASSWORD_URI = "/password", COMPLEXITY_URI = "/password/complexity";
+    private static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789!@#$%^&*";
+    private static final int KNOWN_PASSWORDS = 10_000;
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final URI base;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, ConcurrentMap<String, LongAdder>> errors = new EnumMap<>(Operation.class);
+    private final List<String> knownPasswords = new ArrayList<>();
+    private final AtomicLong slots = new AtomicLong();
+    private volatile boolean running = true;
+
+    ApiLoadTest(LoadTestOptions options, URI base) {
+        this.options = options;
+        this.base = base;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(options.getTimeout())
+                .executor(Executors.newFixedThreadPool(2))
+                .build();
+
+        operations = options.getMix().keySet().toArray(Operation[]::new);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+
+        for (Operation operation: Operation.values()) {
+            latencies.put(operation, new Recorder(3));
+            errors.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext application = null;
+        URI base;
+
+        if (options.getUrl() == null) {
+            List<String> arguments = new ArrayList<>(List.of(
+                    "--spring.profiles.active=" + options.getProfiles(), "--server.port=0", "--logging.level.root=WARN"));
+            if (System.getenv("PASSGEN_FINGERPRINT_KEY") == null && List.of(options.getProfiles().split(",")).contains("memory"))
+                arguments.add("--passgen.search-hash.fingerprint-key=" + UUID.randomUUID() + UUID.randomUUID());
+
+            application = SpringApplication.run(PassgenApplication.class, arguments.toArray(String[]::new));
+            base = URI.create("http://localhost:" + application.getEnvironment().getProperty("local.server.port"));
+        } else {
+            base = URI.create(options.getUrl());
+        }
+
+        try {
+            String report = new ApiLoadTest(options, base).run();
+            System.out.println(report);
+            if (options.getReport() != null)
+                Files.writeString(Path.of(options.getReport()), report);
+        } finally {
+            if (application != null) application.close();
+        }
+
+        // The HTTP client threads are not daemons
+        System.exit(0);
+    }
+
+    String run() throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.getConcurrency());
+        long start = System.nanoTime();
+        for (int i = 0; i < options.getConcurrency(); i++) {
+            long seed = options.getSeed() + i;
+            workers.execute(() -> work(new SplittableRandom(seed), start));
+        }
+
+        Thread.sleep(options.getWarmup().toMillis());
+        // Interval histograms of the warm-up are dropped
+        for (Recorder recorder: latencies.values()) recorder.getIntervalHistogram();
+        errors.values().forEach(Map::clear);
+
+        long measurementStart = System.nanoTime();
+        Thread.sleep(options.getDuration().toMillis());
+        Map<Operation, Histogram> measured = new EnumMap<>(Operation.class);
+        latencies.forEach((operation, recorder) -> measured.put(operation, recorder.getIntervalHistogram()));
+        Map<Operation, Map<String, Long>> measuredErrors = new EnumMap<>(Operation.class);
+        errors.forEach((operation, counts) -> {
+            Map<String, Long> copy = new TreeMap<>();
+            counts.forEach((kind, count) -> copy.put(kind, count.sum()));
+            measuredErrors.put(operation, copy);
+        });
+        double seconds = (System.nanoTime() - measurementStart) / 1e9;
+
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(options.getTimeout().toMillis() * 2, TimeUnit.MILLISECONDS);
+
+        return report(measured, measuredErrors, seconds);
+    }
+
+    private void work(SplittableRandom random, long start) {
+        long interval = options.getRate() > 0 ? (long) (1e9 / options.getRate()) : 0;
+
+        while (running) {
+            long scheduled = System.nanoTime();
+            if (interval > 0) {
+                // Open workload - every request has its own send time, late sends count towards the latency
+                scheduled = start + slots.getAndIncrement() * interval;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                if (!running) return;
+            }
+
+            Operation operation = pick(random);
+            String outcome;
+            try {
+                outcome = send(operation, random);
+            } catch (IOException e) {
+                outcome = e.getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            latencies.get(operation).recordValue(Math.max(1, (System.nanoTime() - scheduled) / 1000));
+            if (outcome != null)
+                errors.get(operation).computeIfAbsent(outcome, kind -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * @return null on success, otherwise a description of the failure
+     */
+    private String send(Operation operation, SplittableRandom random) throws IOException, InterruptedException {
+        return switch (operation) {
+            case GENERATE -> {
+                boolean lowerCase = random.nextBoolean(), upperCase = random.nextBoolean(), specialCase = random.nextBoolean();
+                PasswordGenerationRequestDTO request = PasswordGenerationRequestDTO.builder()
+                        .length(random.nextInt(options.getMinLength(), options.getMaxLength() + 1))
+                        .amount(random.nextInt(options.getMinAmount(), options.getMaxAmount() + 1))
+                        .lowerCase(lowerCase || (!upperCase && !specialCase))
+                        .upperCase(upperCase)
+                        .specialCase(specialCase)
+                        .build();
+
+                HttpResponse<String> response = client.send(request(GENERATE_URI)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(JSONParser.mapToJson(request)))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 201) yield "HTTP " + response.statusCode();
+
+                remember(JSONParser.mapFromJson(response.body(), PasswordGenerationResponseDTO.class).getPasswords(), random);
+                yield null;
+            }
+            case COMPLEXITY -> {
+                HttpResponse<Void> response = client.send(request(COMPLEXITY_URI)
+                        .header("Content-Type", "text/plain")
+                        .POST(HttpRequest.BodyPublishers.ofString(passwordToCheck(random, false)))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                yield response.statusCode() == 200 ? null : "HTTP " + response.statusCode();
+            }
+            case DELETE -> {
+                HttpResponse<Void> response = client.send(request(PASSWORD_URI)
+                        .header("Content-Type", "text/plain")
+                        .method("DELETE", HttpRequest.BodyPublishers.ofString(passwordToCheck(random, true)))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                yield response.statusCode() == 200 ? null : "HTTP " + response.statusCode();
+            }
+        };
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(options.getTimeout());
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) return operations[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Keeps a bounded sample of generated passwords, newer ones replace random older ones.
+     */
+    private void remember(List<String> passwords, SplittableRandom random) {
+        synchronized (knownPasswords) {
+            for (String password: passwords) {
+                if (knownPasswords.size() < KNOWN_PASSWORDS) knownPasswords.add(password);
+                else knownPasswords.set(random.nextInt(KNOWN_PASSWORDS), password);
+            }
+        }
+    }
+
+    private String passwordToCheck(SplittableRandom random, boolean forget) {
+        if (random.nextDouble() < options.getKnownShare()) {
+            synchronized (knownPasswords) {
+                if (!knownPasswords.isEmpty()) {
+                    int index = random.nextInt(knownPasswords.size());
+                    if (!forget) return knownPasswords.get(index);
+
+                    // Swap with the last one to remove in constant time
+                    String password = knownPasswords.get(index);
+                    knownPasswords.set(index, knownPasswords.get(knownPasswords.size() - 1));
+                    knownPasswords.remove(knownPasswords.size() - 1);
+                    return password;
+                }
+            }
+        }
+
+        char[] password = new char[random.nextInt(options.getMinLength(), options.getMaxLength() + 1)];
+        for (int i = 0; i < password.length; i++) password[i] = CHARACTERS.charAt(random.nextInt(CHARACTERS.length()));
+        return new String(password);
+    }
+
+    private String report(Map<Operation, Histogram> measured, Map<Operation, Map<String, Long>> measuredErrors, double seconds) {
+        StringBuilder out = new StringBuilder();
+        String profiles = options.getProfiles() == null ? "unknown, pass --profiles" : options.getProfiles();
+        out.append(String.format("# Load test report (%s)%n%n", profiles));
+        out.append(String.format("- date: %s, %d processors, Java %s%n", LocalDate.now(),
+                Runtime.getRuntime().availableProcessors(), System.getProperty("java.version")));
+        out.append(String.format("- target: %s, profiles %s%n", options.getUrl() == null ? "in-process" : options.getUrl(), profiles));
+        out.append(String.format("- workload: %s, %d threads, mix %s, warm-up %ss, measured %.1fs%n",
+                options.getRate() > 0 ? "open at " + options.getRate() + " req/s" : "closed",
+                options.getConcurrency(), options.getMix(), options.getWarmup().toSeconds(), seconds));
+        out.append(String.format("- requests: length %d-%d, amount %d-%d, %.0f%% of checks and deletions on generated passwords%n%n",
+                options.getMinLength(), options.getMaxLength(), options.getMinAmount(), options.getMaxAmount(), options.getKnownShare() * 100));
+
+        out.append("| operation | requests | req/s | p50 ms | p99 ms | p99.9 ms | max ms | errors |\n");
+        out.append("|---|---:|---:|---:|---:|---:|---:|---|\n");
+
+        Histogram total = new Histogram(3);
+        for (Operation operation: operations) {
+            Histogram histogram = measured.get(operation);
+            total.add(histogram);
+            out.append(row(operation.name().toLowerCase(), histogram, seconds, measuredErrors.get(operation)));
+        }
+        Map<String, Long> allErrors = new TreeMap<>();
+        measuredErrors.values().forEach(counts -> counts.forEach((kind, count) -> allErrors.merge(kind, count, Long::sum)));
+        out.append(row("**total**", total, seconds, allErrors));
+
+        return out.toString();
+    }
+
+    private static String row(String name, Histogram histogram, double seconds, Map<String, Long> errors) {
+        return String.format("| %s | %d | %.1f | %.2f | %.2f | %.2f | %.2f | %s |%n", name,
+                histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0,
+                errors.isEmpty() ? "-" : errors.toString());
+    }
+}
@@ -0,0 +1,121 @@
+package com.exercise.passgen.LoadTest;
+
+import lombok.Data;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Options of {@link ApiLoadTest}, given as {@code --name=value} arguments.
+ */
+@Data
+public class LoadTestOptions {
+    private static final String IN_PROCESS_PROFILES = "memory,loadtest";
+
+    /**
+     * Base URL of a running application, an application is started in-process when not set.
+     */
+    private String url;
+    /**
+     * Spring profiles of the application, shown in the report header. The in-process application is started with
+     * them ({@value #IN_PROCESS_PROFILES} by default, {@code loadtest} alone runs against the configured PostgreSQL),
+     * a running one is not asked - pass the profiles it was started with.
+     */
+    private String profiles;
+    /**
+     * Relative weights of the operations.
+     */
+    private Map<Operation, Integer> mix = parseMix("generate:1,complexity:8,delete:1");
+    /**
+     * Threads sending requests, each waits for its response before sending another.
+     */
+    private int concurrency = 8;
+    /**
+     * Requests per second of an open workload, 0 for a closed one (every thread sends as fast as it can).
+     * Latencies of an open workload are measured from the scheduled send time, so a stalled server is not hidden
+     * by the threads waiting for it (coordinated omission).
+     */
+    private double rate = 0;
+    private Duration warmup = Duration.ofSeconds(10), duration = Duration.ofSeconds(30), timeout = Duration.ofSeconds(10);
+    /**
+     * Inclusive ranges of generated password lengths and batch sizes.
+     */
+    private int minLength = 8, maxLength = 17, minAmount = 1, maxAmount = 10;
+    /**
+     * Share of complexity checks and deletions that target a previously generated password, the rest uses
+     * random (mostly unknown) passwords.
+     */
+    private double knownShare = 0.5;
+    private long seed = 42;
+    /**
+     * File the report is written to, in addition to the standard output.
+     */
+    private String report;
+
+    public enum Operation {
+        GENERATE, COMPLEXITY, DELETE
+    }
+
+    public static LoadTestOptions parse(String... args) {
+        LoadTestOptions options = new LoadTestOptions();
+
+        for (String arg: args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+
+            String name = arg.substring(2, arg.indexOf('=')), value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "url" -> options.setUrl(value);
+                case "profiles" -> options.setProfiles(value);
+                case "mix" -> options.setMix(parseMix(value));
+                case "concurrency" -> options.setConcurrency(Integer.parseInt(value));
+                case "rate" -> options.setRate(Double.parseDouble(value));
+                case "warmup" -> options.setWarmup(DurationStyle.detectAndParse(value));
+                case "duration" -> options.setDuration(DurationStyle.detectAndParse(value));
+                case "timeout" -> options.setTimeout(DurationStyle.detectAndParse(value));
+                case "length" -> {
+                    int[] range = parseRange(value);
+                    options.setMinLength(range[0]);
+                    options.setMaxLength(range[1]);
+                }
+                case "amount" -> {
+                    int[] range = parseRange(value);
+                    options.setMinAmount(range[0]);
+                    options.setMaxAmount(range[1]);
+                }
+                case "known-share" -> options.setKnownShare(Double.parseDouble(value));
+                case "seed" -> options.setSeed(Long.parseLong(value));
+                case "report" -> options.setReport(value);
+                default -> throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+
+        if (options.getUrl() == null && options.getProfiles() == null)
+            options.setProfiles(IN_PROCESS_PROFILES);
+
+        return options;
+    }
+
+    /**
+     * @param mix comma separated {@code operation:weight} pairs, e.g. {@code generate:1,complexity:8,delete:1}
+     */
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> out = new LinkedHashMap<>();
+        for (String entry: mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            out.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return out;
+    }
+
+    /**
+     * @param range a single number or {@code min-max}
+     */
+    private static int[] parseRange(String range) {
+        String[] parts = range.split("-");
+        int min = Integer.parseInt(parts[0].trim());
+        return new int[]{min, parts.length > 1 ? Integer.parseInt(parts[1].trim()) : min};
+    }
+}
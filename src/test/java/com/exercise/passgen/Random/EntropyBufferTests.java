@@ -0,0 +1,56 @@
+package com.exercise.passgen.Random;
+
+import com.exercise.passgen.random.BufferedSecureRandomnessProvider;
+import com.exercise.passgen.random.EntropyBuffer;
+import org.junit.Test;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+import static org.junit.Assert.*;
+
+public class EntropyBufferTests {
+    @Test
+    public void boundedValuesAreUniform() throws NoSuchAlgorithmException {
+        EntropyBuffer buffer = new EntropyBuffer(SecureRandom.getInstance("DRBG"), 256, 0, new LongAdder(), new LongAdder());
+
+        // 74 is the size of the full alphabet, 256 is not a multiple of it so modulo bias would be visible
+        int bound = 74, samples = 740_000;
+        int[] counts = new int[bound];
+        for (int i = 0; i < samples; i++) counts[buffer.nextInt(bound)] += 1;
+
+        for (int count: counts)
+            assertEquals(samples / bound, count, samples / bound * 0.05);
+    }
+
+    @Test
+    public void bytesAndReseedsAreCounted() throws NoSuchAlgorithmException {
+        LongAdder bytesDrawn = new LongAdder(), reseeds = new LongAdder();
+        SecureRandom drbg = SecureRandom.getInstance("DRBG",
+                DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+        EntropyBuffer buffer = new EntropyBuffer(drbg, 64, 128, bytesDrawn, reseeds);
+
+        // 4 blocks of 64 bytes, reseeded before the 3rd block
+        for (int i = 0; i < 4 * 64 / Long.BYTES; i++) buffer.nextLong();
+
+        assertEquals(256, bytesDrawn.sum());
+        assertEquals(1, reseeds.sum());
+    }
+
+    @Test
+    public void providerGivesEveryThreadItsOwnGenerator() throws Exception {
+        BufferedSecureRandomnessProvider provider = new BufferedSecureRandomnessProvider("DRBG", 256, 4096, 1 << 20);
+
+        RandomGenerator main = provider.batchGenerator();
+        assertSame(main, provider.batchGenerator());
+
+        RandomGenerator[] other = new RandomGenerator[1];
+        Thread thread = new Thread(() -> other[0] = provider.batchGenerator());
+        thread.start();
+        thread.join();
+        assertNotSame(main, other[0]);
+    }
+}
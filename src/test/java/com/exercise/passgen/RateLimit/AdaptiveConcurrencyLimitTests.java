@@ -0,0 +1,55 @@
+package com.exercise.passgen.RateLimit;
+
+import com.exercise.passgen.ratelimit.AdaptiveConcurrencyLimit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    @Test
+    public void rejectsOverLimitUntilReleased() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5, 0.2, 100);
+
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(0, limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        limit.release();
+        assertEquals(2, limit.tryAcquire());
+    }
+
+    @Test
+    public void growsWhileLatencyStaysAtBaseline() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 200; i++) limit.sample(100, limit.getLimit());
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    public void doesNotGrowWhenNotUsed() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 50; i++) limit.sample(100, 1);
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void shrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 2, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 100; i++) limit.sample(100, limit.getLimit());
+        int unloaded = limit.getLimit();
+
+        // Requests queue up, latency is ten times the baseline
+        for (int i = 0; i < 20; i++) limit.sample(1000, limit.getLimit());
+        assertTrue(limit.getLimit() < unloaded / 2);
+        assertTrue(limit.getLimit() >= 2);
+
+        // Back to normal, the limit recovers
+        for (int i = 0; i < 200; i++) limit.sample(100, limit.getLimit());
+        assertEquals(unloaded, limit.getLimit());
+    }
+}
@@ -0,0 +1,89 @@
+package com.exercise.passgen.RateLimit;
+
+import com.exercise.passgen.config.RateLimitProperties;
+import com.exercise.passgen.exceptions.RateLimitExceededException;
+import com.exercise.passgen.ratelimit.RateLimiter;
+import com.exercise.passgen.services.LookupStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTests {
+    private MeterRegistry meterRegistry;
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RateLimitProperties();
+        properties.setCapacity(3);
+        properties.setRefillPerSecond(1);
+        properties.setMaxClients(2);
+        rateLimiter = new RateLimiter(properties, new LookupStatistics(meterRegistry), meterRegistry);
+    }
+
+    @Test
+    public void clientsBeyondTheCapShareTheOverflowBucket() throws RateLimitExceededException {
+        exhaust("client-1");
+        exhaust("client-2");
+        assertEquals(0, overflows(), 0);
+
+        // Every further client id is charged to the same bucket, rotating ids does not multiply the rate
+        for (int i = 0; i < 3; i++)
+            rateLimiter.acquireLookup("rotated-" + i);
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireLookup("rotated-3"));
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireLookup("another"));
+        assertEquals(5, overflows(), 0);
+
+        // Tracked clients keep their own bucket
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireLookup("client-1"));
+        assertEquals(5, overflows(), 0);
+    }
+
+    @Test
+    public void sweepKeepsDrainingBucketsAndFreesIdleOnes() throws Exception {
+        exhaust("client-1");
+        exhaust("client-2");
+
+        // Both buckets are still refilling, nothing can be evicted
+        rateLimiter.evictIdle();
+        rateLimiter.acquireLookup("client-3");
+        assertEquals(1, overflows(), 0);
+
+        properties.setRefillPerSecond(20);
+        rateLimiter = new RateLimiter(properties, new LookupStatistics(meterRegistry), meterRegistry);
+        rateLimiter.acquireLookup("client-1");
+        rateLimiter.acquireLookup("client-2");
+        Thread.sleep(250);
+
+        // Refilled buckets are evicted, their slots go to new clients
+        rateLimiter.evictIdle();
+        exhaust("client-3");
+        exhaust("client-4");
+        assertEquals(1, overflows(), 0);
+        rateLimiter.acquireLookup("client-5");
+        assertEquals(2, overflows(), 0);
+    }
+
+    @Test
+    public void disabledLimiterTracksNothing() throws RateLimitExceededException {
+        properties.setEnabled(false);
+        for (int i = 0; i < 10; i++)
+            rateLimiter.acquireGeneration("client-" + i, 100);
+        assertEquals(0, overflows(), 0);
+    }
+
+    private void exhaust(String clientId) throws RateLimitExceededException {
+        for (int i = 0; i < properties.getCapacity(); i++)
+            rateLimiter.acquireLookup(clientId);
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquireLookup(clientId));
+    }
+
+    private double overflows() {
+        return meterRegistry.get("passgen.rate-limit.overflows").counter().count();
+    }
+}
@@ -0,0 +1,53 @@
+package com.exercise.passgen.RateLimit;
+
+import com.exercise.passgen.ratelimit.TokenBucket;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketTests {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void burstUpToCapacityThenRefill() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 5, now);
+
+        // Starts full
+        assertEquals(0, bucket.tryAcquire(6, now));
+        assertEquals(0, bucket.tryAcquire(4, now));
+
+        // Empty, one token is refilled every 200 ms
+        long wait = bucket.tryAcquire(1, now);
+        assertEquals(SECOND / 5, wait);
+
+        now += wait;
+        assertEquals(0, bucket.tryAcquire(1, now));
+        assertTrue(bucket.tryAcquire(1, now) > 0);
+
+        // Refill does not exceed capacity
+        now += 10 * SECOND;
+        assertTrue(bucket.isFull(now));
+        assertEquals(0, bucket.tryAcquire(10, now));
+        assertTrue(bucket.tryAcquire(1, now) > 0);
+    }
+
+    @Test
+    public void rejectedRequestDoesNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        assertEquals(0, bucket.tryAcquire(8, 0));
+        assertTrue(bucket.tryAcquire(5, 0) > 0);
+        assertEquals(0, bucket.tryAcquire(2, 0));
+    }
+
+    @Test
+    public void costAboveCapacityDrainsWholeBucket() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        assertEquals(0, bucket.tryAcquire(1000, 0));
+        assertEquals(SECOND, bucket.tryAcquire(1, 0));
+    }
+}
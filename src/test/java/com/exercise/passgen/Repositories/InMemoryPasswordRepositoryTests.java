@@ -0,0 +1,132 @@
+package com.exercise.passgen.Repositories;
+
+import com.exercise.passgen.config.InMemoryStoreProperties;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.memory.InMemoryPasswordRepository;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InMemoryPasswordRepositoryTests {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void findSaveAndDeleteBySearchHash() throws IOException {
+        InMemoryPasswordRepository repository = createRepository("");
+
+        // Two entities sharing a search hash and one with a different hash
+        List<PasswordEntity> saved = repository.saveAll(List.of(
+                entity(new byte[]{1, 2, 3}, "hash1"),
+                entity(new byte[]{1, 2, 3}, "hash2"),
+                entity(new byte[]{4, 5, 6}, "hash3")));
+
+        for (PasswordEntity entity: saved)
+            assertNotNull(entity.getId());
+
+        assertEquals(2, repository.findAllBySearchHash(new byte[]{1, 2, 3}).size());
+        assertEquals(1, repository.findAllBySearchHash(new byte[]{4, 5, 6}).size());
+        assertEquals(0, repository.findAllBySearchHash(new byte[]{7, 8, 9}).size());
+
+        repository.delete(saved.get(0));
+        List<PasswordEntity> remaining = repository.findAllBySearchHash(new byte[]{1, 2, 3});
+        assertEquals(1, remaining.size());
+        assertEquals("hash2", remaining.get(0).getPasswordHash());
+    }
+
+    @Test
+    public void manyDistinctSearchHashes() throws IOException {
+        InMemoryPasswordRepository repository = createRepository("");
+        List<PasswordEntity> entities = new ArrayList<>();
+
+        // Forces several index resizes
+        for (int i = 0; i < 5000; i++)
+            entities.add(entity(new byte[]{(byte) (i >> 8), (byte) i}, "hash" + i));
+        repository.saveAll(entities);
+
+        for (int i = 0; i < 5000; i += 2)
+            repository.delete(entities.get(i));
+
+        assertEquals(2500, repository.count());
+        for (int i = 0; i < 5000; i++) {
+            List<PasswordEntity> found = repository.findAllBySearchHash(new byte[]{(byte) (i >> 8), (byte) i});
+            assertEquals(i % 2, found.size());
+        }
+    }
+
+    @Test
+    public void journalReplay() throws IOException {
+        String journal = new File(temporaryFolder.getRoot(), "passwords.journal").getPath();
+
+        InMemoryPasswordRepository repository = createRepository(journal);
+        List<PasswordEntity> saved = repository.saveAll(List.of(
+                entity(new byte[]{1, 2, 3}, "hash1"),
+                entity(new byte[]{4, 5, 6}, "hash2")));
+        repository.delete(saved.get(0));
+        repository.shutdown();
+
+        InMemoryPasswordRepository replayed = createRepository(journal);
+        assertEquals(1, replayed.count());
+        assertEquals(0, replayed.findAllBySearchHash(new byte[]{1, 2, 3}).size());
+
+        PasswordEntity entity = replayed.findAllBySearchHash(new byte[]{4, 5, 6}).get(0);
+        assertEquals(saved.get(1), entity);
+
+        // New ids must not collide with replayed ones
+        PasswordEntity next = replayed.saveAll(List.of(entity(new byte[]{7}, "hash3"))).get(0);
+        assertTrue(next.getId() > entity.getId());
+        replayed.shutdown();
+    }
+
+    @Test
+    public void journalReplayIgnoresTruncatedRecord() throws IOException {
+        File file = new File(temporaryFolder.getRoot(), "passwords.journal");
+
+        InMemoryPasswordRepository repository = createRepository(file.getPath());
+        repository.saveAll(List.of(entity(new byte[]{1, 2, 3}, "hash1")));
+        repository.saveAll(List.of(entity(new byte[]{4, 5, 6}, "hash2")));
+        repository.shutdown();
+
+        // Simulates a crash in the middle of writing the last record
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 5);
+        }
+
+        InMemoryPasswordRepository replayed = createRepository(file.getPath());
+        assertEquals(1, replayed.count());
+        assertEquals(1, replayed.findAllBySearchHash(new byte[]{1, 2, 3}).size());
+
+        replayed.saveAll(List.of(entity(new byte[]{7}, "hash3")));
+        replayed.shutdown();
+
+        assertEquals(2, createRepository(file.getPath()).count());
+    }
+
+    private InMemoryPasswordRepository createRepository(String journal) throws IOException {
+        InMemoryStoreProperties properties = new InMemoryStoreProperties();
+        properties.setJournal(journal);
+
+        InMemoryPasswordRepository repository = new InMemoryPasswordRepository(properties);
+        repository.initialize();
+        return repository;
+    }
+
+    private PasswordEntity entity(byte[] searchHash, String passwordHash) {
+        return PasswordEntity.builder()
+                .searchHash(searchHash)
+                .passwordHash(passwordHash)
+                .complexity(Complexity.MEDIUM)
+                .generationDateTime(LocalDateTime.of(2022, 4, 15, 5, 5, 5, 123456000))
+                .build();
+    }
+}
@@ -0,0 +1,230 @@
+package com.exercise.passgen.Repositories;
+
+import com.exercise.passgen.datasource.InvalidationListener;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.JpaPasswordRepository;
+import com.exercise.passgen.repositories.SearchHashBucketCount;
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the SQL of the default (PostgreSQL) backend - the migrations, the single statement unique insert and the change
+ * notification trigger. Every entity gets a random search hash, fingerprint and scheme, so that the tests can share
+ * the database with other data.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class JpaPasswordRepositoryTests {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    JpaPasswordRepository passwordRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    Flyway flyway;
+
+    private final String scheme = "test:" + UUID.randomUUID();
+    private final List<PasswordEntity> persisted = new ArrayList<>();
+
+    @After
+    public void deletePersisted() {
+        passwordRepository.deleteAll(persisted);
+    }
+
+    @Test
+    public void allMigrationsAreApplied() {
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals("7", flyway.info().current().getVersion().getVersion());
+    }
+
+    @Test
+    public void insertUniqueSkipsTakenFingerprints() {
+        PasswordEntity first = entity(), second = entity();
+        List<PasswordEntity> inserted = insertUnique(List.of(first, second));
+        assertEquals(List.of(first, second), inserted);
+        assertNotNull(first.getId());
+        assertNotNull(second.getId());
+
+        // A fingerprint that is already taken is skipped, the rest keeps its input order
+        PasswordEntity duplicate = entity(), third = entity(), fourth = entity();
+        duplicate.setFingerprint(second.getFingerprint());
+        inserted = insertUnique(List.of(third, duplicate, fourth));
+        assertEquals(List.of(third, fourth), inserted);
+        assertNull(duplicate.getId());
+
+        List<PasswordEntity> found = passwordRepository.findAllBySearchHash(first.getSearchHash());
+        assertEquals(1, found.size());
+        assertEquals(first.getPasswordHash(), found.get(0).getPasswordHash());
+        assertEquals(Complexity.MEDIUM, found.get(0).getComplexity());
+        assertEquals(first.getGenerationDateTime(), found.get(0).getGenerationDateTime());
+        assertEquals(4, passwordRepository.countBySearchScheme(scheme));
+    }
+
+    @Test
+    public void existingFingerprintsAreFound() {
+        PasswordEntity entity = entity();
+        insertUnique(List.of(entity));
+        byte[] missing = randomBytes(16);
+
+        List<byte[]> existing = passwordRepository.findExistingFingerprints(List.of(entity.getFingerprint(), missing));
+        assertEquals(1, existing.size());
+        assertArrayEquals(entity.getFingerprint(), existing.get(0));
+        assertTrue(passwordRepository.findExistingFingerprints(List.of()).isEmpty());
+    }
+
+    @Test
+    public void candidateSetSizesAreCounted() {
+        PasswordEntity first = entity(), second = entity(), single = entity();
+        second.setSearchHash(first.getSearchHash());
+        insertUnique(List.of(first, second, single));
+
+        Map<Long, Long> buckets = new HashMap<>();
+        for (SearchHashBucketCount count: passwordRepository.countSearchHashBuckets())
+            if (scheme.equals(count.getScheme())) buckets.put(count.getSize(), count.getBuckets());
+        assertEquals(Map.of(1L, 1L, 2L, 1L), buckets);
+    }
+
+    @Test
+    public void changesAreNotified() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            listen(connection, true);
+            try {
+                PasswordEntity entity = entity();
+                insertUnique(List.of(entity));
+                assertTrue(awaitNotifiedHashes(connection).contains(HexFormat.of().formatHex(entity.getSearchHash())));
+
+                passwordRepository.deleteById(entity.getId());
+                persisted.remove(entity);
+                assertTrue(awaitNotifiedHashes(connection).contains(HexFormat.of().formatHex(entity.getSearchHash())));
+            } finally {
+                listen(connection, false);
+            }
+        }
+    }
+
+    @Test
+    public void notificationsOfLongSearchHashesStayBelowPayloadLimit() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            listen(connection, true);
+            try {
+                // 256 bit keyed search hashes, 64 hex characters each
+                List<PasswordEntity> entities = new ArrayList<>();
+                Set<String> hashes = new HashSet<>();
+                for (int i = 0; i < 500; i++) {
+                    PasswordEntity entity = entity();
+                    entity.setSearchHash(randomBytes(32));
+                    entities.add(entity);
+                    hashes.add(HexFormat.of().formatHex(entity.getSearchHash()));
+                }
+                assertEquals(500, insertUnique(entities).size());
+
+                List<String> payloads = awaitNotifications(connection);
+                assertTrue(payloads.size() > 1);
+                for (String payload: payloads) assertTrue(payload.length() < 8000);
+                assertTrue(hashesOf(payloads).containsAll(hashes));
+            } finally {
+                listen(connection, false);
+            }
+        }
+    }
+
+    @Test
+    public void identicalNotificationsOfATransactionAreDeliveredOnce() throws Exception {
+        PasswordEntity entity = entity();
+        insertUnique(List.of(entity));
+        String hash = HexFormat.of().formatHex(entity.getSearchHash());
+
+        try (Connection connection = dataSource.getConnection()) {
+            listen(connection, true);
+            try (Connection writer = dataSource.getConnection(); Statement statement = writer.createStatement()) {
+                writer.setAutoCommit(false);
+                for (int i = 0; i < 3; i++)
+                    statement.executeUpdate("UPDATE password_entity SET complexity = complexity WHERE id = " + entity.getId());
+                writer.commit();
+
+                List<String> payloads = awaitNotifications(connection);
+                assertEquals(1, payloads.size());
+                assertEquals(Set.of(hash), hashesOf(payloads));
+            } finally {
+                listen(connection, false);
+            }
+        }
+    }
+
+    private List<PasswordEntity> insertUnique(List<PasswordEntity> entities) {
+        List<PasswordEntity> inserted = passwordRepository.insertUnique(entities);
+        persisted.addAll(inserted);
+        return inserted;
+    }
+
+    private static void listen(Connection connection, boolean listen) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute((listen ? "LISTEN " : "UNLISTEN ") + InvalidationListener.CHANNEL);
+        }
+    }
+
+    /**
+     * @return search hashes of all notifications received within a few seconds of the first one
+     */
+    private static Set<String> awaitNotifiedHashes(Connection connection) throws Exception {
+        return hashesOf(awaitNotifications(connection));
+    }
+
+    /**
+     * @return payloads of all notifications received within a few seconds of the first one
+     */
+    private static List<String> awaitNotifications(Connection connection) throws Exception {
+        List<String> payloads = new ArrayList<>();
+        PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(5000);
+        while (notifications != null && notifications.length > 0) {
+            for (PGNotification notification: notifications) payloads.add(notification.getParameter());
+            notifications = connection.unwrap(PGConnection.class).getNotifications(100);
+        }
+        return payloads;
+    }
+
+    private static Set<String> hashesOf(List<String> payloads) {
+        Set<String> hashes = new HashSet<>();
+        for (String payload: payloads)
+            hashes.addAll(Arrays.asList(payload.substring(payload.indexOf(';') + 1).split(",")));
+        return hashes;
+    }
+
+    private PasswordEntity entity() {
+        return PasswordEntity.builder()
+                .searchHash(randomBytes(16))
+                .searchScheme(scheme)
+                .fingerprint(randomBytes(16))
+                .passwordHash("test-" + HexFormat.of().formatHex(randomBytes(16)))
+                .complexity(Complexity.MEDIUM)
+                .generationDateTime(LocalDateTime.of(2022, 4, 15, 5, 5))
+                .build();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,263 @@
+package com.exercise.passgen.Repositories;
+
+import com.exercise.passgen.config.SearchHashProperties;
+import com.exercise.passgen.config.ShardProperties;
+import com.exercise.passgen.config.ShardingConfig;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.sharded.PasswordShard;
+import com.exercise.passgen.repositories.sharded.Resharder;
+import com.exercise.passgen.repositories.sharded.ShardedPasswordRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ShardedPasswordRepositoryTests {
+    private static final List<String> URLS = List.of(
+            "jdbc:postgresql://localhost:5432/passgen_shard1",
+            "jdbc:postgresql://localhost:5432/passgen_shard2",
+            "jdbc:postgresql://localhost:5432/passgen_shard3");
+
+    private final Random random = new Random(42);
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private final List<PasswordShard> shards = new ArrayList<>();
+    private final List<ShardedPasswordRepository> repositories = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < URLS.size(); i++) {
+            DataSource dataSource = new DriverManagerDataSource(URLS.get(i), "postgres", "s$cret");
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            new JdbcTemplate(dataSource).update("DELETE FROM password_entity");
+            dataSources.add(dataSource);
+            shards.add(new PasswordShard("shard-" + i, dataSource, null));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (ShardedPasswordRepository repository: repositories) repository.destroy();
+        for (DataSource dataSource: dataSources) new JdbcTemplate(dataSource).update("DELETE FROM password_entity");
+    }
+
+    @Test
+    public void insertUniqueStoresEveryEntityInItsShard() {
+        ShardedPasswordRepository repository = createRepository(3);
+        List<PasswordEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 30; i++) entities.add(entity(randomBytes(16), randomBytes(16), "hash" + i));
+        // Same password as the first one, so same search hash and shard
+        entities.add(entity(entities.get(0).getSearchHash(), entities.get(0).getFingerprint(), "duplicate"));
+
+        List<PasswordEntity> inserted = repository.insertUnique(entities);
+        assertEquals(30, inserted.size());
+        assertFalse(inserted.contains(entities.get(30)));
+
+        int[] counts = new int[3];
+        for (PasswordEntity entity: inserted) {
+            int shard = ShardedPasswordRepository.shardOf(entity.getSearchHash(), 3);
+            counts[shard] += 1;
+            for (int i = 0; i < 3; i++)
+                assertEquals(i == shard ? 1 : 0, shards.get(i).findAllBySearchHash(entity.getSearchHash()).size());
+            assertEquals(entity.getPasswordHash(), repository.findAllBySearchHash(entity.getSearchHash()).get(0).getPasswordHash());
+        }
+        for (int count: counts) assertTrue(count > 0);
+
+        // Taken fingerprints are rejected by the unique index of their shard
+        assertEquals(0, repository.insertUnique(List.of(entity(entities.get(5).getSearchHash(), entities.get(5).getFingerprint(), "again"))).size());
+        assertEquals(30, repository.findExistingFingerprints(inserted.stream().map(PasswordEntity::getFingerprint).toList()).size());
+    }
+
+    @Test
+    public void saveRekeyedMovesEntityToItsShard() {
+        ShardedPasswordRepository repository = createRepository(3);
+        PasswordEntity entity = entity(searchHashOf(0, 3), randomBytes(16), "hash");
+        repository.save(entity);
+        assertEquals(1, shards.get(0).findAllBySearchHash(entity.getSearchHash()).size());
+
+        // Re-keyed to another scheme, whose search hash belongs to another shard
+        byte[] oldSearchHash = entity.getSearchHash(), newSearchHash = searchHashOf(2, 3);
+        entity.setSearchHash(newSearchHash);
+        entity.setSearchScheme("rekeyed");
+        repository.saveRekeyed(entity, oldSearchHash);
+
+        assertEquals(0, shards.get(0).findAllBySearchHash(oldSearchHash).size());
+        List<PasswordEntity> found = shards.get(2).findAllBySearchHash(newSearchHash);
+        assertEquals(1, found.size());
+        assertEquals("rekeyed", found.get(0).getSearchScheme());
+        assertEquals(entity.getId(), found.get(0).getId());
+        assertEquals(1, repository.countBySearchScheme("rekeyed"));
+        assertEquals(0, repository.countBySearchScheme("scheme"));
+
+        // Saved again in place, under the id assigned by the new shard
+        entity.setComplexity(Complexity.HIGH);
+        repository.save(entity);
+        assertEquals(Complexity.HIGH, shards.get(2).findAllBySearchHash(newSearchHash).get(0).getComplexity());
+    }
+
+    @Test
+    public void concurrentlyDeletedEntityIsNotStoredAgain() {
+        ShardedPasswordRepository repository = createRepository(3);
+        PasswordEntity entity = entity(searchHashOf(0, 3), randomBytes(16), "hash");
+        repository.save(entity);
+        shards.get(0).delete(entity);
+
+        entity.setComplexity(Complexity.HIGH);
+        repository.save(entity);
+        byte[] oldSearchHash = entity.getSearchHash();
+        entity.setSearchHash(searchHashOf(2, 3));
+        repository.saveRekeyed(entity, oldSearchHash);
+
+        for (PasswordShard shard: shards) assertEquals(0, shard.countBySearchScheme("scheme"));
+    }
+
+    @Test
+    public void failedMoveLeavesEntityInItsShard() {
+        ShardedPasswordRepository repository = createRepository(3);
+        PasswordEntity entity = entity(searchHashOf(0, 3), randomBytes(16), "hash");
+        PasswordEntity other = entity(searchHashOf(2, 3), randomBytes(16), "other");
+        repository.save(entity);
+        repository.save(other);
+
+        // The new fingerprint is taken in the new shard
+        byte[] oldSearchHash = entity.getSearchHash();
+        entity.setSearchHash(other.getSearchHash());
+        entity.setFingerprint(other.getFingerprint());
+        assertThrows(DataIntegrityViolationException.class, () -> repository.saveRekeyed(entity, oldSearchHash));
+
+        List<PasswordEntity> found = shards.get(0).findAllBySearchHash(oldSearchHash);
+        assertEquals(1, found.size());
+        assertEquals("hash", found.get(0).getPasswordHash());
+        assertEquals(1, shards.get(2).findAllBySearchHash(other.getSearchHash()).size());
+    }
+
+    @Test
+    public void reshardMovesEntitiesToAddedShardAndAwayFromRetiredOne() {
+        List<PasswordEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 60; i++) entities.add(entity(randomBytes(16), randomBytes(16), "hash" + i));
+        assertEquals(60, createRepository(2).insertUnique(entities).size());
+
+        // Third shard added: only its entities move, all of them to it
+        int toAdded = 0;
+        for (PasswordEntity entity: entities) {
+            if (ShardedPasswordRepository.shardOf(entity.getSearchHash(), 3) == 2) toAdded += 1;
+        }
+        assertTrue(toAdded > 0);
+        assertEquals(toAdded, new Resharder(shards, List.of(), 7, null).reshard());
+        assertStoredInTheirShards(entities, 3);
+        assertEquals(0, new Resharder(shards, List.of(), 7, null).reshard());
+
+        // Third shard retired again: everything goes back
+        assertEquals(toAdded, new Resharder(shards.subList(0, 2), List.of(shards.get(2)), 7, null).reshard());
+        assertStoredInTheirShards(entities, 2);
+        assertEquals(0, shards.get(2).countBySearchScheme("scheme"));
+    }
+
+    @Test
+    public void shardingRefusesPreviousSearchHashSchemes() {
+        ShardProperties shardProperties = new ShardProperties();
+        SearchHashProperties searchHashProperties = new SearchHashProperties();
+        searchHashProperties.getPrevious().add(new SearchHashProperties.Scheme());
+        ShardingConfig config = new ShardingConfig(new DataSourceProperties(), shardProperties, searchHashProperties, new MockEnvironment());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> config.getShardedPasswordRepository(dataSources.get(0), null));
+        assertTrue(e.getMessage().contains("passgen.search-hash.previous"));
+    }
+    @Test
+    public void searchHashesAreSpreadEvenly() {
+        int[] counts = new int[4];
+
+        // Keyed search hashes can be as short as 3 bytes
+        for (int i = 0; i < 40_000; i++) {
+            byte[] searchHash = new byte[3];
+            random.nextBytes(searchHash);
+            counts[ShardedPasswordRepository.shardOf(searchHash, counts.length)] += 1;
+        }
+
+        for (int count: counts)
+            assertEquals(10_000, count, 500);
+    }
+
+    @Test
+    public void addingShardMovesOnlyToNewShard() {
+        int moved = 0;
+
+        for (int i = 0; i < 40_000; i++) {
+            byte[] searchHash = new byte[16];
+            random.nextBytes(searchHash);
+
+            int before = ShardedPasswordRepository.shardOf(searchHash, 3);
+            int after = ShardedPasswordRepository.shardOf(searchHash, 4);
+            if (before != after) {
+                assertEquals(3, after);
+                moved += 1;
+            }
+        }
+
+        // A quarter of the entities belongs to the fourth shard
+        assertEquals(10_000, moved, 500);
+    }
+
+    @Test
+    public void singleShardTakesEverything() {
+        assertEquals(0, ShardedPasswordRepository.shardOf(new byte[]{1, 2, 3}, 1));
+        assertEquals(0, ShardedPasswordRepository.shardOf(new byte[0], 1));
+    }
+
+    private ShardedPasswordRepository createRepository(int shardCount) {
+        ShardedPasswordRepository repository = new ShardedPasswordRepository(shards.subList(0, shardCount));
+        repositories.add(repository);
+        return repository;
+    }
+
+    private void assertStoredInTheirShards(List<PasswordEntity> entities, int shardCount) {
+        long total = 0;
+        for (int i = 0; i < shardCount; i++) total += shards.get(i).countBySearchScheme("scheme");
+        assertEquals(entities.size(), total);
+
+        for (PasswordEntity entity: entities) {
+            int shard = ShardedPasswordRepository.shardOf(entity.getSearchHash(), shardCount);
+            List<PasswordEntity> found = shards.get(shard).findAllBySearchHash(entity.getSearchHash());
+            assertEquals(1, found.size());
+            assertEquals(entity.getPasswordHash(), found.get(0).getPasswordHash());
+        }
+    }
+
+    private byte[] searchHashOf(int shard, int shardCount) {
+        while (true) {
+            byte[] searchHash = randomBytes(16);
+            if (ShardedPasswordRepository.shardOf(searchHash, shardCount) == shard) return searchHash;
+        }
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static PasswordEntity entity(byte[] searchHash, byte[] fingerprint, String passwordHash) {
+        return PasswordEntity.builder()
+                .searchHash(searchHash)
+                .searchScheme("scheme")
+                .fingerprint(fingerprint)
+                .passwordHash(passwordHash)
+                .complexity(Complexity.MEDIUM)
+                .generationDateTime(LocalDateTime.of(2022, 4, 15, 5, 5, 5))
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.exercise.passgen.Repositories;
+
+import com.exercise.passgen.config.InMemoryStoreProperties;
+import com.exercise.passgen.config.WriteBehindProperties;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.repositories.WriteBehindPasswordRepository;
+import com.exercise.passgen.repositories.memory.InMemoryPasswordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindPasswordRepositoryTests {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void pendingPasswordsAreVisibleAndUnique() throws Exception {
+        InMemoryPasswordRepository store = createStore();
+        WriteBehindPasswordRepository repository = createRepository(store, Duration.ofHours(1));
+
+        assertEquals(1, repository.insertUnique(List.of(entity(new byte[]{1}, new byte[]{10}, "hash1"))).size());
+        assertEquals(0, store.count());
+
+        // Not committed yet, but already visible and taken
+        assertEquals(1, repository.findAllBySearchHash(new byte[]{1}).size());
+        assertEquals(1, repository.findExistingFingerprints(List.of(new byte[]{10}, new byte[]{11})).size());
+        assertEquals(1, repository.countBySearchScheme("scheme"));
+
+        List<PasswordEntity> accepted = repository.insertUnique(List.of(
+                entity(new byte[]{1}, new byte[]{10}, "hash2"),
+                entity(new byte[]{1}, new byte[]{11}, "hash3"),
+                entity(new byte[]{2}, new byte[]{11}, "hash4")));
+        assertEquals(1, accepted.size());
+        assertEquals("hash3", accepted.get(0).getPasswordHash());
+        assertEquals(2, repository.findAllBySearchHash(new byte[]{1}).size());
+    }
+
+    @Test
+    public void committedPasswordsStayUnique() throws Exception {
+        InMemoryPasswordRepository store = createStore();
+        store.insertUnique(List.of(entity(new byte[]{1}, new byte[]{10}, "hash1")));
+        WriteBehindPasswordRepository repository = createRepository(store, Duration.ofMillis(10));
+
+        assertEquals(0, repository.insertUnique(List.of(entity(new byte[]{1}, new byte[]{10}, "hash2"))).size());
+
+        PasswordEntity first = repository.insertUnique(List.of(entity(new byte[]{1}, new byte[]{11}, "hash3"))).get(0);
+        PasswordEntity second = repository.insertUnique(List.of(entity(new byte[]{2}, new byte[]{12}, "hash4"))).get(0);
+        repository.flush();
+
+        assertEquals(3, store.count());
+        assertNotNull(first.getId());
+        assertNotNull(second.getId());
+        assertEquals(2, repository.findAllBySearchHash(new byte[]{1}).size());
+        assertEquals(0, repository.insertUnique(List.of(entity(new byte[]{3}, new byte[]{11}, "hash5"))).size());
+        repository.shutdown();
+    }
+
+    @Test
+    public void deletingPendingPasswordWaitsForCommit() throws Exception {
+        InMemoryPasswordRepository store = createStore();
+        WriteBehindPasswordRepository repository = createRepository(store, Duration.ofMillis(200));
+
+        repository.insertUnique(List.of(entity(new byte[]{1}, new byte[]{10}, "hash1")));
+        repository.delete(repository.findAllBySearchHash(new byte[]{1}).get(0));
+
+        assertEquals(0, store.count());
+        assertEquals(0, repository.findAllBySearchHash(new byte[]{1}).size());
+        repository.shutdown();
+    }
+
+    @Test
+    public void shutdownCommitsQueuedPasswords() throws Exception {
+        InMemoryPasswordRepository store = createStore();
+        WriteBehindPasswordRepository repository = createRepository(store, Duration.ofHours(1));
+
+        repository.insertUnique(List.of(entity(new byte[]{1}, new byte[]{10}, "hash1")));
+        repository.shutdown();
+
+        assertEquals(1, store.count());
+        assertEquals(0, journalDirectory().list().length);
+    }
+
+    @Test
+    public void journaledPasswordsAreCommittedAfterCrash() throws Exception {
+        WriteBehindPasswordRepository crashed = createRepository(createStore(), Duration.ofHours(1));
+        crashed.insertUnique(List.of(
+                entity(new byte[]{1}, new byte[]{10}, "hash1"),
+                entity(new byte[]{2}, new byte[]{11}, "hash2")));
+
+        // The first instance is never shut down, its committer is still waiting for the group to fill
+        InMemoryPasswordRepository store = createStore();
+        WriteBehindPasswordRepository restarted = createRepository(store, Duration.ofHours(1));
+
+        assertEquals(2, store.count());
+        assertEquals("hash2", restarted.findAllBySearchHash(new byte[]{2}).get(0).getPasswordHash());
+        assertEquals(0, restarted.insertUnique(List.of(entity(new byte[]{3}, new byte[]{10}, "hash3"))).size());
+        restarted.shutdown();
+    }
+
+    private InMemoryPasswordRepository createStore() throws Exception {
+        InMemoryPasswordRepository store = new InMemoryPasswordRepository(new InMemoryStoreProperties());
+        store.initialize();
+        return store;
+    }
+
+    private WriteBehindPasswordRepository createRepository(InMemoryPasswordRepository store, Duration maxDelay) throws Exception {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setJournalDirectory(journalDirectory().getPath());
+        properties.setFsync(false);
+        properties.setMaxDelay(maxDelay);
+
+        WriteBehindPasswordRepository repository = new WriteBehindPasswordRepository(store, properties, new SimpleMeterRegistry());
+        repository.initialize();
+        return repository;
+    }
+
+    private File journalDirectory() {
+        return new File(temporaryFolder.getRoot(), "write-behind");
+    }
+
+    private PasswordEntity entity(byte[] searchHash, byte[] fingerprint, String passwordHash) {
+        return PasswordEntity.builder()
+                .searchHash(searchHash)
+                .searchScheme("scheme")
+                .fingerprint(fingerprint)
+                .passwordHash(passwordHash)
+                .complexity(Complexity.MEDIUM)
+                .generationDateTime(LocalDateTime.of(2022, 4, 15, 5, 5, 5, 123456000))
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.exercise.passgen.Security;
+
+import com.exercise.passgen.config.SearchHashProperties;
+import com.exercise.passgen.config.SecurityConfig;
+import com.exercise.passgen.security.PasswordFingerprinter;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PasswordFingerprinterTests {
+    private static final String KEY = "kR8vJ2mQ5xT1zW7nB4cF9hL3dS6gY0pA";
+
+    @Test
+    public void schemeIdentifiesTheKey() throws Exception {
+        PasswordFingerprinter fingerprinter = new PasswordFingerprinter(KEY.getBytes(StandardCharsets.UTF_8));
+        PasswordFingerprinter sameKey = new PasswordFingerprinter(KEY.getBytes(StandardCharsets.UTF_8));
+        PasswordFingerprinter otherKey = new PasswordFingerprinter((KEY + "2").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(16, fingerprinter.fingerprint("password").length);
+        assertTrue(fingerprinter.getScheme().startsWith("hmac-sha256:128:"));
+        assertEquals(fingerprinter.getScheme(), sameKey.getScheme());
+        assertNotEquals(fingerprinter.getScheme(), otherKey.getScheme());
+        assertFalse(fingerprinter.getScheme().contains(KEY));
+    }
+
+    @Test
+    public void startupFailsWithoutAProperKey() {
+        for (String key: List.of("", "   ", "too-short-key", "change-me-change-me-change-me-change-me",
+                "f1ngerpr1nt-s$cret", "f1ngerpr1nt-s$cret-f1ngerpr1nt-s$cret")) {
+            SearchHashProperties properties = new SearchHashProperties();
+            properties.setFingerprintKey(key);
+            assertThrows(key, IllegalStateException.class, () -> new SecurityConfig(properties));
+        }
+    }
+
+    @Test
+    public void previousKeysAreNotValidated() throws Exception {
+        // The old key may well be the placeholder that is being rotated away from
+        SearchHashProperties properties = new SearchHashProperties();
+        properties.setFingerprintKey(KEY);
+        properties.setPreviousFingerprintKeys(List.of("f1ngerpr1nt-s$cret"));
+
+        assertEquals(new PasswordFingerprinter(KEY.getBytes(StandardCharsets.UTF_8)).getScheme(),
+                new SecurityConfig(properties).getPasswordFingerprinter().getScheme());
+    }
+}
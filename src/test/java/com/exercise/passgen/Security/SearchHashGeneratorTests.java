@@ -0,0 +1,92 @@
+package com.exercise.passgen.Security;
+
+import com.exercise.passgen.config.SearchHashProperties;
+import com.exercise.passgen.config.SecurityConfig;
+import com.exercise.passgen.enums.SearchHashScheme;
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+import com.exercise.passgen.security.KeyedSearchHashGenerator;
+import com.exercise.passgen.security.LengthBucketedSearchHashGenerator;
+import com.exercise.passgen.security.PrefixSearchHashGenerator;
+import com.exercise.passgen.security.SearchHashGenerator;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SearchHashGeneratorTests {
+    private static final String KEY = "Zq3xV8nM1bT6wK9rD2fH5jL0pS4gC7yA";
+    @Test
+    public void prefixOfOneThirdIsTheLegacyScheme() throws Exception {
+        SearchHashGenerator generator = new PrefixSearchHashGenerator(1.0 / 3);
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+
+        assertEquals(SearchHashGenerator.LEGACY_SCHEME, generator.getScheme());
+        for (String password: new String[]{"abc", "abcde", "abcdef", "abcdefghi", "abcdefghijklmnopqrstuvwxyz012345"}) {
+            byte[] legacy = md5.digest(password.substring(0, password.length() / 3).getBytes(StandardCharsets.UTF_8));
+            assertArrayEquals(legacy, generator.generateSearchHash(password));
+        }
+    }
+
+    @Test
+    public void keyedHashIsTruncatedToBits() throws NoSuchAlgorithmException, SearchHashGenerationFailureException {
+        KeyedSearchHashGenerator generator = new KeyedSearchHashGenerator("key".getBytes(StandardCharsets.UTF_8), 20);
+
+        byte[] hash = generator.generateSearchHash("password");
+        assertEquals(3, hash.length);
+        assertEquals(0, hash[2] & 0x0f);
+        assertArrayEquals(hash, generator.generateSearchHash("password"));
+
+        // Same password under another key or length is a different scheme
+        KeyedSearchHashGenerator otherKey = new KeyedSearchHashGenerator("other".getBytes(StandardCharsets.UTF_8), 20);
+        KeyedSearchHashGenerator otherBits = new KeyedSearchHashGenerator("key".getBytes(StandardCharsets.UTF_8), 24);
+        assertNotEquals(generator.getScheme(), otherKey.getScheme());
+        assertNotEquals(generator.getScheme(), otherBits.getScheme());
+        assertFalse(generator.getScheme().contains("key"));
+
+        assertThrows(IllegalArgumentException.class, () -> new KeyedSearchHashGenerator(new byte[0], 20));
+    }
+
+    @Test
+    public void keyedSchemeRequiresAProperKey() throws Exception {
+        for (String key: Arrays.asList(null, "", "too-short-key", "change-me-change-me-change-me-change-me")) {
+            SearchHashProperties properties = properties();
+            properties.getScheme().setKey(key);
+            IllegalStateException e = assertThrows(String.valueOf(key), IllegalStateException.class, () -> new SecurityConfig(properties));
+            assertTrue(e.getMessage().startsWith("passgen.search-hash.scheme.key"));
+        }
+
+        // The key of a previous scheme only has to be set
+        SearchHashProperties properties = properties();
+        properties.getScheme().setKey(KEY);
+        SearchHashProperties.Scheme previous = new SearchHashProperties.Scheme();
+        previous.setType(SearchHashScheme.KEYED);
+        properties.getPrevious().add(previous);
+        assertThrows(IllegalStateException.class, () -> new SecurityConfig(properties));
+        previous.setKey("change-me");
+        assertEquals(new KeyedSearchHashGenerator(KEY.getBytes(StandardCharsets.UTF_8), 24).getScheme(),
+                new SecurityConfig(properties).getSearchHashGenerator().getScheme());
+    }
+
+    @Test
+    public void lengthBucketsSeparatePasswordsSharingAPrefix() throws SearchHashGenerationFailureException {
+        SearchHashGenerator prefix = new PrefixSearchHashGenerator(1.0 / 3);
+        SearchHashGenerator bucketed = new LengthBucketedSearchHashGenerator(prefix);
+
+        // "abc" and "abcde" share the 1 character prefix
+        assertArrayEquals(prefix.generateSearchHash("abc"), prefix.generateSearchHash("abcde"));
+        assertFalse(Arrays.equals(bucketed.generateSearchHash("abc"), bucketed.generateSearchHash("abcde")));
+        assertArrayEquals(bucketed.generateSearchHash("abd"), bucketed.generateSearchHash("abc"));
+        assertNotEquals(prefix.getScheme(), bucketed.getScheme());
+    }
+
+    private static SearchHashProperties properties() {
+        SearchHashProperties properties = new SearchHashProperties();
+        properties.getScheme().setType(SearchHashScheme.KEYED);
+        properties.setFingerprintKey("kR8vJ2mQ5xT1zW7nB4cF9hL3dS6gY0pA");
+        return properties;
+    }
+}
@@ -0,0 +1,100 @@
+package com.exercise.passgen.Services;
+
+import com.exercise.passgen.config.CandidateCacheProperties;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.services.CandidateCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CandidateCacheTests {
+    private static final byte[] SEARCH_HASH = {1, 2, 3};
+
+    @Test
+    public void cachesCopiesOfCandidates() {
+        CandidateCache cache = createCache(Duration.ofMinutes(1));
+        PasswordEntity entity = entity();
+
+        cache.put(SEARCH_HASH, List.of(entity), cache.stamp(SEARCH_HASH));
+        entity.setSearchScheme("changed");
+
+        List<PasswordEntity> cached = cache.get(SEARCH_HASH.clone());
+        assertEquals(1, cached.size());
+        assertEquals("scheme", cached.get(0).getSearchScheme());
+
+        // Whatever the caller does with its copy, the next one is unchanged
+        cached.get(0).setSearchScheme("changed");
+        assertEquals("scheme", cache.get(SEARCH_HASH).get(0).getSearchScheme());
+    }
+
+    @Test
+    public void cachesEmptyCandidateSets() {
+        CandidateCache cache = createCache(Duration.ofMinutes(1));
+
+        assertNull(cache.get(SEARCH_HASH));
+        cache.put(SEARCH_HASH, List.of(), cache.stamp(SEARCH_HASH));
+        assertEquals(0, cache.get(SEARCH_HASH).size());
+    }
+
+    @Test
+    public void lookupRacingWithInvalidationIsNotCached() {
+        CandidateCache cache = createCache(Duration.ofMinutes(1));
+
+        // Read before the change, cached after its notification
+        long stamp = cache.stamp(SEARCH_HASH);
+        cache.invalidate(SEARCH_HASH);
+        cache.put(SEARCH_HASH, List.of(), stamp);
+        assertNull(cache.get(SEARCH_HASH));
+
+        cache.put(SEARCH_HASH, List.of(entity()), cache.stamp(SEARCH_HASH));
+        assertEquals(1, cache.get(SEARCH_HASH).size());
+        cache.invalidate(SEARCH_HASH);
+        assertNull(cache.get(SEARCH_HASH));
+    }
+
+    @Test
+    public void bypassedWhileUnavailable() {
+        CandidateCache cache = createCache(Duration.ofMinutes(1));
+        cache.put(SEARCH_HASH, List.of(entity()), cache.stamp(SEARCH_HASH));
+
+        cache.setAvailable(false);
+        assertNull(cache.get(SEARCH_HASH));
+        cache.put(SEARCH_HASH, List.of(entity()), cache.stamp(SEARCH_HASH));
+
+        // Nothing from before or during the outage survives it
+        cache.setAvailable(true);
+        assertNull(cache.get(SEARCH_HASH));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void expiredEntriesAreNotServed() throws InterruptedException {
+        CandidateCache cache = createCache(Duration.ofMillis(20));
+        cache.put(SEARCH_HASH, List.of(entity()), cache.stamp(SEARCH_HASH));
+
+        Thread.sleep(50);
+        assertNull(cache.get(SEARCH_HASH));
+    }
+
+    private CandidateCache createCache(Duration timeToLive) {
+        CandidateCacheProperties properties = new CandidateCacheProperties();
+        properties.setEnabled(true);
+        properties.setTimeToLive(timeToLive);
+        return new CandidateCache(properties, new SimpleMeterRegistry());
+    }
+
+    private PasswordEntity entity() {
+        return PasswordEntity.builder()
+                .id(1L)
+                .searchHash(SEARCH_HASH)
+                .searchScheme("scheme")
+                .passwordHash("hash")
+                .complexity(Complexity.MEDIUM)
+                .build();
+    }
+}
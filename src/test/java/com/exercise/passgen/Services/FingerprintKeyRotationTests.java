@@ -0,0 +1,116 @@
+package com.exercise.passgen.Services;
+
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.security.PasswordFingerprinter;
+import com.exercise.passgen.security.SearchHashGenerator;
+import com.exercise.passgen.services.PasswordService;
+import com.exercise.passgen.services.SearchHashMigration;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "passgen.search-hash.fingerprint-key=" + FingerprintKeyRotationTests.CURRENT_KEY,
+        "passgen.search-hash.previous-fingerprint-keys[0]=" + FingerprintKeyRotationTests.PREVIOUS_KEY,
+        "passgen.search-hash.migration-check-interval=PT1H"
+})
+@ActiveProfiles("memory")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class FingerprintKeyRotationTests {
+    static final String CURRENT_KEY = "rotated-fingerprint-key-0123456789abcdef";
+    static final String PREVIOUS_KEY = "retired-fingerprint-key-0123456789abcdef";
+
+    @Autowired
+    PasswordRepository passwordRepository;
+
+    @Autowired
+    PasswordService passwordService;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    SearchHashGenerator searchHashGenerator;
+
+    @Autowired
+    PasswordFingerprinter passwordFingerprinter;
+
+    @Autowired
+    SearchHashMigration searchHashMigration;
+
+    @Test
+    public void passwordFingerprintedWithPreviousKeyIsNotPersistedAgain() throws Exception {
+        persistWithPreviousKey("rotatedPassword");
+
+        searchHashMigration.checkProgress();
+        assertEquals(1, searchHashMigration.getPreviousFingerprinters().size());
+        assertEquals(1, searchHashMigration.getPreviouslyFingerprinted());
+
+        // The unique index only knows the current key, the previous one catches the duplicate
+        assertEquals(1, passwordService.persistUniquePasswords(List.of(dto("rotatedPassword"))).size());
+        assertEquals(0, passwordService.persistUniquePasswords(List.of(dto("otherPassword"))).size());
+    }
+
+    @Test
+    public void entityIsFingerprintedWithCurrentKeyOnAccess() throws Exception {
+        persistWithPreviousKey("rotatedPassword");
+        searchHashMigration.checkProgress();
+
+        assertNotNull(passwordService.getPasswordDTO("rotatedPassword"));
+
+        PasswordEntity entity = passwordRepository.findAllBySearchHash(searchHashGenerator.generateSearchHash("rotatedPassword")).get(0);
+        assertEquals(passwordFingerprinter.getScheme(), entity.getFingerprintScheme());
+        assertArrayEquals(passwordFingerprinter.fingerprint("rotatedPassword"), entity.getFingerprint());
+
+        // Drained key is no longer checked, the duplicate is still rejected
+        searchHashMigration.checkProgress();
+        assertTrue(searchHashMigration.getPreviousFingerprinters().isEmpty());
+        assertEquals(0, searchHashMigration.getPreviouslyFingerprinted());
+        assertEquals(1, passwordService.persistUniquePasswords(List.of(dto("rotatedPassword"))).size());
+    }
+
+    @Test
+    public void newEntitiesGetTheCurrentKey() throws Exception {
+        passwordService.persistUniquePasswords(List.of(dto("newPassword")));
+
+        PasswordEntity entity = passwordRepository.findAllBySearchHash(searchHashGenerator.generateSearchHash("newPassword")).get(0);
+        assertEquals(passwordFingerprinter.getScheme(), entity.getFingerprintScheme());
+        assertEquals(0, passwordRepository.countFingerprintedByOtherScheme(passwordFingerprinter.getScheme()));
+    }
+
+    private void persistWithPreviousKey(String password) throws Exception {
+        PasswordFingerprinter previous = new PasswordFingerprinter(PREVIOUS_KEY.getBytes(StandardCharsets.UTF_8));
+        passwordRepository.saveAll(List.of(PasswordEntity.builder()
+                .searchHash(searchHashGenerator.generateSearchHash(password))
+                .searchScheme(searchHashGenerator.getScheme())
+                .fingerprint(previous.fingerprint(password))
+                .fingerprintScheme(previous.getScheme())
+                .passwordHash(passwordEncoder.encode(password))
+                .complexity(Complexity.MEDIUM)
+                .generationDateTime(LocalDateTime.of(2020, 4, 15, 5, 5))
+                .build()));
+    }
+
+    private static PasswordDTO dto(String password) {
+        return PasswordDTO.builder()
+                .password(password)
+                .complexity(Complexity.MEDIUM)
+                .generationDateTime(LocalDateTime.of(2020, 4, 15, 5, 5))
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.exercise.passgen.Services;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * {@link PasswordPersistenceTests} against the in-memory store.
+ */
+@ActiveProfiles("memory")
+public class InMemoryPasswordPersistenceTests extends PasswordPersistenceTests {
+}
@@ -0,0 +1,92 @@
+package com.exercise.passgen.Services;
+
+import com.exercise.passgen.config.CoalescingProperties;
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+import com.exercise.passgen.services.LookupCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LookupCoalescerTests {
+    private final LookupCoalescer lookupCoalescer = new LookupCoalescer(new CoalescingProperties(), new SimpleMeterRegistry());
+
+    @Test
+    public void concurrentIdenticalLookupsExecuteOnce() throws Exception {
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> lookupCoalescer.execute("password", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "result";
+                })));
+            }
+
+            // Leader is blocked inside the lookup, wait until all other callers have joined it
+            while (lookupCoalescer.getCoalescingRatio() < (callers - 1) / (double) callers)
+                Thread.sleep(1);
+            release.countDown();
+
+            for (Future<String> result: results)
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Nothing is in flight anymore, so the next lookup executes again
+        assertEquals("next", lookupCoalescer.execute("password", () -> "next"));
+    }
+
+    @Test
+    public void differentKeysAreNotCoalesced() throws SearchHashGenerationFailureException {
+        assertEquals("a", lookupCoalescer.execute("a", () -> "a"));
+        assertEquals("b", lookupCoalescer.execute("b", () -> "b"));
+        assertEquals(0, lookupCoalescer.getCoalescingRatio(), 0);
+    }
+
+    @Test
+    public void exceptionIsPropagatedToAllCallers() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1), release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Object> leader = executor.submit(() -> lookupCoalescer.execute("password", () -> {
+                entered.countDown();
+                await(release);
+                throw new SearchHashGenerationFailureException("failure");
+            }));
+            await(entered);
+
+            Future<Object> follower = executor.submit(() -> lookupCoalescer.execute("password", () -> "unexpected"));
+            while (lookupCoalescer.getCoalescingRatio() == 0) Thread.sleep(1);
+            release.countDown();
+
+            for (Future<Object> result: List.of(leader, follower)) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof SearchHashGenerationFailureException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
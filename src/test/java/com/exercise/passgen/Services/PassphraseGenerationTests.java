@@ -0,0 +1,85 @@
+package com.exercise.passgen.Services;
+
+import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.exceptions.IncorrectWordCountException;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.exercise.passgen.services.PasswordService;
+import com.exercise.passgen.util.Wordlist;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("memory")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class PassphraseGenerationTests {
+    @Autowired
+    PasswordService passwordService;
+
+    @Autowired
+    Wordlist wordlist;
+
+    @Test
+    public void passphrasesConsistOfListedWords() throws Exception {
+        List<PasswordDTO> passphrases = passwordService.generatePassphrases(6, 100);
+
+        assertEquals(100, passphrases.size());
+        for (PasswordDTO passphrase: passphrases) {
+            String[] words = passphrase.getPassword().split("-");
+            assertEquals(6, words.length);
+            for (String word: words) assertTrue(wordlist.indexOf(word) >= 0);
+            assertEquals(Complexity.HIGH, passphrase.getComplexity());
+        }
+    }
+
+    @Test
+    public void passphrasesAreScoredByEntropy() throws Exception {
+        // The default wordlist has about 10.5 bits per word
+        assertEquals(Complexity.LOW, passwordService.getComplexity(passphrase(3)));
+        assertEquals(Complexity.MEDIUM, passwordService.getComplexity(passphrase(4)));
+        assertEquals(Complexity.HIGH, passwordService.getComplexity(passphrase(6)));
+        assertEquals(Complexity.ULTRA, passwordService.getComplexity(passphrase(10)));
+        // Longer than any password, still a passphrase
+        assertEquals(Complexity.ULTRA, passwordService.getComplexity(passphrase(PasswordRules.MAX_WORDS)));
+
+        // Unknown words or too few of them are scored as characters
+        assertEquals(Complexity.LOW, passwordService.getComplexity(wordlist.word(0) + "-" + wordlist.word(1)));
+        assertEquals(Complexity.LOW, passwordService.getComplexity(wordlist.word(0) + "-" + wordlist.word(1) + "-qqqq"));
+    }
+
+    @Test
+    public void wordCountIsChecked() {
+        assertThrows(IncorrectWordCountException.class, () -> passwordService.generatePassphrases(PasswordRules.MIN_WORDS - 1, 1));
+        assertThrows(IncorrectWordCountException.class, () -> passwordService.generateUniquePassphrases(PasswordRules.MAX_WORDS + 1, 1));
+    }
+
+    @Test
+    public void uniquePassphrasesArePersisted() throws Exception {
+        PasswordGenerationResponseDTO response = passwordService.generateUniquePassphrases(5, 20);
+
+        assertEquals(20, response.getPasswords().size());
+        assertEquals(Complexity.MEDIUM, response.getComplexity());
+        for (String passphrase: response.getPasswords()) {
+            PasswordDTO found = passwordService.getPasswordDTO(passphrase);
+            assertNotNull(found);
+            assertEquals(Complexity.MEDIUM, found.getComplexity());
+        }
+    }
+
+    private String passphrase(int words) {
+        StringBuilder out = new StringBuilder(wordlist.word(0));
+        for (int i = 1; i < words; i++) out.append('-').append(wordlist.word(i));
+        return out.toString();
+    }
+}
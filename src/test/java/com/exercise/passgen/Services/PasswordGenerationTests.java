@@ -1,26 +1,47 @@
 package com.exercise.passgen.Services;
 
 import com.exercise.passgen.PasswordRules;
+import com.exercise.passgen.config.GenerationProperties;
 import com.exercise.passgen.enums.Complexity;
 import com.exercise.passgen.exceptions.IncorrectPasswordLengthException;
 import com.exercise.passgen.exceptions.NoCaseException;
 import com.exercise.passgen.exceptions.TooManyPasswordsAtOnceException;
 import com.exercise.passgen.exceptions.UndeterminablePasswordComplexityException;
 import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationRequestDTO;
+import com.exercise.passgen.random.RandomnessProvider;
+import com.exercise.passgen.random.SecureRandomnessProvider;
+import com.exercise.passgen.random.SeededRandomnessProvider;
+import com.exercise.passgen.services.GenerationExecutor;
+import com.exercise.passgen.services.PassphraseGenerator;
 import com.exercise.passgen.services.PasswordService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @RunWith(MockitoJUnitRunner.class)
 public class PasswordGenerationTests {
+    @Spy
+    RandomnessProvider randomnessProvider = new SecureRandomnessProvider();
+
+    @Spy
+    GenerationExecutor generationExecutor = new GenerationExecutor(new GenerationProperties());
+
+    @Mock
+    PassphraseGenerator passphraseGenerator;
+
     @InjectMocks
     PasswordService passwordService;
 
@@ -108,6 +129,85 @@ public class PasswordGenerationTests {
         generateAndAssert(Complexity.LOW, 5, true, false, true);
     }
 
+    @Test
+    public void requestCasesAreUsedAsGiven()
+            throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException {
+        List<PasswordDTO> special = passwordService.generatePasswords(PasswordGenerationRequestDTO.builder()
+                .length(12).amount(20).lowerCase(true).upperCase(false).specialCase(true).build());
+        List<PasswordDTO> upper = passwordService.generatePasswords(PasswordGenerationRequestDTO.builder()
+                .length(12).amount(20).lowerCase(false).upperCase(true).specialCase(false).build());
+
+        assertEquals(20, special.size());
+        for (PasswordDTO password: special)
+            assertTrue(password.getPassword().matches("[a-z0-9]*[^a-zA-Z0-9][^A-Z]*"), password.getPassword());
+        for (PasswordDTO password: upper)
+            assertTrue(password.getPassword().matches("[A-Z0-9]+"), password.getPassword());
+    }
+
+    @Test
+    public void seededGenerationIsReproducible()
+            throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException {
+        List<String> first = passwords(passwordService.generatePasswords(16, true, true, true, 100, new SplittableRandom(42)));
+        List<String> second = passwords(passwordService.generatePasswords(16, true, true, true, 100, new SplittableRandom(42)));
+        List<String> other = passwords(passwordService.generatePasswords(16, true, true, true, 100, new SplittableRandom(43)));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+
+        // Same seed gives the same sequence of batches
+        SeededRandomnessProvider provider = new SeededRandomnessProvider(42), replayed = new SeededRandomnessProvider(42);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(
+                    passwords(passwordService.generatePasswords(8, true, false, true, 10, provider.batchGenerator())),
+                    passwords(passwordService.generatePasswords(8, true, false, true, 10, replayed.batchGenerator())));
+        }
+    }
+
+    @Test
+    public void parallelGenerationIsReproducibleAndComplete()
+            throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException {
+        GenerationProperties properties = new GenerationProperties();
+        properties.setParallelism(4);
+        properties.setParallelThreshold(100);
+        properties.setMinChunkSize(10);
+        GenerationExecutor executor = new GenerationExecutor(properties);
+
+        try {
+            PasswordService parallel = PasswordService.forGeneration(new SecureRandomnessProvider(), executor);
+            assertEquals(4, executor.chunksFor(PasswordRules.MAX_PASSWORDS_AT_ONCE));
+            assertEquals(1, executor.chunksFor(99));
+
+            // Chunks are generated from streams split upfront, so the result does not depend on scheduling
+            List<String> first = passwords(parallel.generatePasswords(17, true, true, true, PasswordRules.MAX_PASSWORDS_AT_ONCE, new SplittableRandom(42)));
+            List<String> second = passwords(parallel.generatePasswords(17, true, true, true, PasswordRules.MAX_PASSWORDS_AT_ONCE, new SplittableRandom(42)));
+            assertEquals(first, second);
+            assertEquals(PasswordRules.MAX_PASSWORDS_AT_ONCE, first.size());
+
+            // Workers draw from their own generators
+            List<PasswordDTO> generated = parallel.generatePasswords(17, true, true, true, PasswordRules.MAX_PASSWORDS_AT_ONCE);
+            assertEquals(PasswordRules.MAX_PASSWORDS_AT_ONCE, generated.size());
+            for (PasswordDTO password: generated) {
+                assertEquals(17, password.getPassword().length());
+                assertEquals(Complexity.ULTRA, password.getComplexity());
+            }
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    public void possiblePasswordsContainEverySelectedCase() {
+        assertEquals(Math.pow(26, 3), PasswordService.countPossiblePasswords(3, true, false, false), 0);
+        // Without passwords made of lowercase only or uppercase only
+        assertEquals(Math.pow(52, 3) - 2 * Math.pow(26, 3), PasswordService.countPossiblePasswords(3, true, true, false), 0);
+        // Sure cases fill the whole password
+        assertEquals(6 * 26 * 26 * 22, PasswordService.countPossiblePasswords(3, true, true, true), 0);
+    }
+
+    private List<String> passwords(List<PasswordDTO> passwords) {
+        return passwords.stream().map(PasswordDTO::getPassword).toList();
+    }
+
     private void generateAndAssert(Complexity expected, int length, boolean lowerCase, boolean upperCase, boolean specialCase)
             throws IncorrectPasswordLengthException, NoCaseException, TooManyPasswordsAtOnceException, UndeterminablePasswordComplexityException {
         List<PasswordDTO> passwords = passwordService.generatePasswords(length, lowerCase, upperCase, specialCase, 1);
@@ -5,6 +5,7 @@ import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
 import com.exercise.passgen.models.schemas.PasswordDTO;
 import com.exercise.passgen.repositories.PasswordRepository;
 import com.exercise.passgen.services.PasswordService;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +32,13 @@ public class PasswordPersistenceTests {
     @Autowired
     PasswordService passwordService;
 
+    @Before
+    public void deleteExamplePasswords() throws SearchHashGenerationFailureException {
+        // The default profile runs against the database, passwords left by a previous run would be duplicates
+        for (String password: List.of("example", "example2", "example3", "example4"))
+            passwordService.deletePassword(password);
+    }
+
     @Test
     public void SuccessfulPasswordBatchPersistence() throws SearchHashGenerationFailureException {
         // First, create and persist the password batch
@@ -0,0 +1,85 @@
+package com.exercise.passgen.Services;
+
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.exercise.passgen.services.PasswordService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "passgen.generation.uniqueness-rounds=3")
+@ActiveProfiles("memory")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class PasswordUniquenessTests {
+    @SpyBean
+    PasswordService passwordService;
+
+    @Test
+    public void rejectedCandidatesAreReplaced() throws Exception {
+        passwordService.persistUniquePasswords(List.of(password("existing")));
+
+        // First round repeats a persisted password and a password of the same batch, the rest is really generated
+        doReturn(List.of(password("existing"), password("newpassw"), password("newpassw")))
+                .doCallRealMethod()
+                .when(passwordService).generatePasswords(anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyInt());
+
+        PasswordGenerationResponseDTO response = passwordService.generateUniquePasswords(8, true, false, false, 3);
+
+        assertEquals(3, response.getPasswords().size());
+        assertEquals(3, new HashSet<>(response.getPasswords()).size());
+        assertTrue(response.getPasswords().contains("newpassw"));
+        assertFalse(response.getPasswords().contains("existing"));
+        assertEquals(Set.of("existing", "newpassw"), new HashSet<>(response.getDuplicates()));
+
+        // Everything returned is persisted
+        for (String password: response.getPasswords())
+            assertNotNull(passwordService.getPasswordDTO(password));
+    }
+
+    @Test
+    public void retriesAreBounded() throws Exception {
+        passwordService.persistUniquePasswords(List.of(password("existing")));
+        doReturn(List.of(password("existing")))
+                .when(passwordService).generatePasswords(anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyInt());
+
+        PasswordGenerationResponseDTO response = passwordService.generateUniquePasswords(8, true, false, false, 1);
+
+        assertEquals(0, response.getPasswords().size());
+        assertEquals(3, response.getDuplicates().size());
+    }
+
+    @Test
+    public void generatedBatchesAreUnique() throws Exception {
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            all.addAll(passwordService.generateUniquePasswords(3, true, false, false, 50).getPasswords());
+
+        assertEquals(150, all.size());
+        assertEquals(150, new HashSet<>(all).size());
+    }
+
+    private PasswordDTO password(String password) {
+        return PasswordDTO.builder()
+                .password(password)
+                .complexity(Complexity.LOW)
+                .generationDateTime(LocalDateTime.of(2020, 4, 15, 5, 5))
+                .build();
+    }
+}
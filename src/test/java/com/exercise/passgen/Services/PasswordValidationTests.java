@@ -3,16 +3,20 @@ package com.exercise.passgen.Services;
 import com.exercise.passgen.enums.Complexity;
 import com.exercise.passgen.exceptions.IncorrectPasswordLengthException;
 import com.exercise.passgen.exceptions.UndeterminablePasswordComplexityException;
+import com.exercise.passgen.services.PassphraseGenerator;
 import com.exercise.passgen.services.PasswordService;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PasswordValidationTests {
+    @Mock
+    PassphraseGenerator passphraseGenerator;
     @InjectMocks
     PasswordService passwordService;
 
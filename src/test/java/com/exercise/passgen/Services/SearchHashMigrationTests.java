@@ -0,0 +1,97 @@
+package com.exercise.passgen.Services;
+
+import com.exercise.passgen.enums.Complexity;
+import com.exercise.passgen.exceptions.SearchHashGenerationFailureException;
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.security.PrefixSearchHashGenerator;
+import com.exercise.passgen.security.SearchHashGenerator;
+import com.exercise.passgen.services.PasswordService;
+import com.exercise.passgen.services.SearchHashMigration;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "passgen.search-hash.scheme.type=keyed",
+        "passgen.search-hash.scheme.key=test-only-search-hash-key-0123456789abcdef",
+        "passgen.search-hash.scheme.bits=16",
+        "passgen.search-hash.previous[0].type=prefix",
+        "passgen.search-hash.migration-check-interval=PT1H"
+})
+@ActiveProfiles("memory")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class SearchHashMigrationTests {
+    @Autowired
+    PasswordRepository passwordRepository;
+
+    @Autowired
+    PasswordService passwordService;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    SearchHashGenerator searchHashGenerator;
+
+    @Autowired
+    SearchHashMigration searchHashMigration;
+
+    @Test
+    public void legacyEntityIsFoundAndRekeyedOnAccess() throws SearchHashGenerationFailureException {
+        SearchHashGenerator legacy = new PrefixSearchHashGenerator(1.0 / 3);
+        passwordRepository.saveAll(List.of(PasswordEntity.builder()
+                .searchHash(legacy.generateSearchHash("legacyPassword"))
+                .searchScheme(SearchHashGenerator.LEGACY_SCHEME)
+                .passwordHash(passwordEncoder.encode("legacyPassword"))
+                .complexity(Complexity.MEDIUM)
+                .generationDateTime(LocalDateTime.of(2020, 4, 15, 5, 5))
+                .build()));
+
+        searchHashMigration.checkProgress();
+        assertEquals(2, searchHashMigration.getLookupGenerators().size());
+        assertEquals(1, searchHashMigration.getRemaining());
+
+        PasswordDTO found = passwordService.getPasswordDTO("legacyPassword");
+        assertNotNull(found);
+        assertEquals(Complexity.MEDIUM, found.getComplexity());
+
+        // Re-keyed with the password verified by the lookup
+        assertEquals(0, passwordRepository.countBySearchScheme(SearchHashGenerator.LEGACY_SCHEME));
+        List<PasswordEntity> rekeyed = passwordRepository.findAllBySearchHash(searchHashGenerator.generateSearchHash("legacyPassword"));
+        assertEquals(1, rekeyed.size());
+        assertEquals(searchHashGenerator.getScheme(), rekeyed.get(0).getSearchScheme());
+
+        // Drained scheme is no longer consulted, the entity is still found
+        searchHashMigration.checkProgress();
+        assertEquals(1, searchHashMigration.getLookupGenerators().size());
+        assertEquals(0, searchHashMigration.getRemaining());
+        assertNotNull(passwordService.getPasswordDTO("legacyPassword"));
+    }
+
+    @Test
+    public void newEntitiesGetTheCurrentScheme() throws SearchHashGenerationFailureException {
+        passwordService.persistUniquePasswords(List.of(PasswordDTO.builder()
+                .password("newPassword")
+                .complexity(Complexity.MEDIUM)
+                .generationDateTime(LocalDateTime.of(2020, 4, 15, 5, 5))
+                .build()));
+
+        assertEquals(1, passwordRepository.countBySearchScheme(searchHashGenerator.getScheme()));
+        assertTrue(searchHashGenerator.getScheme().startsWith("hmac-sha256:16:"));
+        assertNotNull(passwordService.getPasswordDTO("newPassword"));
+        assertNull(passwordService.getPasswordDTO("otherPassword"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.exercise.passgen.Services;
+
+import com.exercise.passgen.actuator.WarmUpHealthIndicator;
+import com.exercise.passgen.config.WarmUpProperties;
+import com.exercise.passgen.repositories.PasswordRepository;
+import com.exercise.passgen.services.WarmUp;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "passgen.warm-up.enabled=true",
+        "passgen.warm-up.max-duration=PT20S",
+        "passgen.warm-up.passwords-per-round=200",
+        "passgen.warm-up.argon2-per-round=1"
+})
+@ActiveProfiles("memory")
+public class WarmUpTests {
+    @Autowired
+    WarmUp warmUp;
+
+    @Autowired
+    WarmUpHealthIndicator warmUpHealthIndicator;
+
+    @Autowired
+    PasswordRepository passwordRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void reportsReadinessAfterWarmUpWithoutTouchingStorage() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!warmUp.isComplete() && System.currentTimeMillis() < deadline) Thread.sleep(50);
+
+        assertEquals(WarmUp.State.COMPLETE, warmUp.getState());
+        assertTrue(warmUp.getRounds() > 0);
+        assertEquals(Status.UP, warmUpHealthIndicator.health().getStatus());
+        assertTrue(passwordRepository.countSearchHashBuckets().isEmpty());
+
+        Timer duration = meterRegistry.find("passgen.warm-up.duration").timer();
+        assertNotNull(duration);
+        assertEquals(1, duration.count());
+    }
+
+    @Test
+    public void outOfServiceUntilWarmedUp() {
+        WarmUpProperties properties = new WarmUpProperties();
+        properties.setEnabled(true);
+        // Never started
+        WarmUp pending = new WarmUp(null, null, null, null, properties, new SimpleMeterRegistry());
+
+        assertFalse(pending.isComplete());
+        assertEquals(Status.OUT_OF_SERVICE, new WarmUpHealthIndicator(pending).health().getStatus());
+    }
+
+    @Test
+    public void readyRightAwayWhenDisabled() {
+        WarmUp disabled = new WarmUp(null, null, null, null, new WarmUpProperties(), new SimpleMeterRegistry());
+
+        assertTrue(disabled.isComplete());
+        assertEquals(Status.UP, new WarmUpHealthIndicator(disabled).health().getStatus());
+    }
+}
@@ -0,0 +1,41 @@
+package com.exercise.passgen.Startup;
+
+import com.exercise.passgen.models.entities.PasswordEntity;
+import com.exercise.passgen.models.schemas.PasswordDTO;
+import com.exercise.passgen.models.schemas.PasswordGenerationResponseDTO;
+import com.exercise.passgen.startup.PassgenRuntimeHints;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.junit.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.Assert.*;
+
+public class PassgenRuntimeHintsTests {
+    private final RuntimeHints hints = new RuntimeHints();
+
+    public PassgenRuntimeHintsTests() {
+        new PassgenRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public void registersEntityAndDtos() {
+        for (Class<?> type: new Class<?>[] {PasswordEntity.class, PasswordDTO.class, PasswordDTO.PasswordDTOBuilder.class,
+                PasswordGenerationResponseDTO.class})
+            assertTrue(type.getName(), RuntimeHintsPredicates.reflection().onType(type)
+                    .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS).test(hints));
+    }
+
+    @Test
+    public void registersArgon2() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Argon2BytesGenerator.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Argon2Parameters.Builder.class).test(hints));
+    }
+
+    @Test
+    public void registersMigrations() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/V1__create_password_entity.sql").test(hints));
+    }
+}
@@ -0,0 +1,85 @@
+package com.exercise.passgen.Util;
+
+import com.exercise.passgen.util.Wordlist;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.*;
+
+public class WordlistTests {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void compiledWordsAreSortedAndFound() throws IOException {
+        Wordlist wordlist = open("# comment\npear\n\napple\n  zebra  \nápple\napple\n", "index.idx");
+
+        // Duplicates are dropped, words are sorted by their UTF-8 bytes
+        assertEquals(4, wordlist.size());
+        assertEquals("apple", wordlist.word(0));
+        assertEquals("pear", wordlist.word(1));
+        assertEquals("zebra", wordlist.word(2));
+        assertEquals("ápple", wordlist.word(3));
+        assertEquals("ápple".getBytes(StandardCharsets.UTF_8).length, wordlist.getMaxWordBytes());
+
+        for (int i = 0; i < wordlist.size(); i++)
+            assertEquals(i, wordlist.indexOf(wordlist.word(i)));
+        assertTrue(wordlist.indexOf("banana") < 0);
+        assertTrue(wordlist.indexOf("appl") < 0);
+        assertTrue(wordlist.indexOf("") < 0);
+
+        byte[] buffer = new byte[16];
+        int end = wordlist.copyWord(1, buffer, 2);
+        assertEquals(6, end);
+        assertEquals("pear", new String(buffer, 2, 4, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void dicewareLinesAreAccepted() throws IOException {
+        Wordlist wordlist = open("11111\tabacus\n11112 abdomen\n", "index.idx");
+
+        assertEquals(2, wordlist.size());
+        assertEquals("abacus", wordlist.word(0));
+        assertEquals("abdomen", wordlist.word(1));
+    }
+
+    @Test
+    public void invalidWordsAreRejected() {
+        assertThrows(IOException.class, () -> compile("apple\nfoo bar\n"));
+        assertThrows(IOException.class, () -> compile("apple\nsemi-colon\n"));
+        assertThrows(IOException.class, () -> compile("apple\nabcdefghijklmnopq\n"));
+        assertThrows(IOException.class, () -> compile("apple\n"));
+    }
+
+    @Test
+    public void indexIsRecompiledOnlyWhenTheSourceChanges() throws IOException {
+        Path index = temporaryFolder.getRoot().toPath().resolve("nested/index.idx");
+        Wordlist.open("apple\npear\n".getBytes(StandardCharsets.UTF_8), index, 16, '-');
+        long modified = Files.getLastModifiedTime(index).toMillis();
+
+        Files.setLastModifiedTime(index, FileTime.fromMillis(modified - 60_000));
+        Wordlist.open("apple\npear\n".getBytes(StandardCharsets.UTF_8), index, 16, '-');
+        assertEquals(modified - 60_000, Files.getLastModifiedTime(index).toMillis());
+
+        Wordlist changed = Wordlist.open("apple\npear\nplum\n".getBytes(StandardCharsets.UTF_8), index, 16, '-');
+        assertEquals(3, changed.size());
+        assertEquals(3, Wordlist.map(index).size());
+    }
+
+    private Wordlist open(String source, String index) throws IOException {
+        return Wordlist.open(source.getBytes(StandardCharsets.UTF_8), temporaryFolder.getRoot().toPath().resolve(index), 16, '-');
+    }
+
+    private static byte[] compile(String source) throws IOException {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        return Wordlist.compile(new ByteArrayInputStream(bytes), Wordlist.sha256(bytes), 16, '-');
+    }
+}
@@ -0,0 +1,112 @@
+#!/bin/bash
+# Compares the startup modes of startup/run.sh and prints a markdown report: time from launch until
+# /actuator/health/readiness reports UP, the startup time reported by Spring Boot, resident memory once ready
+# and the Argon2 throughput of the mode (see startup/Argon2Throughput.java).
+#
+#   startup/benchmark.sh [application arguments]
+#
+# Environment: MODES (default "jar aot cds cds-aot native", modes without built artifacts are skipped), RUNS (startups
+# per mode, default 5), PORT (default 8080), ARGON2_SECONDS (default 10).
+set -e
+cd "$(dirname "$0")/.."
+
+MODES=${MODES:-"jar aot cds cds-aot native"}
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+ARGON2_SECONDS=${ARGON2_SECONDS:-10}
+JAR=target/passgen-0.0.1-SNAPSHOT.jar
+CDS_JAR=target/cds/passgen-0.0.1-SNAPSHOT-cds.jar
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+# AOT-processed builds contain the generated application context initializer
+aot_processed() {
+  [ -f "$1" ] && jar tf "$1" | grep -q PassgenApplication__ApplicationContextInitializer
+}
+
+available() {
+  case "$1" in
+    jar)     [ -f "$JAR" ] ;;
+    aot)     aot_processed "$JAR" ;;
+    cds)     [ -f target/cds/passgen.jsa ] ;;
+    cds-aot) [ -f target/cds/passgen.jsa ] && aot_processed "$CDS_JAR" ;;
+    native)  [ -x target/passgen ] ;;
+    *)       false ;;
+  esac
+}
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { if (NR) print values[int((NR + 1) / 2)] }'
+}
+
+# Prints "<ms until ready> <rss MB> <started in s>"
+startup() {
+  local mode=$1 start ready="" pid rss started
+  shift
+  start=$(date +%s%N)
+  startup/run.sh "$mode" --server.port="$PORT" "$@" > "$LOG" 2>&1 &
+  pid=$!
+
+  for _ in $(seq 1 2400); do
+    if [ "$(curl -s -o /dev/null -w '%{http_code}' "localhost:$PORT/actuator/health/readiness")" = 200 ]; then
+      ready=$(( ($(date +%s%N) - start) / 1000000 ))
+      break
+    fi
+    kill -0 "$pid" 2>/dev/null || break
+    sleep 0.05
+  done
+
+  rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  if [ -z "$ready" ]; then
+    echo "$mode did not become ready:" >&2
+    tail -20 "$LOG" >&2
+    return 1
+  fi
+
+  started=$(grep -o "Started PassgenApplication in [0-9.]* seconds" "$LOG" | awk '{ print $4 }')
+  echo "$ready $(( rss / 1024 )) $started"
+}
+
+# Prints "<first hash ms> <hashes per second>"
+argon2() {
+  local mode=$1
+  shift
+  startup/run.sh "$mode" --server.port="$PORT" --passgen.startup.argon2-benchmark="${ARGON2_SECONDS}s" "$@" > "$LOG" 2>&1 || true
+  grep -o "Argon2 throughput: .*" "$LOG" | sed 's/.*first-hash-ms=\([0-9.]*\).*hashes-per-second=\([0-9.]*\).*/\1 \2/'
+}
+
+echo "# Startup report"
+echo
+echo "- date: $(date +%F), $(nproc) processors, $(java -version 2>&1 | head -1)"
+echo "- $RUNS startups per mode, application arguments: ${*:-none}"
+echo "- ready: launch until \`/actuator/health/readiness\` is UP, started: as reported by Spring Boot, RSS: once ready"
+echo "- Argon2: first hash (cold code) and throughput over ${ARGON2_SECONDS}s"
+echo
+echo "| mode | ready ms (median) | ready ms (min - max) | started s (median) | RSS MB (median) | Argon2 first hash ms | Argon2 hashes/s |"
+echo "|---|---:|---:|---:|---:|---:|---:|"
+
+for mode in $MODES; do
+  if ! available "$mode"; then
+    echo "| $mode | not built | | | | | |"
+    continue
+  fi
+
+  results=()
+  for _ in $(seq 1 "$RUNS"); do
+    if result=$(startup "$mode" "$@"); then results+=("$result"); fi
+  done
+  if [ ${#results[@]} -eq 0 ]; then
+    echo "| $mode | failed | | | | | |"
+    continue
+  fi
+
+  ready=$(printf '%s\n' "${results[@]}" | awk '{ print $1 }' | median)
+  min=$(printf '%s\n' "${results[@]}" | awk '{ print $1 }' | sort -n | head -1)
+  max=$(printf '%s\n' "${results[@]}" | awk '{ print $1 }' | sort -n | tail -1)
+  rss=$(printf '%s\n' "${results[@]}" | awk '{ print $2 }' | median)
+  started=$(printf '%s\n' "${results[@]}" | awk '{ print $3 }' | median)
+  read -r first rate <<< "$(argon2 "$mode" "$@")"
+  echo "| $mode | $ready | $min - $max | ${started:--} | $rss | ${first:--} | ${rate:--} |"
+done
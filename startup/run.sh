@@ -0,0 +1,30 @@
+#!/bin/bash
+# Starts the application in a given startup mode, the remaining arguments are passed to the application.
+#
+#   startup/run.sh jar|aot|cds|cds-aot|native [application arguments]
+#
+# Artifacts have to be built first (see README, "Startup modes"):
+#   jar      mvn package                      executable jar
+#   aot      mvn -Paot package                executable jar with the AOT-processed application context
+#   cds      mvn -Pcds package                plain jar with the class data sharing archive recorded by a training run
+#   cds-aot  mvn -Paot,cds package            both of the above
+#   native   mvn -Pnative native:compile      GraalVM native image
+# AOT and native builds fix profiles and conditional features at build time, see -Daot.profiles in pom.xml.
+# Extra JVM options can be set with JAVA_OPTS.
+set -e
+cd "$(dirname "$0")/.."
+
+MODE=$1
+shift || true
+JAR=target/passgen-0.0.1-SNAPSHOT.jar
+CDS_JAR=target/cds/passgen-0.0.1-SNAPSHOT-cds.jar
+CDS_ARCHIVE=target/cds/passgen.jsa
+
+case "$MODE" in
+  jar)     exec java $JAVA_OPTS -jar "$JAR" "$@" ;;
+  aot)     exec java $JAVA_OPTS -Dspring.aot.enabled=true -jar "$JAR" "$@" ;;
+  cds)     exec java $JAVA_OPTS -XX:SharedArchiveFile="$CDS_ARCHIVE" -jar "$CDS_JAR" "$@" ;;
+  cds-aot) exec java $JAVA_OPTS -XX:SharedArchiveFile="$CDS_ARCHIVE" -Dspring.aot.enabled=true -jar "$CDS_JAR" "$@" ;;
+  native)  exec target/passgen "$@" ;;
+  *)       echo "usage: $0 jar|aot|cds|cds-aot|native [application arguments]" >&2; exit 2 ;;
+esac